@@ -48,8 +48,14 @@ public class DialogFillerThread extends Thread {
 			component.setPreferredSize(new Dimension(300,50));
 			JLabel label = new JLabel("Incorrect password for this PDF file!");
 			component.add(label);
+		} catch(IllegalArgumentException e) {
+			//requested pages are not in the document
+			component = new JPanel(new FlowLayout(FlowLayout.CENTER));
+			component.setPreferredSize(new Dimension(500,50));
+			JLabel label = new JLabel(e.getMessage());
+			component.add(label);
 		} catch(IOException e) {
-			//PDF not found, requested pages not found, ...
+			//PDF not found, no permission, ...
 			component = new JPanel(new FlowLayout(FlowLayout.CENTER));
 			component.setPreferredSize(new Dimension(500,50));
 			JLabel label = new JLabel("Failed to open pages. Check if selected file exists and you have permissions to open it!");
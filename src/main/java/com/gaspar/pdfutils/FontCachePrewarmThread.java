@@ -0,0 +1,68 @@
+package com.gaspar.pdfutils;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ * PDFBox scans and indexes the system fonts the first time a font has to be substituted. This takes seconds (much longer 
+ * on hosts with a lot of fonts), and without this thread the first preview or extraction of the session would pay for it.
+ * <p>
+ * This thread does the scan at startup, with low priority. The index is stored by PDFBox in its own cache file, so after the 
+ * first run this only validates the cache. It also renders a tiny in memory document, so the rendering classes are loaded too.
+ * <p>
+ * Like {@link DialogFillerThread}, this is a daemon and won't keep the program running. If a real render starts while this 
+ * is still working, that render simply waits for the same scan, so nothing is lost.
+ * @author Gáspár Tamás
+ */
+public class FontCachePrewarmThread extends Thread {
+
+	private static final Logger LOGGER = Logger.getLogger(FontCachePrewarmThread.class.getName());
+	
+	public FontCachePrewarmThread() {
+		super("pdfutils-font-prewarm");
+		setDaemon(true);
+		setPriority(Thread.MIN_PRIORITY);
+	}
+	
+	@Override
+	public void run() {
+		final long start = System.nanoTime();
+		try {
+			//a font that is not embedded, so the mapper must build or load the system font index
+			FontMappers.instance().getFontBoxFont("Helvetica", null);
+			renderSamplePage();
+			LOGGER.fine("Font cache ready in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+		} catch(IOException | RuntimeException e) {
+			//not a problem, the first real render will do the scan instead
+			LOGGER.log(Level.FINE, "Could not prewarm the font cache", e);
+		}
+	}
+	
+	/**
+	 * Renders a small page with some standard 14 font text at very low resolution.
+	 * @throws IOException If PDFBox fails.
+	 */
+	private void renderSamplePage() throws IOException {
+		try(PDDocument document = new PDDocument()) {
+			final PDPage page = new PDPage(new PDRectangle(100, 50));
+			document.addPage(page);
+			try(PDPageContentStream content = new PDPageContentStream(document, page)) {
+				content.beginText();
+				content.setFont(PDType1Font.HELVETICA, 12);
+				content.newLineAtOffset(5, 20);
+				content.showText("PDF utils");
+				content.endText();
+			}
+			new PDFRenderer(document).renderImageWithDPI(0, 10);
+		}
+	}
+}
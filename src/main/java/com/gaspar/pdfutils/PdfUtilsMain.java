@@ -7,6 +7,7 @@ import javax.swing.JFrame;
 
 import com.gaspar.pdfutils.gui.Listeners;
 import com.gaspar.pdfutils.gui.RootPanel;
+import com.gaspar.pdfutils.server.PdfUtilsServer;
 
 public class PdfUtilsMain {
 	
@@ -16,10 +17,16 @@ public class PdfUtilsMain {
 	private static JFrame frame;
 	
 	/**
-	 * Entry point. There will be a GUI to specify what operation to do.
-	 * @param args Does not matter.
+	 * Entry point. There will be a GUI to specify what operation to do, unless the {@link PdfUtilsServer#SERVER_ARGUMENT} 
+	 * is given, which starts the HTTP server instead.
+	 * @param args Empty for the GUI. See {@link PdfUtilsServer#launch(String[])} for the server arguments.
 	 */
 	public static void main(String[] args) {
+		if(args.length > 0 && args[0].equals(PdfUtilsServer.SERVER_ARGUMENT)) {
+			PdfUtilsServer.launch(args); //no GUI at all
+			new FontCachePrewarmThread().start(); //after launch, which switches to headless mode
+			return;
+		}
 		frame = new JFrame("PDF Utilities");
 		frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE); //closing is handles in the window close listener
 		frame.addWindowListener(Listeners.getWindowCloseListener());
@@ -30,6 +37,7 @@ public class PdfUtilsMain {
         frame.getContentPane().add(root, BorderLayout.CENTER); //RootPanel will take care of the GUI
         frame.pack();
         frame.setVisible(true);
+        new FontCachePrewarmThread().start(); //so the first preview does not wait for the system font scan
 	}
 	
 	public static JFrame getFrame() {
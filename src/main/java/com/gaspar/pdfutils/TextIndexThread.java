@@ -0,0 +1,54 @@
+package com.gaspar.pdfutils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import com.gaspar.pdfutils.gui.PageViewerDialog;
+import com.gaspar.pdfutils.index.TextIndex;
+import com.gaspar.pdfutils.index.TextIndexStore;
+
+/**
+ * This thread gets the {@link TextIndex} of the document shown in a {@link PageViewerDialog}, so the dialog can find 
+ * pages by their text. The index is loaded from the {@link TextIndexStore} if the document was indexed before, otherwise 
+ * it is built and saved. It runs at the same time as the {@link DialogFillerThread}, and uses its own copy of the document.
+ * <p>
+ * Like {@link DialogFillerThread}, this won't count as an operation, so the program can close if this is working.
+ * @author Gáspár Tamás
+ */
+public class TextIndexThread extends Thread {
+
+	private static final Logger LOGGER = Logger.getLogger(TextIndexThread.class.getName());
+	
+	private final PageViewerDialog dialog;
+	
+	public TextIndexThread(final PageViewerDialog dialog) {
+		setDaemon(true);
+		this.dialog = dialog;
+	}
+	
+	@Override
+	public void run() {
+		final File file = new File(dialog.getPath());
+		final TextIndexStore store = new TextIndexStore();
+		TextIndex index = store.load(file);
+		if(index == null) {
+			try(PDDocument document = dialog.getPassword()==null ? PDDocument.load(file) : PDDocument.load(file, dialog.getPassword())) {
+				index = TextIndex.build(document);
+				//the index contains the text, so it must not be saved for protected documents
+				if(!document.isEncrypted()) store.save(file, index);
+			} catch(IOException e) {
+				//the filler thread shows the problem, if the document can't be opened
+				LOGGER.log(Level.FINE, "Could not index " + file, e);
+				return;
+			}
+		}
+		final TextIndex result = index;
+		SwingUtilities.invokeLater(() -> dialog.setTextIndex(result));
+	}
+}
@@ -0,0 +1,264 @@
+package com.gaspar.pdfutils.cache;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.gaspar.pdfutils.output.OutputTarget;
+
+/**
+ * Keeps the results of operations, so an operation repeated on unchanged inputs can copy the result instead of computing 
+ * it again. Results are found by a key, which is a hash of the content of the input files and of the parameters 
+ * of the operation, see {@link #key(Object...)} and {@link #hashFile(File)}.
+ * <p>
+ * Each result is a folder with the created files and a manifest. Results are written under a temporary name and renamed 
+ * when complete. When the cache grows over its size limit, the least recently used results are deleted.
+ * <p>
+ * The cache is disabled by default. It is enabled with the {@value #DIRECTORY_PROPERTY} system property, and its size 
+ * is set with {@value #MAX_BYTES_PROPERTY}.
+ * @author Gáspár Tamás
+ */
+public class ResultCache {
+
+	private static final Logger LOGGER = Logger.getLogger(ResultCache.class.getName());
+
+	/**
+	 * System property with the folder of the shared cache. If not set, there is no shared cache.
+	 */
+	public static final String DIRECTORY_PROPERTY = "pdfutils.resultCache.dir";
+	/**
+	 * System property with the size limit of the shared cache, in bytes.
+	 */
+	public static final String MAX_BYTES_PROPERTY = "pdfutils.resultCache.maxBytes";
+	/**
+	 * Size limit of the shared cache if the property is not set: 2 GB.
+	 */
+	public static final long DEFAULT_MAX_BYTES = 2L * 1024 * 1024 * 1024;
+	/**
+	 * Name of the manifest in a result folder. First line is the page count, then the names of the files.
+	 */
+	private static final String MANIFEST = "manifest.txt";
+
+	/**
+	 * Lazily created shared cache, null if it is disabled.
+	 */
+	private static ResultCache shared;
+	/**
+	 * True if the shared cache was already created.
+	 */
+	private static boolean sharedCreated = false;
+
+	/**
+	 * Folder of the results.
+	 */
+	private final File directory;
+	/**
+	 * Results are deleted when their total size is larger than this.
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Creates a cache.
+	 * @param directory Folder of the results. Created when the first result is stored.
+	 * @param maxBytes Size limit of the cache.
+	 */
+	public ResultCache(File directory, long maxBytes) {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * @return The cache configured with the system properties, or null if caching is disabled.
+	 */
+	public static synchronized ResultCache shared() {
+		if(!sharedCreated) {
+			final String path = System.getProperty(DIRECTORY_PROPERTY);
+			if(path != null && !path.isEmpty()) shared = new ResultCache(new File(path), Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES));
+			sharedCreated = true;
+		}
+		return shared;
+	}
+
+	/**
+	 * Creates a key from parameters. The parameters are converted to text, so they must have a stable string form.
+	 * @param parameters The parameters, for example hashes of the input files and settings of the operation.
+	 * @return The key.
+	 */
+	public static String key(Object... parameters) {
+		final StringBuilder identity = new StringBuilder();
+		for(Object parameter: parameters) identity.append(parameter).append('|');
+		return hex(sha256().digest(identity.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Hashes the content of a file, so a copy of the file gives the same key, and a changed file gives another key.
+	 * @param file The file.
+	 * @return Hash of the content.
+	 * @throws IOException If the file can't be read.
+	 */
+	public static String hashFile(File file) throws IOException {
+		final MessageDigest digest = sha256();
+		try(InputStream in = new DigestInputStream(Files.newInputStream(file.toPath()), digest)) {
+			final byte[] buffer = new byte[64 * 1024];
+			while(in.read(buffer) != -1) {
+				//the digest reads along
+			}
+		}
+		return hex(digest.digest());
+	}
+
+	/**
+	 * Copies a stored result into an output. The result is marked as used, so it is deleted later.
+	 * @param key Key of the result.
+	 * @param output The files are copied here.
+	 * @return The copied result, or null if it is not in the cache.
+	 * @throws IOException If a file can't be copied.
+	 */
+	public CachedResult restore(String key, OutputTarget output) throws IOException {
+		final File entry = new File(directory, key);
+		final File manifest = new File(entry, MANIFEST);
+		if(!manifest.isFile()) return null;
+		manifest.setLastModified(System.currentTimeMillis()); //recently used, so it is not evicted now
+		final List<String> lines;
+		try {
+			lines = Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8);
+		} catch(IOException e) { //deleted meanwhile
+			return null;
+		}
+		final int pageCount = Integer.parseInt(lines.get(0));
+		final List<String> outputs = lines.subList(1, lines.size());
+		for(String name: outputs) {
+			try(OutputStream out = output.openEntry(name)) {
+				Files.copy(new File(entry, name).toPath(), out);
+			}
+		}
+		return new CachedResult(new ArrayList<>(outputs), pageCount);
+	}
+
+	/**
+	 * Stores a result. Results larger than the size limit are not stored. Problems are only logged, the cache is 
+	 * not important enough to fail an operation.
+	 * @param key Key of the result.
+	 * @param source Folder where the files of the result are.
+	 * @param outputs Names of the files, relative to the folder.
+	 * @param pageCount Amount of pages processed by the operation.
+	 */
+	public void store(String key, File source, List<String> outputs, int pageCount) {
+		final File entry = new File(directory, key);
+		if(entry.exists()) return;
+		long size = 0;
+		for(String name: outputs) size += new File(source, name).length();
+		if(size > maxBytes) return;
+		final Path temp = new File(directory, "." + key + "-" + UUID.randomUUID()).toPath();
+		try {
+			Files.createDirectories(temp);
+			for(String name: outputs) Files.copy(new File(source, name).toPath(), temp.resolve(name));
+			try(BufferedWriter writer = Files.newBufferedWriter(temp.resolve(MANIFEST), StandardCharsets.UTF_8)) {
+				writer.write(Integer.toString(pageCount));
+				writer.newLine();
+				for(String name: outputs) {
+					writer.write(name);
+					writer.newLine();
+				}
+			}
+			Files.move(temp, entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			evict();
+		} catch(IOException e) { //for example another job stored the same result
+			LOGGER.log(Level.FINE, "Result not cached", e);
+		} finally {
+			deleteFolder(temp.toFile());
+		}
+	}
+
+	/**
+	 * Deletes the least recently used results until the cache fits into the size limit.
+	 */
+	private void evict() {
+		final File[] entries = directory.listFiles(file -> file.isDirectory() && new File(file, MANIFEST).isFile());
+		if(entries == null) return;
+		long total = 0;
+		final List<File> results = new ArrayList<>();
+		for(File entry: entries) {
+			total += folderSize(entry);
+			results.add(entry);
+		}
+		results.sort(Comparator.comparingLong(entry -> new File(entry, MANIFEST).lastModified()));
+		for(File entry: results) {
+			if(total <= maxBytes) break;
+			final long size = folderSize(entry);
+			new File(entry, MANIFEST).delete(); //the result is no longer found, even if it is not deleted completely
+			deleteFolder(entry);
+			total -= size;
+		}
+	}
+
+	private static long folderSize(File folder) {
+		long size = 0;
+		final File[] files = folder.listFiles();
+		if(files != null) for(File file: files) size += file.length();
+		return size;
+	}
+
+	private static void deleteFolder(File folder) {
+		final File[] files = folder.listFiles();
+		if(files != null) for(File file: files) file.delete();
+		folder.delete();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+
+	private static String hex(byte[] hash) {
+		final StringBuilder hex = new StringBuilder();
+		for(byte b: hash) hex.append(String.format("%02x", b));
+		return hex.toString();
+	}
+
+	/**
+	 * A result copied from the cache.
+	 */
+	public static class CachedResult {
+
+		/**
+		 * Names of the files.
+		 */
+		private final List<String> outputs;
+		/**
+		 * Amount of pages processed by the original operation.
+		 */
+		private final int pageCount;
+
+		private CachedResult(List<String> outputs, int pageCount) {
+			this.outputs = outputs;
+			this.pageCount = pageCount;
+		}
+
+		public List<String> getOutputs() {
+			return outputs;
+		}
+
+		public int getPageCount() {
+			return pageCount;
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the source or the destination files can't be read or written.
+ * @author Gáspár Tamás
+ */
+public class DocumentAccessException extends EngineException {
+
+	public DocumentAccessException(IOException cause) {
+		super("The source or destination files could not be opened! Maybe they don't exist or this app does not have permission to read/write there.", cause);
+	}
+}
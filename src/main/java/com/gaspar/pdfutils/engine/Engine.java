@@ -0,0 +1,215 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+
+import com.gaspar.pdfutils.cache.ResultCache;
+import com.gaspar.pdfutils.cache.ResultCache.CachedResult;
+import com.gaspar.pdfutils.events.DocumentLoadEvent;
+import com.gaspar.pdfutils.events.DocumentSaveEvent;
+import com.gaspar.pdfutils.output.AsyncDirectoryOutputTarget;
+import com.gaspar.pdfutils.output.OutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressOutputStream;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+
+/**
+ * Base class of the engines, which do the actual work of the modes. Engines don't depend on Swing, so they can be 
+ * used from a server or from the console, even in a headless JVM.
+ * <p>
+ * Engines are stateless, the same instance can execute many requests, even at the same time.
+ * <p>
+ * Engines that implement {@link #cacheKey(EngineRequest)} can copy their results from the {@link ResultCache}, when 
+ * the same request is executed again on unchanged inputs. Only results written into the destination folder are cached.
+ * @author Gáspár Tamás
+ * @param <R> Type of the requests this engine executes.
+ */
+public abstract class Engine<R extends EngineRequest> {
+
+	private static final Logger LOGGER = Logger.getLogger(Engine.class.getName());
+
+	/**
+	 * Validates and executes a request. PDFBox exceptions are translated to {@link EngineException}s.
+	 * @param request Describes what to do.
+	 * @param listener Progress is reported here.
+	 * @return Describes the created files.
+	 * @throws InvalidRequestException If the request is not valid.
+	 * @throws WrongPasswordException If the password of the source PDF is incorrect.
+	 * @throws DocumentAccessException If the source or destination can't be opened.
+	 * @throws EngineException Other engine specific problems.
+	 */
+	public final EngineResult execute(R request, ProgressListener listener) throws EngineException {
+		request.validate();
+		final long start = System.nanoTime();
+		final EngineResult result;
+		//if the request has no target, then the files go into the destination folder
+		final boolean ownTarget = request.getOutputTarget() == null;
+		final OutputTarget target = ownTarget ? new AsyncDirectoryOutputTarget(new File(request.getDestinationPath())) : request.getOutputTarget();
+		//results in the destination folder can be cached, if the engine supports it
+		final ResultCache cache = ownTarget ? ResultCache.shared() : null;
+		boolean restored = false;
+		try {
+			final String cacheKey = cache != null ? cacheKey(request) : null;
+			try {
+				final CachedResult cached = cacheKey != null ? restore(cache, cacheKey, target, listener) : null;
+				restored = cached != null;
+				result = restored ? new EngineResult(cached.getOutputs(), cached.getPageCount()) : process(request, target, listener);
+			} catch(IOException | EngineException | RuntimeException e) {
+				if(ownTarget) { //the last file may be incomplete
+					try {
+						target.abort();
+					} catch(IOException suppressed) {
+						e.addSuppressed(suppressed);
+					}
+				}
+				throw e;
+			}
+			if(ownTarget) target.close(); //targets from the request are closed by their owner
+			if(cacheKey != null && !restored) cache.store(cacheKey, new File(request.getDestinationPath()), result.getOutputs(), result.getPageCount());
+		} catch(InvalidPasswordException e) {
+			throw new WrongPasswordException(e);
+		} catch(IOException e) {
+			throw new DocumentAccessException(e);
+		}
+		result.setElapsedNanos(System.nanoTime() - start);
+		result.setCached(restored);
+		return result;
+	}
+
+	/**
+	 * Does the actual work. The request is already validated.
+	 * @param request Describes what to do.
+	 * @param output The created files must be written here.
+	 * @param listener Progress is reported here.
+	 * @return Describes the created files.
+	 * @throws IOException If reading or writing failed.
+	 * @throws EngineException Engine specific problems.
+	 */
+	protected abstract EngineResult process(R request, OutputTarget output, ProgressListener listener) throws IOException, EngineException;
+
+	/**
+	 * Creates the key of a request for the {@link ResultCache}, from the content of the input files and the parameters 
+	 * that affect the result. By default results are not cached.
+	 * @param request The request, already validated.
+	 * @return The key, or null if the result of this request must not be cached. Results of password protected 
+	 * documents should not be cached, because the cache would make their content available without the password.
+	 * @throws IOException If an input file can't be read.
+	 */
+	protected String cacheKey(R request) throws IOException {
+		return null;
+	}
+
+	/**
+	 * Copies a cached result into the output.
+	 * @param cache The cache.
+	 * @param key Key of the request.
+	 * @param output The files are copied here.
+	 * @param listener Progress is reported here.
+	 * @return The result, or null if it was not found, or could not be copied. Then it must be computed.
+	 */
+	private CachedResult restore(ResultCache cache, String key, OutputTarget output, ProgressListener listener) {
+		try {
+			final CachedResult cached = cache.restore(key, output);
+			if(cached != null) {
+				LOGGER.info("Result copied from the cache");
+				listener.progressChanged(ProgressPhase.SAVING, 1, 1);
+			}
+			return cached;
+		} catch(IOException e) { //deleted from the cache meanwhile, the same files will be written again
+			LOGGER.log(Level.WARNING, "Cached result could not be copied", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Opens a PDF file.
+	 * @param path Path of the file.
+	 * @param password Password of the file, null if it is not protected.
+	 * @return The document, must be closed by the caller.
+	 * @throws InvalidPasswordException If the password is incorrect.
+	 * @throws IOException If the file can't be read.
+	 */
+	protected static PDDocument loadDocument(String path, String password) throws IOException {
+		final File file = new File(path);
+		final DocumentLoadEvent event = new DocumentLoadEvent();
+		event.begin();
+		PDDocument document = null;
+		try {
+			document = password==null ? PDDocument.load(file) : PDDocument.load(file, password);
+			return document;
+		} finally {
+			event.finish(file, document);
+		}
+	}
+
+	/**
+	 * Closes the open ranges of a page selection and checks if all pages are in the document.
+	 * @param pages The selection, 1 based.
+	 * @param document The document.
+	 * @return The closed selection.
+	 * @throws InvalidRequestException If a page is not in the document, or nothing is selected.
+	 */
+	protected static PageSet resolvePages(PageSet pages, PDDocument document) throws InvalidRequestException {
+		try {
+			final PageSet resolved = pages.resolve(document.getNumberOfPages());
+			if(resolved.isEmpty()) throw new InvalidRequestException("No pages are selected!");
+			return resolved;
+		} catch(IllegalArgumentException e) {
+			throw new InvalidRequestException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Encrypts a document with a password, which will be needed to open it.
+	 * @param document The document, which is not yet saved.
+	 * @param password The password.
+	 * @throws IOException If the encryption can't be set up.
+	 */
+	protected static void protect(PDDocument document, String password) throws IOException {
+		int keyLength = 128;
+		AccessPermission ap = new AccessPermission();
+		StandardProtectionPolicy spp = new StandardProtectionPolicy(password, password, ap);
+		spp.setEncryptionKeyLength(keyLength);
+		spp.setPermissions(ap);
+		document.protect(spp);
+	}
+
+	/**
+	 * Saves a document and reports the written bytes as progress.
+	 * @param document The document.
+	 * @param output Saved into an entry of this target.
+	 * @param name Name of the entry.
+	 * @param listener Progress is reported here.
+	 * @param expectedSize Estimated size of the saved file.
+	 * @throws IOException If the file can't be written.
+	 */
+	protected static void save(PDDocument document, OutputTarget output, String name, ProgressListener listener, long expectedSize) throws IOException {
+		//PDFBox writes byte by byte, so the buffer is in front of the counting stream
+		final DocumentSaveEvent event = new DocumentSaveEvent();
+		event.begin();
+		final ProgressOutputStream counter = new ProgressOutputStream(output.openEntry(name), listener, expectedSize);
+		try(OutputStream out = new BufferedOutputStream(counter, 64 * 1024)) {
+			document.save(out);
+		}
+		event.finish(name, document.getNumberOfPages(), counter.getWritten());
+	}
+
+	/**
+	 * Adds the '.pdf' extension to a file name, if it does not have it already.
+	 * @param name The name.
+	 * @return The name with extension.
+	 */
+	protected static String withPdfExtension(String name) {
+		return name.endsWith(".pdf") ? name : name+".pdf";
+	}
+}
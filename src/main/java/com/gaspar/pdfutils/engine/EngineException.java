@@ -0,0 +1,16 @@
+package com.gaspar.pdfutils.engine;
+
+/**
+ * Base class of the exceptions thrown by the engines. The message is always suitable to be displayed to the user.
+ * @author Gáspár Tamás
+ */
+public class EngineException extends Exception {
+
+	public EngineException(String message) {
+		super(message);
+	}
+
+	public EngineException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,48 @@
+package com.gaspar.pdfutils.engine;
+
+import com.gaspar.pdfutils.output.OutputTarget;
+
+/**
+ * Base class of the requests that describe what an {@link Engine} should do. Required parameters are given in the 
+ * constructor, optional ones must be set after object creation.
+ * @author Gáspár Tamás
+ */
+public abstract class EngineRequest {
+
+	/**
+	 * Path of the folder where the results will be placed. Not used if {@link #outputTarget} is set.
+	 */
+	private final String destinationPath;
+	/**
+	 * Optional destination of the results, instead of the destination folder. Null by default. The engine does 
+	 * not close it, that is the job of whoever set it.
+	 */
+	private OutputTarget outputTarget;
+
+	protected EngineRequest(String destinationPath) {
+		this.destinationPath = destinationPath;
+	}
+
+	/**
+	 * Checks the parameters of this request. This is called by the engine before any work is done. Subclasses must 
+	 * call this implementation, which checks the destination.
+	 * @throws InvalidRequestException If a parameter is not valid.
+	 */
+	public void validate() throws InvalidRequestException {
+		if(outputTarget == null && (destinationPath == null || destinationPath.isEmpty())) {
+			throw new InvalidRequestException("No destination folder given!");
+		}
+	}
+
+	public String getDestinationPath() {
+		return destinationPath;
+	}
+
+	public OutputTarget getOutputTarget() {
+		return outputTarget;
+	}
+
+	public void setOutputTarget(OutputTarget outputTarget) {
+		this.outputTarget = outputTarget;
+	}
+}
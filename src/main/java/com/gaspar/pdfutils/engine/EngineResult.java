@@ -0,0 +1,65 @@
+package com.gaspar.pdfutils.engine;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes what an {@link Engine} produced.
+ * @author Gáspár Tamás
+ */
+public class EngineResult {
+
+	/**
+	 * Names of the created files, relative to the destination folder, in the order they were created.
+	 */
+	private final List<String> outputs;
+	/**
+	 * Amount of pages (or images) processed.
+	 */
+	private final int pageCount;
+	/**
+	 * How long the engine worked. Set by the engine after processing.
+	 */
+	private long elapsedNanos;
+	/**
+	 * True if the result was copied from the {@link com.gaspar.pdfutils.cache.ResultCache}. Set by the engine.
+	 */
+	private boolean cached;
+
+	public EngineResult(List<String> outputs, int pageCount) {
+		this.outputs = Collections.unmodifiableList(outputs);
+		this.pageCount = pageCount;
+	}
+
+	public List<String> getOutputs() {
+		return outputs;
+	}
+
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+	}
+
+	/**
+	 * @return Processing speed, in pages (or images) per second. 0 if nothing was processed.
+	 */
+	public double getPagesPerSecond() {
+		return elapsedNanos > 0 ? pageCount * 1e9 / elapsedNanos : 0;
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public boolean isCached() {
+		return cached;
+	}
+
+	void setCached(boolean cached) {
+		this.cached = cached;
+	}
+}
@@ -0,0 +1,173 @@
+package com.gaspar.pdfutils.engine;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import com.gaspar.pdfutils.output.ImageEncoder;
+import com.gaspar.pdfutils.output.OutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+import com.gaspar.pdfutils.render.RenderBudget;
+
+/**
+ * Saves the images embedded in the selected pages, without rendering the pages. The images are found in the resources
+ * of the pages, and of the forms used by the pages. Images used many times are only saved once, on the first page
+ * they appear.
+ * <p>
+ * Most images are copied in their original encoding, without decoding them, which is much faster than rendering
+ * scanned pages:
+ * <ul>
+ * <li>JPEG (DCT) images are saved as <i>.jpg</i> files.</li>
+ * <li>JPEG 2000 (JPX) images are saved as <i>.jp2</i> files.</li>
+ * <li>CCITT Group 4 images, the usual black and white scans, are saved as <i>.tif</i> files.</li>
+ * </ul>
+ * Other images (for example JBIG2, CCITT Group 3 or images stored with lossless compression) are decoded and saved
+ * as PNG. Copied images are the original data, so soft masks and decode arrays of the PDF are not applied to them.
+ * @author Gáspár Tamás
+ */
+public class ExtractEmbeddedImagesEngine extends Engine<ExtractEmbeddedImagesRequest> {
+
+	@Override
+	protected EngineResult process(ExtractEmbeddedImagesRequest request, OutputTarget output, ProgressListener listener) throws IOException, EngineException {
+		try(PDDocument document = loadDocument(request.getSourcePath(), request.getPassword())) {
+			final PageSet pages = resolvePages(request.getPages(), document); //closes open ranges and checks if the pages exist
+			final int pageCount = pages.size();
+			listener.progressChanged(ProgressPhase.PAGES, 0, pageCount); //show 0 progress
+
+			final List<String> outputs = new ArrayList<>();
+			//images are compared by identity: the parser creates one stream object for each object of the file
+			final Set<COSStream> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+			final PrimitiveIterator.OfInt iterator = pages.iterator();
+			int processed = 0;
+			while(iterator.hasNext()) {
+				final int pageNumber = iterator.nextInt();
+				final List<ImageStream> images = new ArrayList<>();
+				final PDResources resources = document.getPage(pageNumber - 1).getResources();
+				if(resources != null) { //blank pages may have no resources
+					collectImages(resources.getCOSObject(), images, Collections.newSetFromMap(new IdentityHashMap<>()));
+				}
+				int counter = 1;
+				for(ImageStream image: images) {
+					if(!saved.add(image.stream)) continue; //already saved from an earlier page
+					outputs.add(saveImage(image, request.getImageNamePrefix() + pageNumber + "_" + counter, output));
+					counter++;
+				}
+				processed++;
+				listener.progressChanged(ProgressPhase.PAGES, processed, pageCount);
+			}
+			return new EngineResult(outputs, pageCount);
+		}
+	}
+
+	/**
+	 * Finds the images in resources, and in the resources of the forms they have.
+	 * @param resources The resource dictionary.
+	 * @param images The images are added here, in the order of the resources.
+	 * @param visitedForms Forms that were already searched, so cyclic forms don't cause an endless loop.
+	 */
+	private void collectImages(COSDictionary resources, List<ImageStream> images, Set<COSStream> visitedForms) {
+		final COSDictionary xObjects = resources.getCOSDictionary(COSName.XOBJECT);
+		if(xObjects == null) return;
+		for(COSName name: xObjects.keySet()) {
+			final COSBase object = xObjects.getDictionaryObject(name);
+			if(!(object instanceof COSStream)) continue; //broken reference
+			final COSStream stream = (COSStream)object;
+			final COSName subtype = stream.getCOSName(COSName.SUBTYPE);
+			if(COSName.IMAGE.equals(subtype)) {
+				images.add(new ImageStream(stream, resources));
+			} else if(COSName.FORM.equals(subtype) && visitedForms.add(stream)) {
+				final COSDictionary formResources = stream.getCOSDictionary(COSName.RESOURCES);
+				if(formResources != null) collectImages(formResources, images, visitedForms);
+			}
+		}
+	}
+
+	/**
+	 * Saves an image, copying the original data if possible.
+	 * @param image The image.
+	 * @param name Name of the file, without extension.
+	 * @param output The file is created here.
+	 * @return Name of the created file.
+	 * @throws IOException If the image can't be read or written.
+	 */
+	private String saveImage(ImageStream image, String name, OutputTarget output) throws IOException {
+		final PDStream stream = new PDStream(image.stream);
+		if(ImageStreams.isTiffCompatibleCcitt(stream)) {
+			final String fileName = name + ".tif";
+			try(OutputStream out = output.openEntry(fileName)) {
+				ImageStreams.copyCcittAsTiff(stream, out);
+			}
+			return fileName;
+		}
+		if(!ImageStreams.isJpeg(stream) && !ImageStreams.isJpeg2000(stream)) return decode(image, name + ".png", output);
+		//JPEG and JPEG 2000 data are complete image files
+		final String fileName = name + (ImageStreams.isJpeg(stream) ? ".jpg" : ".jp2");
+		try(OutputStream out = output.openEntry(fileName)) {
+			ImageStreams.copy(stream, out);
+		}
+		return fileName;
+	}
+
+	/**
+	 * Decodes an image and saves it as PNG.
+	 * @param image The image.
+	 * @param fileName Name of the file.
+	 * @param output The file is created here.
+	 * @return Name of the file.
+	 * @throws IOException If the image can't be read or written.
+	 */
+	@SuppressWarnings("try")
+	private String decode(ImageStream image, String fileName, OutputTarget output) throws IOException {
+		final COSDictionary dictionary = image.stream;
+		final long bytes = 4L * dictionary.getInt(COSName.WIDTH, COSName.W, 1) * dictionary.getInt(COSName.HEIGHT, COSName.H, 1);
+		//decoded images use the same memory as rendered pages
+		try(RenderBudget.Reservation reservation = RenderBudget.shared().reserve(bytes)) {
+			final BufferedImage decoded = new PDImageXObject(new PDStream(image.stream), new PDResources(image.resources)).getImage();
+			try(OutputStream out = output.openEntry(fileName)) {
+				ImageEncoder.write(decoded, "png", out);
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for memory to decode " + fileName);
+		}
+		return fileName;
+	}
+
+	/**
+	 * An image found in the resources.
+	 */
+	private static class ImageStream {
+
+		/**
+		 * The image.
+		 */
+		private final COSStream stream;
+		/**
+		 * The resources where the image was found. Needed if the color space of the image is a named resource.
+		 */
+		private final COSDictionary resources;
+
+		private ImageStream(COSStream stream, COSDictionary resources) {
+			this.stream = stream;
+			this.resources = resources;
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.gaspar.pdfutils.engine;
+
+import com.gaspar.pdfutils.pages.PageSet;
+
+/**
+ * Request for the {@link ExtractEmbeddedImagesEngine}: save the images embedded in pages of a PDF, without rendering the pages.
+ * @author Gáspár Tamás
+ */
+public class ExtractEmbeddedImagesRequest extends EngineRequest {
+
+	/**
+	 * Path of the source PDF file.
+	 */
+	private final String sourcePath;
+	/**
+	 * Pages whose images are extracted, 1 based. May have an open range.
+	 */
+	private final PageSet pages;
+	/**
+	 * Images are named with this prefix, the page number and a counter, for example "img_3_1.jpg".
+	 */
+	private final String imageNamePrefix;
+	/**
+	 * Password for the PDF file. Null if no password is given.
+	 */
+	private String password;
+
+	/**
+	 * Creates a request.
+	 * @param sourcePath Path of the source PDF file.
+	 * @param destinationPath The folder where the images will be placed.
+	 * @param pages Pages whose images are extracted, 1 based.
+	 * @param imageNamePrefix Images are named with this prefix.
+	 */
+	public ExtractEmbeddedImagesRequest(String sourcePath, String destinationPath, PageSet pages, String imageNamePrefix) {
+		super(destinationPath);
+		this.sourcePath = sourcePath;
+		this.pages = pages;
+		this.imageNamePrefix = imageNamePrefix;
+	}
+
+	@Override
+	public void validate() throws InvalidRequestException {
+		super.validate();
+		if(imageNamePrefix == null || imageNamePrefix.isEmpty()) throw new InvalidRequestException("There must be an image prefix!");
+		if(pages == null || pages.isEmpty()) throw new InvalidRequestException("No pages are selected!");
+	}
+
+	public String getSourcePath() {
+		return sourcePath;
+	}
+
+	public PageSet getPages() {
+		return pages;
+	}
+
+	public String getImageNamePrefix() {
+		return imageNamePrefix;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+}
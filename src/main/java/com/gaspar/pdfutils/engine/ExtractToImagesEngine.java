@@ -0,0 +1,363 @@
+package com.gaspar.pdfutils.engine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import com.gaspar.pdfutils.cache.ResultCache;
+import com.gaspar.pdfutils.events.ImageEncodeEvent;
+import com.gaspar.pdfutils.events.PageRenderEvent;
+import com.gaspar.pdfutils.output.DirectoryOutputTarget;
+import com.gaspar.pdfutils.output.ImageEncoder;
+import com.gaspar.pdfutils.output.ImageFormat;
+import com.gaspar.pdfutils.output.MultiPageImageWriter;
+import com.gaspar.pdfutils.output.OutputTarget;
+import com.gaspar.pdfutils.output.ZipOutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressOutputStream;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+import com.gaspar.pdfutils.render.BilevelRenderer;
+import com.gaspar.pdfutils.render.RenderBudget;
+import com.gaspar.pdfutils.render.RenderQuality;
+import com.gaspar.pdfutils.render.ScannedPageDetector;
+import com.gaspar.pdfutils.render.TiledPageImage;
+
+/**
+ * Renders the selected pages of a PDF into separate images, named with a prefix and a counter. The format is PNG 
+ * by default, or a black and white format using the {@link BilevelRenderer}. Pages that would make a very large color 
+ * image are rendered in strips with a {@link TiledPageImage}, except for JPEG, whose writer needs the whole image. 
+ * Low resolution images are rendered with {@link RenderQuality#FAST} quality, unless the request sets the quality. 
+ * The time of each page is logged with {@link Level#FINE} level, and rendering and encoding are recorded as 
+ * {@link PageRenderEvent}s and {@link ImageEncodeEvent}s for Flight Recorder.
+ * <p>
+ * TIFF images can also be written into a single multi-page file with a {@link MultiPageImageWriter}. Each page is appended 
+ * as soon as it is rendered, so only the raster of the current page is in memory.
+ * <p>
+ * Scanned pages, found by the {@link ScannedPageDetector}, are not rendered: their image is saved at its own resolution. 
+ * If the image is already in the requested format (a JPEG scan saved as JPEG, or a CCITT G4 scan saved as G4 TIFF), 
+ * its data is copied without decoding it.
+ * <p>
+ * If the request asks for an archive, the images are written into a single ZIP file as they are produced, with a 
+ * {@link ZipOutputTarget}, so no separate image files are created.
+ * <p>
+ * Separate files in the destination folder are recorded in a {@link JobJournal}. If the job is interrupted, running 
+ * it again only creates the missing images. The journal is deleted when the job is complete.
+ * @author Gáspár Tamás
+ */
+public class ExtractToImagesEngine extends Engine<ExtractToImagesRequest> {
+
+	private static final Logger LOGGER = Logger.getLogger(ExtractToImagesEngine.class.getName());
+
+	/**
+	 * Results of password protected documents are not cached. The result depends on the content of the document and 
+	 * every setting that affects the images. The binarization is only used by black and white formats.
+	 */
+	@Override
+	protected String cacheKey(ExtractToImagesRequest request) throws IOException {
+		if(request.getPassword() != null) return null;
+		final ImageFormat format = request.getFormat();
+		final RenderQuality quality = request.getQuality() != null ? request.getQuality() : RenderQuality.forDpi(request.getDpi());
+		return ResultCache.key(getClass().getName(), ResultCache.hashFile(new File(request.getSourcePath())), request.getPages(), 
+				request.getImageNamePrefix(), format, request.getDpi(), quality, request.isMultiPage(), request.isArchive(), 
+				format.isBilevel() ? request.getBinarization() + "/" + request.getThreshold() : null);
+	}
+
+	@Override
+	protected EngineResult process(ExtractToImagesRequest request, OutputTarget output, ProgressListener listener) throws IOException, EngineException {
+		final ImageFormat format = request.getFormat();
+		try { //fail before anything is rendered
+			ImageEncoder.getWriter(format.getFormatName()).dispose();
+		} catch(IOException e) {
+			throw new InvalidRequestException(e.getMessage());
+		}
+		if(request.isArchive()) { //the archive is one file of the output, written while the pages are rendered
+			final String archiveName = request.getImageNamePrefix() + "images.zip";
+			try(OutputStream out = output.openEntry(archiveName)) {
+				final ZipOutputTarget archive = new ZipOutputTarget(out);
+				final EngineResult result;
+				try {
+					result = extract(request, archive, listener, null);
+				} catch(IOException | EngineException | RuntimeException e) {
+					archive.abort(); //the archive file itself is discarded by the output
+					throw e;
+				}
+				archive.close();
+				return new EngineResult(Collections.singletonList(archiveName), result.getPageCount());
+			}
+		}
+		//separate files in the destination folder are journaled, so an interrupted job can be continued
+		final boolean journaled = request.getOutputTarget() == null && output instanceof DirectoryOutputTarget && !request.isMultiPage();
+		try(JobJournal journal = journaled ? openJournal(request) : null) {
+			if(journal != null) ((DirectoryOutputTarget)output).setCommitListener(journal); //pages are recorded when their files are renamed
+			final EngineResult result = extract(request, output, listener, journal);
+			if(journal != null) { //the job is complete when the last file is renamed
+				output.close();
+				journal.delete();
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Opens the journal of a job in the destination folder. The job is identified by the source file and the parameters 
+	 * that affect the images.
+	 * @param request The request.
+	 * @return The journal.
+	 * @throws IOException If the journal can't be read or written.
+	 */
+	private JobJournal openJournal(ExtractToImagesRequest request) throws IOException {
+		final File source = new File(request.getSourcePath()).getAbsoluteFile();
+		final String key = JobJournal.key(source, source.length(), source.lastModified(), request.getPages(), request.getImageNamePrefix(), 
+				request.getFormat(), request.getDpi(), request.getBinarization(), request.getThreshold(), request.getQuality());
+		final JobJournal journal = new JobJournal(new File(request.getDestinationPath(), "." + request.getImageNamePrefix() + "journal"), key);
+		if(journal.getRecordedPages() > 0) LOGGER.info("Continuing interrupted job, " + journal.getRecordedPages() + " pages were completed");
+		return journal;
+	}
+
+	/**
+	 * Renders the pages into an output.
+	 * @param request The request.
+	 * @param output The images are written here.
+	 * @param listener Progress is reported here.
+	 * @param journal Completed pages are recorded here, and pages completed by an earlier run are skipped. Null if 
+	 * the job is not journaled.
+	 * @return Names of the created images, and the amount of pages.
+	 * @throws IOException If the source can't be read or an image can't be written.
+	 * @throws EngineException If the request has invalid pages or a wrong password.
+	 */
+	@SuppressWarnings("try")
+	private EngineResult extract(ExtractToImagesRequest request, OutputTarget output, ProgressListener listener, JobJournal journal) throws IOException, EngineException {
+		final ImageFormat format = request.getFormat();
+		try(PDDocument document = loadDocument(request.getSourcePath(), request.getPassword())) {
+			final PDFRenderer pdfRenderer = new PDFRenderer(document);
+			final RenderQuality quality = request.getQuality() != null ? request.getQuality() : RenderQuality.forDpi(request.getDpi());
+			quality.apply(pdfRenderer);
+			
+			final PageSet pages = resolvePages(request.getPages(), document); //closes open ranges and checks if the pages exist
+			if(!format.isWrittenInStrips()) checkWholeImages(pages, document, request.getDpi());
+			final int pageCount = pages.size();
+			listener.progressChanged(ProgressPhase.PAGES, 0, pageCount); //show 0 progress
+			
+			final List<String> outputs = new ArrayList<>();
+			//in multi-page mode every page is appended to this file as soon as it is rendered
+			final String multiPageName = request.getImageNamePrefix() + "pages." + format.getExtension();
+			try(MultiPageImageWriter multiPageWriter = request.isMultiPage() ? new MultiPageImageWriter(output, multiPageName, format) : null) {
+				final PrimitiveIterator.OfInt iterator = pages.iterator();
+				int counter = 1;
+				while(iterator.hasNext()) {
+					final int pageIndex = iterator.nextInt() - 1; //PDFBox uses 0 based indices
+					final PDPage page = document.getPage(pageIndex);
+					final String fileName = request.getImageNamePrefix() + counter + "." + format.getExtension();
+					final long pageStart = System.nanoTime();
+					//pages written by an interrupted run of the job are not written again
+					final boolean done = journal != null && journal.isComplete(pageIndex + 1, fileName);
+					//scans are saved at their own resolution, and copied if they are already in the requested format
+					final PDImageXObject scan = done ? null : ScannedPageDetector.findScannedImage(page);
+					if(done) {
+						outputs.add(fileName);
+						logTime(pageIndex, "skipped", pageStart);
+					} else if(scan != null && multiPageWriter == null && canCopy(format, scan)) {
+						final ImageEncodeEvent encodeEvent = new ImageEncodeEvent();
+						encodeEvent.begin();
+						try(ProgressOutputStream out = new ProgressOutputStream(openEntry(output, fileName, journal), ProgressListener.NONE, -1)) {
+							copy(format, scan, out);
+							encodeEvent.finish(request.getSourcePath(), pageIndex, "copied " + format.getExtension(), null, out.getWritten());
+						}
+						if(journal != null) journal.record(pageIndex + 1, fileName);
+						outputs.add(fileName);
+						logTime(pageIndex, "copied", pageStart);
+					} else {
+						//the raster is only allocated when it fits into the memory budget of all renders
+						try(RenderBudget.Reservation reservation = scan != null ? reserve(scan) : reserve(request, page)) {
+							final PageRenderEvent renderEvent = new PageRenderEvent();
+							renderEvent.begin();
+							final RenderedImage image = scan != null ? decode(request, scan) : renderPage(request, pdfRenderer, page, pageIndex);
+							renderEvent.finish(request.getSourcePath(), pageIndex, scan != null ? 0 : request.getDpi(), image, scan != null ? "decoded" : "rendered");
+							final ImageEncodeEvent encodeEvent = new ImageEncodeEvent();
+							encodeEvent.begin();
+							if(multiPageWriter != null) {
+								multiPageWriter.append(image);
+								encodeEvent.finish(request.getSourcePath(), pageIndex, format.getExtension(), image, 0); //the file is not complete yet
+							} else {
+								try(ProgressOutputStream out = new ProgressOutputStream(openEntry(output, fileName, journal), ProgressListener.NONE, -1)) {
+									ImageEncoder.write(image, format, out);
+									encodeEvent.finish(request.getSourcePath(), pageIndex, format.getExtension(), image, out.getWritten());
+								}
+								if(journal != null) journal.record(pageIndex + 1, fileName);
+								outputs.add(fileName);
+							}
+						} catch(UncheckedIOException e) { //a strip could not be rendered
+							throw e.getCause();
+						} catch(InterruptedException e) {
+							Thread.currentThread().interrupt();
+							throw new InterruptedIOException("Interrupted while waiting for memory to render page " + (pageIndex + 1));
+						}
+						logTime(pageIndex, scan != null ? "decoded" : "rendered at " + request.getDpi() + " DPI with " + quality + " quality", pageStart);
+					}
+					
+					listener.progressChanged(ProgressPhase.PAGES, counter, pageCount);
+					counter++;
+				}
+			}
+			if(request.isMultiPage()) outputs.add(multiPageName);
+			return new EngineResult(outputs, pageCount);
+		}
+	}
+
+	/**
+	 * Opens the file of a page.
+	 * @param output The file is created here.
+	 * @param fileName Name of the file.
+	 * @param journal If not null, the size and checksum of the file are measured for the journal.
+	 * @return Stream of the file.
+	 * @throws IOException If the file can't be created.
+	 */
+	private OutputStream openEntry(OutputTarget output, String fileName, JobJournal journal) throws IOException {
+		final OutputStream out = output.openEntry(fileName);
+		return journal != null ? journal.track(out) : out;
+	}
+
+	/**
+	 * Logs how long a page took, with {@link Level#FINE} level. Rendering and encoding are measured together, because 
+	 * large pages are rendered while they are encoded.
+	 * @param pageIndex Index of the page, 0 based.
+	 * @param method How the image of the page was created.
+	 * @param start When the work on the page started, from {@link System#nanoTime()}.
+	 */
+	private void logTime(int pageIndex, String method, long start) {
+		if(LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine("Page " + (pageIndex + 1) + " " + method + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+		}
+	}
+
+	/**
+	 * Checks if a scanned page can be saved by copying its image data.
+	 * @param format Format of the saved image.
+	 * @param scan Image of the page.
+	 * @return True if the image is already encoded in the format.
+	 */
+	private boolean canCopy(ImageFormat format, PDImageXObject scan) {
+		final PDStream stream = scan.getStream();
+		if(format == ImageFormat.TIFF_G4) return ImageStreams.isTiffCompatibleCcitt(stream);
+		if(format != ImageFormat.JPEG || !ImageStreams.isJpeg(stream) || ImageStreams.isInverted(stream)) return false;
+		try { //CMYK JPEG files are not shown correctly by many programs
+			return scan.getColorSpace().getNumberOfComponents() != 4;
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Saves a scanned page by copying its image data. Check it with {@link #canCopy(ImageFormat, PDImageXObject)} first.
+	 * @param format Format of the saved image.
+	 * @param scan Image of the page.
+	 * @param out The image is written here. It is not closed.
+	 * @throws IOException If the image can't be read or written.
+	 */
+	private void copy(ImageFormat format, PDImageXObject scan, OutputStream out) throws IOException {
+		if(format == ImageFormat.TIFF_G4) {
+			ImageStreams.copyCcittAsTiff(scan.getStream(), out);
+		} else {
+			ImageStreams.copy(scan.getStream(), out);
+		}
+	}
+
+	/**
+	 * Reserves the memory needed to decode the image of a scanned page.
+	 * @param scan The image.
+	 * @return The reservation.
+	 * @throws InterruptedException If the thread was interrupted while waiting for memory.
+	 */
+	private RenderBudget.Reservation reserve(PDImageXObject scan) throws InterruptedException {
+		return RenderBudget.shared().reserve(4L * scan.getWidth() * scan.getHeight());
+	}
+
+	/**
+	 * Decodes the image of a scanned page for the format of the request.
+	 * @param request The request.
+	 * @param scan The image.
+	 * @return The image, at its own resolution.
+	 * @throws IOException If the image can't be decoded.
+	 */
+	private RenderedImage decode(ExtractToImagesRequest request, PDImageXObject scan) throws IOException {
+		final BufferedImage image = scan.getImage();
+		if(request.getFormat().isBilevel() && image.getType() != BufferedImage.TYPE_BYTE_BINARY) {
+			return BilevelRenderer.binarize(image, request.getBinarization(), request.getThreshold());
+		}
+		return image;
+	}
+
+	/**
+	 * Checks if the pages can be rendered as a whole, for formats that are not written in strips. A page whose image 
+	 * is larger than the whole render budget would not fit into the memory.
+	 * @param pages The selected pages.
+	 * @param document The document.
+	 * @param dpi Resolution of the images.
+	 * @throws InvalidRequestException If a page is too large.
+	 */
+	private void checkWholeImages(PageSet pages, PDDocument document, int dpi) throws InvalidRequestException {
+		final long budget = RenderBudget.shared().getTotalBytes();
+		final PrimitiveIterator.OfInt iterator = pages.iterator();
+		while(iterator.hasNext()) {
+			final int pageNumber = iterator.nextInt();
+			if(RenderBudget.estimateBytes(document.getPage(pageNumber - 1), dpi, ImageType.RGB) > budget) {
+				throw new InvalidRequestException("Page " + pageNumber + " is too large for a JPEG image at " + dpi + " DPI, use PNG or TIFF, or a lower resolution!");
+			}
+		}
+	}
+
+	/**
+	 * Reserves the memory needed to render a page.
+	 * @param request The request, which decides how the page is rendered.
+	 * @param page The page.
+	 * @return The reservation.
+	 * @throws InterruptedException If the thread was interrupted while waiting for memory.
+	 */
+	private RenderBudget.Reservation reserve(ExtractToImagesRequest request, PDPage page) throws InterruptedException {
+		if(request.getFormat().isBilevel()) {
+			return RenderBudget.shared().reserve(BilevelRenderer.estimateBytes(page, request.getDpi()));
+		}
+		if(!request.getFormat().isWrittenInStrips()) { //the writer reads the whole image
+			return RenderBudget.shared().reserve(RenderBudget.estimateBytes(page, request.getDpi(), ImageType.RGB));
+		}
+		return RenderBudget.shared().reserve(page, request.getDpi(), ImageType.RGB);
+	}
+
+	/**
+	 * Renders a page for the format of the request.
+	 * @param request The request.
+	 * @param pdfRenderer Renderer of the document.
+	 * @param page The page.
+	 * @param pageIndex Index of the page, 0 based.
+	 * @return The image. It may be rendered while it is encoded, see {@link TiledPageImage}.
+	 * @throws IOException If the page can't be rendered.
+	 */
+	private RenderedImage renderPage(ExtractToImagesRequest request, PDFRenderer pdfRenderer, PDPage page, int pageIndex) throws IOException {
+		final int dpi = request.getDpi();
+		if(request.getFormat().isBilevel()) {
+			return BilevelRenderer.render(pdfRenderer, page, pageIndex, dpi, request.getBinarization(), request.getThreshold());
+		}
+		//large format pages are rendered in strips while they are encoded, instead of into one huge image
+		if(request.getFormat().isWrittenInStrips() && TiledPageImage.isNeeded(page, dpi)) return new TiledPageImage(pdfRenderer, page, pageIndex, dpi);
+		return pdfRenderer.renderImageWithDPI(pageIndex, dpi, ImageType.RGB);
+	}
+}
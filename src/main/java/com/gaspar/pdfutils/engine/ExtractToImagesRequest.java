@@ -0,0 +1,169 @@
+package com.gaspar.pdfutils.engine;
+
+import com.gaspar.pdfutils.output.ImageFormat;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.render.BilevelRenderer;
+import com.gaspar.pdfutils.render.Binarization;
+import com.gaspar.pdfutils.render.RenderQuality;
+
+/**
+ * Request for the {@link ExtractToImagesEngine}: render pages of a PDF into separate images.
+ * @author Gáspár Tamás
+ */
+public class ExtractToImagesRequest extends EngineRequest {
+
+	/**
+	 * Pages are rendered with this resolution, unless something else is set.
+	 */
+	public static final int DEFAULT_DPI = 300;
+
+	/**
+	 * Path of the source PDF file.
+	 */
+	private final String sourcePath;
+	/**
+	 * Pages to be extracted, 1 based. May have an open range.
+	 */
+	private final PageSet pages;
+	/**
+	 * Generated images will be enumerated with this prefix. For example if you set this "homework_" then 
+	 * the generated images will be "homework_1", "homework_2", ...
+	 */
+	private final String imageNamePrefix;
+	/**
+	 * Password for the PDF file. Null if no password is given.
+	 */
+	private String password;
+	/**
+	 * Resolution of the rendered pages.
+	 */
+	private int dpi = DEFAULT_DPI;
+	/**
+	 * Format of the images.
+	 */
+	private ImageFormat format = ImageFormat.PNG;
+	/**
+	 * How gray pixels become black or white. Only used by bilevel formats.
+	 */
+	private Binarization binarization = Binarization.THRESHOLD;
+	/**
+	 * Gray level (0-255) under which pixels become black. Only used by bilevel formats.
+	 */
+	private int threshold = BilevelRenderer.DEFAULT_THRESHOLD;
+	/**
+	 * If true, all pages are written into a single multi-page file, named with the prefix and <i>pages</i>. Only 
+	 * possible for multi-page formats.
+	 */
+	private boolean multiPage = false;
+	/**
+	 * Quality of the rendering. If null, it is selected by the resolution, see {@link RenderQuality#forDpi(float)}.
+	 */
+	private RenderQuality quality = null;
+	/**
+	 * If true, the images are written into a single ZIP archive, named with the prefix and <i>images.zip</i>, instead of 
+	 * separate files.
+	 */
+	private boolean archive = false;
+
+	/**
+	 * Creates a request.
+	 * @param sourcePath Path of the source PDF file.
+	 * @param destinationPath The folder where the images will be placed.
+	 * @param pages Pages to be extracted, 1 based.
+	 * @param imageNamePrefix Generated images will be enumerated with this prefix.
+	 */
+	public ExtractToImagesRequest(String sourcePath, String destinationPath, PageSet pages, String imageNamePrefix) {
+		super(destinationPath);
+		this.sourcePath = sourcePath;
+		this.pages = pages;
+		this.imageNamePrefix = imageNamePrefix;
+	}
+
+	@Override
+	public void validate() throws InvalidRequestException {
+		super.validate();
+		if(imageNamePrefix == null || imageNamePrefix.isEmpty()) throw new InvalidRequestException("There must be an image prefix!");
+		if(pages == null || pages.isEmpty()) throw new InvalidRequestException("No pages are selected!");
+		if(dpi <= 0) throw new InvalidRequestException("Resolution must be positive!");
+		if(format == null || binarization == null) throw new InvalidRequestException("No image format selected!");
+		if(threshold < 1 || threshold > 255) throw new InvalidRequestException("Threshold must be between 1 and 255!");
+		if(multiPage && !format.isMultiPage()) throw new InvalidRequestException("Only TIFF images can be written into a single file!");
+		if(multiPage && archive) throw new InvalidRequestException("A single multi-page file can't be archived!");
+	}
+
+	public String getSourcePath() {
+		return sourcePath;
+	}
+
+	public PageSet getPages() {
+		return pages;
+	}
+
+	public String getImageNamePrefix() {
+		return imageNamePrefix;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getDpi() {
+		return dpi;
+	}
+
+	public void setDpi(int dpi) {
+		this.dpi = dpi;
+	}
+
+	public ImageFormat getFormat() {
+		return format;
+	}
+
+	public void setFormat(ImageFormat format) {
+		this.format = format;
+	}
+
+	public Binarization getBinarization() {
+		return binarization;
+	}
+
+	public void setBinarization(Binarization binarization) {
+		this.binarization = binarization;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(int threshold) {
+		this.threshold = threshold;
+	}
+
+	public boolean isMultiPage() {
+		return multiPage;
+	}
+
+	public void setMultiPage(boolean multiPage) {
+		this.multiPage = multiPage;
+	}
+
+	public RenderQuality getQuality() {
+		return quality;
+	}
+
+	public void setQuality(RenderQuality quality) {
+		this.quality = quality;
+	}
+
+	public boolean isArchive() {
+		return archive;
+	}
+
+	public void setArchive(boolean archive) {
+		this.archive = archive;
+	}
+}
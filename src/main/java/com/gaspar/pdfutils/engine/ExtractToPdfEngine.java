@@ -0,0 +1,58 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.PrimitiveIterator;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import com.gaspar.pdfutils.cache.ResultCache;
+import com.gaspar.pdfutils.output.OutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+
+/**
+ * Copies the selected pages of a PDF into a new PDF file, which can be optionally protected with a password.
+ * @author Gáspár Tamás
+ */
+public class ExtractToPdfEngine extends Engine<ExtractToPdfRequest> {
+
+	/**
+	 * Results of password protected documents, and password protected results are not cached: the key would have to 
+	 * contain the password. The result depends on the content of the document, the pages and the name.
+	 */
+	@Override
+	protected String cacheKey(ExtractToPdfRequest request) throws IOException {
+		if(request.getPassword() != null || request.getResultPassword() != null) return null;
+		return ResultCache.key(getClass().getName(), ResultCache.hashFile(new File(request.getSourcePath())), request.getPages(), 
+				withPdfExtension(request.getName()));
+	}
+
+	@Override
+	protected EngineResult process(ExtractToPdfRequest request, OutputTarget output, ProgressListener listener) throws IOException, EngineException {
+		try(PDDocument document = loadDocument(request.getSourcePath(), request.getPassword())) {
+			final PageSet pages = resolvePages(request.getPages(), document); //closes open ranges and checks if the pages exist
+			final int pageCount = pages.size();
+			listener.progressChanged(ProgressPhase.PAGES, 0, pageCount); //show 0 progress
+			
+			try(PDDocument extracted = new PDDocument()) { //the new document
+				if(request.getResultPassword() != null) protect(extracted, request.getResultPassword());
+				
+				final PrimitiveIterator.OfInt iterator = pages.iterator();
+				int counter = 1;
+				while(iterator.hasNext()) {
+					extracted.addPage(document.getPage(iterator.nextInt() - 1)); //PDFBox uses 0 based indices
+					listener.progressChanged(ProgressPhase.PAGES, counter++, pageCount);
+				}
+				
+				final String fileName = withPdfExtension(request.getName());
+				//the result should be about as large as the selected part of the source
+				final long expectedSize = new File(request.getSourcePath()).length() * pageCount / Math.max(1, document.getNumberOfPages());
+				save(extracted, output, fileName, listener, expectedSize);
+				return new EngineResult(Collections.singletonList(fileName), pageCount);
+			}
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.gaspar.pdfutils.engine;
+
+import com.gaspar.pdfutils.pages.PageSet;
+
+/**
+ * Request for the {@link ExtractToPdfEngine}: copy pages of a PDF into a new PDF file.
+ * @author Gáspár Tamás
+ */
+public class ExtractToPdfRequest extends EngineRequest {
+
+	/**
+	 * Path of the source PDF file.
+	 */
+	private final String sourcePath;
+	/**
+	 * Pages to be extracted, 1 based. May have an open range. The new PDF has the pages in this order.
+	 */
+	private final PageSet pages;
+	/**
+	 * Name of the extracted PDF (may or may not contain the .pdf extension).
+	 */
+	private final String name;
+	/**
+	 * Password for the source PDF file. Null if no password is given.
+	 */
+	private String password;
+	/**
+	 * Password for the generated PDF file. Null if the file will not be protected.
+	 */
+	private String resultPassword;
+
+	/**
+	 * Creates a request.
+	 * @param sourcePath Path of the source PDF file.
+	 * @param destinationPath The folder where the new PDF will be placed.
+	 * @param pages Pages to be extracted, 1 based.
+	 * @param name Name of the extracted PDF.
+	 */
+	public ExtractToPdfRequest(String sourcePath, String destinationPath, PageSet pages, String name) {
+		super(destinationPath);
+		this.sourcePath = sourcePath;
+		this.pages = pages;
+		this.name = name;
+	}
+
+	@Override
+	public void validate() throws InvalidRequestException {
+		super.validate();
+		if(name == null || name.isEmpty()) throw new InvalidRequestException("No name given for the PDF file!");
+		if(pages == null || pages.isEmpty()) throw new InvalidRequestException("No pages are selected!");
+	}
+
+	public String getSourcePath() {
+		return sourcePath;
+	}
+
+	public PageSet getPages() {
+		return pages;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public String getResultPassword() {
+		return resultPassword;
+	}
+
+	public void setResultPassword(String resultPassword) {
+		this.resultPassword = resultPassword;
+	}
+}
@@ -0,0 +1,184 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import com.gaspar.pdfutils.output.OutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+
+/**
+ * Extracts the plain text of the selected pages into a UTF-8 text file, with a form feed after each page.
+ * <p>
+ * The pages are split into chunks of consecutive pages, which are extracted by a pool of workers. PDF documents 
+ * are not thread safe, so every worker opens its own copy. The chunks are written in page order as soon as they 
+ * are ready, and only a few chunks are allowed to wait for writing, so the memory use does not depend on the 
+ * size of the document.
+ * @author Gáspár Tamás
+ */
+public class ExtractToTextEngine extends Engine<ExtractToTextRequest> {
+
+	@Override
+	protected EngineResult process(ExtractToTextRequest request, OutputTarget output, ProgressListener listener) throws IOException, EngineException {
+		final PageSet pages;
+		try(PDDocument document = loadDocument(request.getSourcePath(), request.getPassword())) {
+			pages = resolvePages(request.getPages(), document); //closes open ranges and checks if the pages exist
+		} //workers open their own copies
+		final int pageCount = pages.size();
+		listener.progressChanged(ProgressPhase.PAGES, 0, pageCount); //show 0 progress
+		
+		final Chunks chunks = new Chunks(pages, request.getChunkPages());
+		final int workerCount = Math.min(request.getWorkers(), chunks.count);
+		//a worker must get a permit before it takes a chunk, and it is given back when the chunk is written
+		final Semaphore inFlight = new Semaphore(2 * workerCount);
+		final AtomicInteger nextChunk = new AtomicInteger(0);
+		final AtomicInteger threadCounter = new AtomicInteger(1);
+		final ExecutorService workers = Executors.newFixedThreadPool(workerCount, r -> {
+			final Thread thread = new Thread(r, "pdfutils-text-" + threadCounter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for(int i=0; i<workerCount; i++) {
+				workers.execute(() -> extractChunks(request, chunks, nextChunk, inFlight));
+			}
+			
+			final String fileName = request.getName().endsWith(".txt") ? request.getName() : request.getName() + ".txt";
+			try(Writer writer = new BufferedWriter(new OutputStreamWriter(output.openEntry(fileName), StandardCharsets.UTF_8), 64 * 1024)) {
+				int written = 0;
+				for(int i=0; i<chunks.count; i++) {
+					writer.write(awaitChunk(chunks.texts[i]));
+					chunks.texts[i] = null; //the text can be collected
+					inFlight.release();
+					written += chunks.ends[i] - chunks.starts[i] + 1;
+					listener.progressChanged(ProgressPhase.PAGES, written, pageCount);
+				}
+			}
+			return new EngineResult(Collections.singletonList(fileName), pageCount);
+		} finally {
+			workers.shutdownNow(); //only does something if writing failed
+			try {
+				workers.awaitTermination(1, TimeUnit.MINUTES); //so the source file is closed when this returns
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Body of a worker. Takes chunks in order until there are none left.
+	 * @param request The request.
+	 * @param chunks The chunks, their texts are completed here.
+	 * @param nextChunk Index of the next chunk that no worker has taken.
+	 * @param inFlight Limits the chunks that are extracted but not yet written.
+	 */
+	private void extractChunks(ExtractToTextRequest request, Chunks chunks, AtomicInteger nextChunk, Semaphore inFlight) {
+		int chunk = -1;
+		try(PDDocument document = loadDocument(request.getSourcePath(), request.getPassword())) {
+			final PDFTextStripper stripper = new PDFTextStripper();
+			stripper.setPageEnd("\f"); //form feed separates the pages, like in most text extraction tools
+			while(true) {
+				inFlight.acquire();
+				chunk = nextChunk.getAndIncrement();
+				if(chunk >= chunks.count) {
+					inFlight.release();
+					return;
+				}
+				stripper.setStartPage(chunks.starts[chunk]);
+				stripper.setEndPage(chunks.ends[chunk]);
+				final StringWriter text = new StringWriter();
+				stripper.writeText(document, text);
+				chunks.texts[chunk].complete(text.toString());
+			}
+		} catch(InterruptedException e) {
+			//writing failed, nobody waits for the chunks
+		} catch(Throwable e) { //errors too, for example a stack overflow on a malformed content stream
+			//the writer may be waiting for any of the chunks that are not done
+			for(int i=Math.max(chunk, 0); i<chunks.count; i++) {
+				final CompletableFuture<String> text = chunks.texts[i];
+				if(text != null) text.completeExceptionally(e); //null if already written
+			}
+		}
+	}
+
+	/**
+	 * Waits for the text of a chunk.
+	 * @param text Completed by a worker.
+	 * @return The text.
+	 * @throws IOException If the worker could not extract the text.
+	 */
+	private String awaitChunk(CompletableFuture<String> text) throws IOException {
+		try {
+			return text.get();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Text extraction was interrupted!");
+		} catch(ExecutionException e) {
+			if(e.getCause() instanceof IOException) throw (IOException)e.getCause();
+			throw new IOException(e.getCause());
+		}
+	}
+
+	/**
+	 * The selected pages split into ranges of consecutive pages, which can be given to a {@link PDFTextStripper}.
+	 */
+	private static class Chunks {
+		/**
+		 * Amount of chunks.
+		 */
+		private final int count;
+		/**
+		 * First and last (inclusive) page of each chunk, 1 based.
+		 */
+		private final int[] starts, ends;
+		/**
+		 * Extracted text of each chunk. Null after it is written.
+		 */
+		private final CompletableFuture<String>[] texts;
+
+		@SuppressWarnings("unchecked")
+		private Chunks(PageSet pages, int maxPages) {
+			int[] s = new int[16], e = new int[16];
+			int n = 0;
+			final PrimitiveIterator.OfInt iterator = pages.iterator();
+			while(iterator.hasNext()) {
+				final int page = iterator.nextInt();
+				if(n > 0 && e[n-1] + 1 == page && e[n-1] - s[n-1] + 1 < maxPages) { //continues the last chunk
+					e[n-1] = page;
+				} else {
+					if(n == s.length) {
+						s = Arrays.copyOf(s, 2*n);
+						e = Arrays.copyOf(e, 2*n);
+					}
+					s[n] = page;
+					e[n] = page;
+					n++;
+				}
+			}
+			count = n;
+			starts = s;
+			ends = e;
+			texts = (CompletableFuture<String>[])new CompletableFuture<?>[n];
+			for(int i=0; i<n; i++) texts[i] = new CompletableFuture<>();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.gaspar.pdfutils.engine;
+
+import com.gaspar.pdfutils.pages.PageSet;
+
+/**
+ * Request for the {@link ExtractToTextEngine}: extract the plain text of pages into a text file.
+ * @author Gáspár Tamás
+ */
+public class ExtractToTextRequest extends EngineRequest {
+
+	/**
+	 * Pages are extracted in chunks of this size, unless something else is set.
+	 */
+	public static final int DEFAULT_CHUNK_PAGES = 32;
+
+	/**
+	 * Path of the source PDF file.
+	 */
+	private final String sourcePath;
+	/**
+	 * Pages to be extracted, 1 based. May have an open range. The text file has the pages in this order.
+	 */
+	private final PageSet pages;
+	/**
+	 * Name of the text file (may or may not contain the .txt extension).
+	 */
+	private final String name;
+	/**
+	 * Password for the source PDF file. Null if no password is given.
+	 */
+	private String password;
+	/**
+	 * Amount of threads that extract text at the same time. Each has its own copy of the document.
+	 */
+	private int workers = Runtime.getRuntime().availableProcessors();
+	/**
+	 * Amount of pages a worker extracts in one go. Smaller chunks use less memory, larger ones have less overhead.
+	 */
+	private int chunkPages = DEFAULT_CHUNK_PAGES;
+
+	/**
+	 * Creates a request.
+	 * @param sourcePath Path of the source PDF file.
+	 * @param destinationPath The folder where the text file will be placed.
+	 * @param pages Pages to be extracted, 1 based.
+	 * @param name Name of the text file.
+	 */
+	public ExtractToTextRequest(String sourcePath, String destinationPath, PageSet pages, String name) {
+		super(destinationPath);
+		this.sourcePath = sourcePath;
+		this.pages = pages;
+		this.name = name;
+	}
+
+	@Override
+	public void validate() throws InvalidRequestException {
+		super.validate();
+		if(name == null || name.isEmpty()) throw new InvalidRequestException("No name given for the text file!");
+		if(pages == null || pages.isEmpty()) throw new InvalidRequestException("No pages are selected!");
+		if(workers <= 0) throw new InvalidRequestException("At least one worker is needed!");
+		if(chunkPages <= 0) throw new InvalidRequestException("Chunk size must be positive!");
+	}
+
+	public String getSourcePath() {
+		return sourcePath;
+	}
+
+	public PageSet getPages() {
+		return pages;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	public int getChunkPages() {
+		return chunkPages;
+	}
+
+	public void setChunkPages(int chunkPages) {
+		this.chunkPages = chunkPages;
+	}
+}
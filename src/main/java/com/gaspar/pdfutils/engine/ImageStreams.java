@@ -0,0 +1,128 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+
+import com.gaspar.pdfutils.output.CcittTiff;
+
+/**
+ * Copies the encoded data of PDF images into image files, without decoding the images.
+ * @author Gáspár Tamás
+ */
+abstract class ImageStreams {
+
+	/**
+	 * Filters whose data is copied. Filters before them (rarely there are some) are decoded.
+	 */
+	private static final List<String> COPIED_FILTERS = Arrays.asList(COSName.DCT_DECODE.getName(), COSName.DCT_DECODE_ABBREVIATION.getName(),
+			COSName.JPX_DECODE.getName(), COSName.CCITTFAX_DECODE.getName(), COSName.CCITTFAX_DECODE_ABBREVIATION.getName());
+
+	/**
+	 * @param stream An image.
+	 * @return True if the image is JPEG (DCT) encoded.
+	 */
+	static boolean isJpeg(PDStream stream) {
+		final COSName filter = lastFilter(stream);
+		return COSName.DCT_DECODE.equals(filter) || COSName.DCT_DECODE_ABBREVIATION.equals(filter);
+	}
+
+	/**
+	 * @param stream An image.
+	 * @return True if the image is JPEG 2000 (JPX) encoded.
+	 */
+	static boolean isJpeg2000(PDStream stream) {
+		return COSName.JPX_DECODE.equals(lastFilter(stream));
+	}
+
+	/**
+	 * @param stream An image.
+	 * @return True if the image is CCITT encoded in a way that can be stored in a TIFF file, see {@link #copyCcittAsTiff(PDStream, OutputStream)}.
+	 */
+	static boolean isTiffCompatibleCcitt(PDStream stream) {
+		final COSName filter = lastFilter(stream);
+		if(!COSName.CCITTFAX_DECODE.equals(filter) && !COSName.CCITTFAX_DECODE_ABBREVIATION.equals(filter)) return false;
+		//TIFF can only store group 4 data that is not byte aligned
+		final COSDictionary parms = lastDecodeParms(stream);
+		return parms.getInt(COSName.K, 0) < 0 && !parms.getBoolean(COSName.ENCODED_BYTE_ALIGN, false);
+	}
+
+	/**
+	 * @param stream An image.
+	 * @return True if the image has a decode array that inverts the colors.
+	 */
+	static boolean isInverted(PDStream stream) {
+		final COSArray decode = stream.getCOSObject().getCOSArray(COSName.DECODE);
+		return decode != null && decode.size() > 0 && decode.getObject(0) instanceof COSNumber
+				&& ((COSNumber)decode.getObject(0)).floatValue() > 0;
+	}
+
+	/**
+	 * Copies the encoded data of a JPEG or JPEG 2000 image, which is a complete image file.
+	 * @param stream The image.
+	 * @param out The data is written here. It is not closed.
+	 * @throws IOException If the image can't be read or written.
+	 */
+	static void copy(PDStream stream, OutputStream out) throws IOException {
+		try(InputStream in = stream.createInputStream(COPIED_FILTERS)) {
+			final byte[] buffer = new byte[64 * 1024];
+			int read;
+			while((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+		}
+	}
+
+	/**
+	 * Writes a CCITT image into a TIFF file, without decoding it. Check it with {@link #isTiffCompatibleCcitt(PDStream)} first.
+	 * @param stream The image.
+	 * @param out The TIFF file is written here. It is not closed.
+	 * @throws IOException If the image can't be read or written.
+	 */
+	static void copyCcittAsTiff(PDStream stream, OutputStream out) throws IOException {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream(); //the header needs the length of the data
+		copy(stream, data);
+		final COSDictionary parms = lastDecodeParms(stream);
+		final COSDictionary dictionary = stream.getCOSObject();
+		final int width = parms.getInt(COSName.COLUMNS, 1728);
+		int height = parms.getInt(COSName.ROWS, 0);
+		if(height <= 0) height = dictionary.getInt(COSName.HEIGHT, COSName.H, 0);
+		//the filter can invert the bits, and the decode array can invert them again
+		final boolean blackIs1 = parms.getBoolean(COSName.BLACK_IS_1, false);
+		CcittTiff.write(data.toByteArray(), width, height, blackIs1 != isInverted(stream), out);
+	}
+
+	/**
+	 * @param stream A stream.
+	 * @return The last filter of the stream, null if it has none.
+	 */
+	private static COSName lastFilter(PDStream stream) {
+		final List<COSName> filters = stream.getFilters();
+		return filters.isEmpty() ? null : filters.get(filters.size() - 1);
+	}
+
+	/**
+	 * Finds the parameters of the last filter of a stream.
+	 * @param stream The stream.
+	 * @return The parameters, empty if there are none.
+	 */
+	private static COSDictionary lastDecodeParms(PDStream stream) {
+		final COSStream cosStream = stream.getCOSObject();
+		COSBase parms = cosStream.getDictionaryObject(COSName.DECODE_PARMS, COSName.DP);
+		if(parms instanceof COSArray) { //one for each filter
+			final COSArray array = (COSArray)parms;
+			final int index = stream.getFilters().size() - 1;
+			parms = index >= 0 && index < array.size() ? array.getObject(index) : null;
+		}
+		return parms instanceof COSDictionary ? (COSDictionary)parms : new COSDictionary();
+	}
+}
@@ -0,0 +1,161 @@
+package com.gaspar.pdfutils.engine;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.CCITTFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import com.gaspar.pdfutils.cache.ResultCache;
+import com.gaspar.pdfutils.output.OutputTarget;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+import com.gaspar.pdfutils.render.RenderBudget;
+
+/**
+ * Combines images into a single PDF file, with each image stretched over a page. The PDF can be optionally protected 
+ * with a password.
+ * <p>
+ * The following image formats are supported: JPG, JPEG, TIF, TIFF, GIF, BMP and PNG.
+ * <p>
+ * JPEG and CCITT G4 TIFF images are embedded without decoding them. Other images are only decoded at the resolution 
+ * the page needs (see {@link ImagesToPdfRequest#getMaxDpi()}): the size is read from the header of the file first, 
+ * and larger images are subsampled while they are read, so the memory used depends on the page and not on the image.
+ * @author Gáspár Tamás
+ */
+public class ImagesToPdfEngine extends Engine<ImagesToPdfRequest> {
+
+	private static final Logger LOGGER = Logger.getLogger(ImagesToPdfEngine.class.getName());
+
+	/**
+	 * File extensions of the supported image formats.
+	 */
+	public static final String[] SUPPORTED_FORMATS = {"jpg","jpeg","tif","tiff","gif","bmp","png"};
+
+	/**
+	 * Password protected results are not cached, because the key would have to contain the password. The result 
+	 * depends on the content and order of the images, the name and the resolution.
+	 */
+	@Override
+	protected String cacheKey(ImagesToPdfRequest request) throws IOException {
+		if(request.getPassword() != null) return null;
+		final List<String> imageHashes = new ArrayList<>();
+		for(File image: request.getImages()) imageHashes.add(ResultCache.hashFile(image));
+		return ResultCache.key(getClass().getName(), imageHashes, withPdfExtension(request.getName()), request.getMaxDpi());
+	}
+
+	@Override
+	protected EngineResult process(ImagesToPdfRequest request, OutputTarget output, ProgressListener listener) throws IOException, EngineException {
+		final List<File> images = request.getImages();
+		try(PDDocument combined = new PDDocument()) {
+			listener.progressChanged(ProgressPhase.PAGES, 0, images.size()); //show 0 progress
+			if(request.getPassword() != null) protect(combined, request.getPassword());
+			
+			int counter = 1;
+			long expectedSize = 0; //images are embedded about as large as their files
+			for(File image: images) {
+				final PDPage page = new PDPage();
+				combined.addPage(page);
+				final PDRectangle mediaBox = page.getMediaBox();
+				final PDImageXObject pdImage = createImage(image, combined, mediaBox, request.getMaxDpi());
+				
+				try(PDPageContentStream contents = new PDPageContentStream(combined, page)) {
+					contents.drawImage(pdImage, 0, 0, mediaBox.getWidth(), mediaBox.getHeight());
+				}
+				expectedSize += image.length();
+				listener.progressChanged(ProgressPhase.PAGES, counter++, images.size());
+			}
+			
+			final String fileName = withPdfExtension(request.getName());
+			save(combined, output, fileName, listener, expectedSize);
+			return new EngineResult(Collections.singletonList(fileName), images.size());
+		}
+	}
+
+	/**
+	 * Creates the PDF image of an image file. JPEG and CCITT G4 TIFF images are copied. Other images that are not larger 
+	 * than needed are created by PDFBox as before, larger ones are read with subsampling.
+	 * @param image The image file.
+	 * @param document The image is added to this document.
+	 * @param pageSize The image is stretched over a page of this size.
+	 * @param maxDpi Highest resolution of the image on the page.
+	 * @return The image.
+	 * @throws IOException If the image can't be read.
+	 */
+	@SuppressWarnings("try")
+	private static PDImageXObject createImage(File image, PDDocument document, PDRectangle pageSize, int maxDpi) throws IOException {
+		final String name = image.getName().toLowerCase(Locale.ROOT);
+		if(name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+			return PDImageXObject.createFromFile(image.getPath(), document); //copied without decoding
+		}
+		if(name.endsWith(".tif") || name.endsWith(".tiff")) {
+			try {
+				return CCITTFactory.createFromFile(document, image); //copied without decoding, if it is G4 compressed
+			} catch(IOException e) {
+				//other compression, it is decoded
+			}
+		}
+		try(ImageInputStream in = ImageIO.createImageInputStream(image)) {
+			final Iterator<ImageReader> readers = in == null ? Collections.<ImageReader>emptyIterator() : ImageIO.getImageReaders(in);
+			if(!readers.hasNext()) throw new IOException(image.getName() + " is not a supported image!");
+			final ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				final int width = reader.getWidth(0); //only the header is read
+				final int height = reader.getHeight(0);
+				final int stepX = subsampling(width, pageSize.getWidth(), maxDpi);
+				final int stepY = subsampling(height, pageSize.getHeight(), maxDpi);
+				if(stepX == 1 && stepY == 1) { //small enough, PDFBox may even copy it (for example PNG files)
+					return PDImageXObject.createFromFile(image.getPath(), document);
+				}
+				if(LOGGER.isLoggable(Level.FINE)) {
+					LOGGER.fine(image.getName() + " (" + width + "x" + height + ") is read with " + stepX + "x" + stepY + " subsampling");
+				}
+				final ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(stepX, stepY, 0, 0);
+				final long bytes = 4L * ((width + stepX - 1) / stepX) * ((height + stepY - 1) / stepY);
+				//decoded images use the same memory as rendered pages
+				try(RenderBudget.Reservation reservation = RenderBudget.shared().reserve(bytes)) {
+					final BufferedImage decoded = reader.read(0, param);
+					return LosslessFactory.createFromImage(document, decoded);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for memory to decode " + image.getName());
+				}
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Calculates how many pixels of an image are merged into one along a side, so it is not larger than needed.
+	 * @param pixels Size of the image.
+	 * @param points Size of the page, in PDF points.
+	 * @param maxDpi Highest resolution of the image on the page.
+	 * @return Only every n-th pixel is read, at least 1. The subsampled image still has at least the maximum resolution.
+	 */
+	static int subsampling(int pixels, float points, int maxDpi) {
+		final long needed = Math.max(1, (long)Math.ceil(points / 72f * maxDpi));
+		return (int)Math.max(1, pixels / needed);
+	}
+}
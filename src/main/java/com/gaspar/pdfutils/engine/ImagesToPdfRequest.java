@@ -0,0 +1,78 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Request for the {@link ImagesToPdfEngine}: combine images into a PDF file, each image on its own page.
+ * @author Gáspár Tamás
+ */
+public class ImagesToPdfRequest extends EngineRequest {
+
+	/**
+	 * Default of {@link #maxDpi}, enough for printing.
+	 */
+	public static final int DEFAULT_MAX_DPI = 300;
+
+	/**
+	 * The image files to combine, in page order. They don't need to be in one folder.
+	 */
+	private final List<File> images;
+	/**
+	 * Name of the resulting PDF file. May or may not contain the '.pdf' extension.
+	 */
+	private final String name;
+	/**
+	 * Password for the resulting PDF file. Null if the file will not be protected.
+	 */
+	private String password;
+	/**
+	 * Images with a higher resolution than this on their page are subsampled when they are read, so they are never 
+	 * decoded at their full size. JPEG images are copied as they are.
+	 */
+	private int maxDpi = DEFAULT_MAX_DPI;
+
+	/**
+	 * Creates a request.
+	 * @param images The image files to combine.
+	 * @param destinationPath The folder where the new PDF will be placed.
+	 * @param name Name of the resulting PDF file.
+	 */
+	public ImagesToPdfRequest(List<File> images, String destinationPath, String name) {
+		super(destinationPath);
+		this.images = images;
+		this.name = name;
+	}
+
+	@Override
+	public void validate() throws InvalidRequestException {
+		super.validate();
+		if(name == null || name.isEmpty()) throw new InvalidRequestException("You must specify a name for the PDF file!");
+		if(images == null || images.isEmpty()) throw new InvalidRequestException("You must select at least one image!");
+		if(maxDpi <= 0) throw new InvalidRequestException("Resolution must be positive!");
+	}
+
+	public List<File> getImages() {
+		return images;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public void setPassword(String password) {
+		this.password = password;
+	}
+
+	public int getMaxDpi() {
+		return maxDpi;
+	}
+
+	public void setMaxDpi(int maxDpi) {
+		this.maxDpi = maxDpi;
+	}
+}
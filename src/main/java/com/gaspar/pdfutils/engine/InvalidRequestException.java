@@ -0,0 +1,13 @@
+package com.gaspar.pdfutils.engine;
+
+/**
+ * Thrown when a request has invalid parameters, for example an empty name or pages that are not in the document. 
+ * Nothing is written when this is thrown.
+ * @author Gáspár Tamás
+ */
+public class InvalidRequestException extends EngineException {
+
+	public InvalidRequestException(String message) {
+		super(message);
+	}
+}
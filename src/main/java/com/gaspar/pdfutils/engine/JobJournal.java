@@ -0,0 +1,260 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.gaspar.pdfutils.output.CommitListener;
+
+/**
+ * Records the completed pages of a job in a file next to the output, so an interrupted job can be continued. Each
+ * page is a line with the page number, the name, size and checksum of its file. The records are identified by the 
+ * name of the file, because a page may be selected more than once, and then it has more files. The line is only written when the
+ * output target has renamed the file to its final name, because before that the file may be incomplete. The journal
+ * is synced to the disk if the target synced the files too. A line that was only partly written when the job stopped
+ * is ignored.
+ * <p>
+ * The first line is a key made from the parameters of the job. If the job is started again with other parameters,
+ * the old records are dropped. When the job is continued, a recorded page is only skipped if its file still has the
+ * recorded size and checksum.
+ * @author Gáspár Tamás
+ */
+class JobJournal implements Closeable, CommitListener {
+
+	/**
+	 * Start of the first line, before the key.
+	 */
+	private static final String HEADER = "pdf-utils-journal ";
+
+	/**
+	 * The journal file.
+	 */
+	private final File file;
+	/**
+	 * Files of the job are in this folder.
+	 */
+	private final File directory;
+	/**
+	 * Records of the completed pages, by file name.
+	 */
+	private final Map<String, Record> records = new HashMap<>();
+	/**
+	 * Pages that are written, but their files are not yet renamed by the output target, by file name.
+	 */
+	private final Map<String, Record> pending = new HashMap<>();
+	/**
+	 * Appends to the journal.
+	 */
+	private final FileChannel channel;
+	/**
+	 * Size and checksum of the file that was written last with {@link #track(OutputStream)}.
+	 */
+	private long trackedSize;
+	private final CRC32 trackedCrc = new CRC32();
+
+	/**
+	 * Opens the journal of a job, or starts a new one.
+	 * @param file The journal file. It is placed next to the files of the job.
+	 * @param key Made from the parameters of the job with {@link #key(Object...)}.
+	 * @throws IOException If the journal can't be read or written.
+	 */
+	JobJournal(File file, String key) throws IOException {
+		this.file = file;
+		this.directory = file.getAbsoluteFile().getParentFile();
+		final long validBytes = file.isFile() ? read(key) : 0;
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		if(validBytes > 0) { //a line that was not completed is cut off
+			channel.truncate(validBytes);
+			channel.position(validBytes);
+		} else { //a new job
+			records.clear();
+			channel.truncate(0);
+			append(HEADER + key + "\n", false);
+		}
+	}
+
+	/**
+	 * Creates the key of a job.
+	 * @param parameters The parameters which affect the files of the job.
+	 * @return A hash of the parameters.
+	 */
+	static String key(Object... parameters) {
+		final StringBuilder identity = new StringBuilder();
+		for(Object parameter: parameters) identity.append(parameter).append('|');
+		try {
+			final byte[] hash = MessageDigest.getInstance("SHA-256").digest(identity.toString().getBytes(StandardCharsets.UTF_8));
+			final StringBuilder key = new StringBuilder();
+			for(byte b: hash) key.append(String.format("%02x", b));
+			return key.toString();
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+
+	/**
+	 * @return Amount of pages recorded by an earlier run of the job.
+	 */
+	int getRecordedPages() {
+		return records.size();
+	}
+
+	/**
+	 * Checks if a page was completed by an earlier run of the job, and its file is still intact.
+	 * @param pageNumber The page, 1 based.
+	 * @param fileName Name of the file of the page.
+	 * @return True if the page does not need to be written again.
+	 */
+	boolean isComplete(int pageNumber, String fileName) {
+		final Record record = records.get(fileName);
+		if(record == null || record.pageNumber != pageNumber) return false;
+		final File output = new File(directory, fileName);
+		if(output.length() != record.size) return false; //also if it does not exist
+		try(InputStream in = Files.newInputStream(output.toPath())) {
+			final CRC32 crc = new CRC32();
+			final byte[] buffer = new byte[64 * 1024];
+			int read;
+			while((read = in.read(buffer)) != -1) crc.update(buffer, 0, read);
+			return crc.getValue() == record.crc;
+		} catch(IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Measures the size and checksum of a file while it is written, for {@link #record(int, String)}.
+	 * @param out Writes the file.
+	 * @return Stream that must be used instead.
+	 */
+	OutputStream track(OutputStream out) {
+		trackedSize = 0;
+		trackedCrc.reset();
+		return new FilterOutputStream(out) {
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+				trackedCrc.update(b);
+				trackedSize++;
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+				trackedCrc.update(b, off, len);
+				trackedSize += len;
+			}
+		};
+	}
+
+	/**
+	 * Records a written page, with the size and checksum of the file written last with {@link #track(OutputStream)}.
+	 * The record is written into the journal when the output target commits the file, see
+	 * {@link #committed(List, boolean)}.
+	 * @param pageNumber The page, 1 based.
+	 * @param fileName Name of the file of the page.
+	 */
+	synchronized void record(int pageNumber, String fileName) {
+		pending.put(fileName, new Record(pageNumber, fileName, trackedSize, trackedCrc.getValue()));
+	}
+
+	/**
+	 * Writes the records of the pages whose files were renamed. Files that were not recorded are ignored. After the 
+	 * journal is closed, nothing is written: those pages are written again if the job is continued.
+	 */
+	@Override
+	public synchronized void committed(List<String> names, boolean synced) throws IOException {
+		if(!channel.isOpen()) return;
+		final StringBuilder lines = new StringBuilder();
+		for(String name: names) {
+			final Record record = pending.remove(name);
+			if(record == null) continue;
+			lines.append(record.pageNumber).append('\t').append(record.fileName).append('\t').append(record.size)
+				.append('\t').append(Long.toHexString(record.crc)).append('\n');
+		}
+		if(lines.length() > 0) append(lines.toString(), synced);
+	}
+
+	/**
+	 * Closes the journal. It remains on the disk, so the job can be continued.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Closes and deletes the journal, after the job is complete and its files are committed.
+	 * @throws IOException If the journal can't be deleted.
+	 */
+	synchronized void delete() throws IOException {
+		channel.close();
+		Files.deleteIfExists(file.toPath());
+	}
+
+	/**
+	 * Writes lines into the journal.
+	 * @param lines The lines, with the line breaks.
+	 * @param sync True if the lines must be synced to the disk.
+	 * @throws IOException If they can't be written.
+	 */
+	private void append(String lines, boolean sync) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+		while(buffer.hasRemaining()) channel.write(buffer);
+		if(sync) channel.force(false);
+	}
+
+	/**
+	 * Reads the records of an earlier run.
+	 * @param key Key of the current job.
+	 * @return Length of the complete lines in bytes, 0 if the journal belongs to another job. In that case nothing is read.
+	 * @throws IOException If the file can't be read.
+	 */
+	private long read(String key) throws IOException {
+		final byte[] content = Files.readAllBytes(file.toPath());
+		int validBytes = content.length;
+		while(validBytes > 0 && content[validBytes - 1] != '\n') validBytes--;
+		final String[] lines = new String(content, 0, validBytes, StandardCharsets.UTF_8).split("\n");
+		if(lines.length == 0 || !lines[0].equals(HEADER + key)) return 0;
+		for(int i = 1; i < lines.length; i++) {
+			final String[] fields = lines[i].split("\t");
+			if(fields.length != 4) continue;
+			try {
+				records.put(fields[1], new Record(Integer.parseInt(fields[0]), fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3], 16)));
+			} catch(NumberFormatException e) {
+				//damaged line, that page is written again
+			}
+		}
+		return validBytes;
+	}
+
+	/**
+	 * A written page.
+	 */
+	private static class Record {
+
+		private final int pageNumber;
+		private final String fileName;
+		private final long size;
+		private final long crc;
+
+		private Record(int pageNumber, String fileName, long size, long crc) {
+			this.pageNumber = pageNumber;
+			this.fileName = fileName;
+			this.size = size;
+			this.crc = crc;
+		}
+	}
+}
@@ -0,0 +1,12 @@
+package com.gaspar.pdfutils.engine;
+
+/**
+ * Thrown when the source PDF is protected and the given password is missing or incorrect.
+ * @author Gáspár Tamás
+ */
+public class WrongPasswordException extends EngineException {
+
+	public WrongPasswordException(Throwable cause) {
+		super("Password is incorrect for this PDF file!", cause);
+	}
+}
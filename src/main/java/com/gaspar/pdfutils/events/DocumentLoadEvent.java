@@ -0,0 +1,48 @@
+package com.gaspar.pdfutils.events;
+
+import java.io.File;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of opening and parsing a PDF file.
+ * @author Gáspár Tamás
+ */
+@Name("com.gaspar.pdfutils.DocumentLoad")
+@Label("Document Load")
+@Category({"PDF Utils"})
+@Description("A PDF file was opened and parsed")
+@StackTrace(false)
+public class DocumentLoadEvent extends PdfUtilsEvent {
+
+	@Label("Path")
+	String path;
+
+	@Label("Pages")
+	int pages;
+
+	@Label("File Size")
+	@DataAmount
+	long fileBytes;
+
+	/**
+	 * Ends the event and records it, if it is enabled and long enough.
+	 * @param file The loaded file.
+	 * @param document The document, null if it could not be loaded.
+	 */
+	public void finish(File file, PDDocument document) {
+		end();
+		if(!shouldCommit()) return;
+		path = file.getPath();
+		pages = document != null ? document.getNumberOfPages() : 0;
+		fileBytes = file.length();
+		commit();
+	}
+}
@@ -0,0 +1,45 @@
+package com.gaspar.pdfutils.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of saving a PDF document.
+ * @author Gáspár Tamás
+ */
+@Name("com.gaspar.pdfutils.DocumentSave")
+@Label("Document Save")
+@Category({"PDF Utils"})
+@Description("A PDF document was saved")
+@StackTrace(false)
+public class DocumentSaveEvent extends PdfUtilsEvent {
+
+	@Label("File Name")
+	String fileName;
+
+	@Label("Pages")
+	int pages;
+
+	@Label("Bytes Written")
+	@DataAmount
+	long bytesWritten;
+
+	/**
+	 * Ends the event and records it, if it is enabled and long enough.
+	 * @param fileName Name of the saved file.
+	 * @param pages Amount of pages in the document.
+	 * @param bytesWritten Size of the saved file.
+	 */
+	public void finish(String fileName, int pages, long bytesWritten) {
+		end();
+		if(!shouldCommit()) return;
+		this.fileName = fileName;
+		this.pages = pages;
+		this.bytesWritten = bytesWritten;
+		commit();
+	}
+}
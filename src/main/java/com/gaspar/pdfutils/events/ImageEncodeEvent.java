@@ -0,0 +1,62 @@
+package com.gaspar.pdfutils.events;
+
+import java.awt.image.RenderedImage;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of encoding the image of a page into a file, or copying the data of a scanned page.
+ * @author Gáspár Tamás
+ */
+@Name("com.gaspar.pdfutils.ImageEncode")
+@Label("Image Encode")
+@Category({"PDF Utils"})
+@Description("The image of a page was encoded and written")
+@StackTrace(false)
+public class ImageEncodeEvent extends PdfUtilsEvent {
+
+	@Label("Path")
+	String path;
+
+	@Label("Page Index")
+	@Description("0 based")
+	int pageIndex;
+
+	@Label("Format")
+	String format;
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Bytes Written")
+	@DataAmount
+	long bytesWritten;
+
+	/**
+	 * Ends the event and records it, if it is enabled and long enough.
+	 * @param path Path of the document.
+	 * @param pageIndex Index of the page, 0 based.
+	 * @param format Name of the image format.
+	 * @param image The encoded image, null if the data was copied.
+	 * @param bytesWritten Size of the encoded image.
+	 */
+	public void finish(String path, int pageIndex, String format, RenderedImage image, long bytesWritten) {
+		end();
+		if(!shouldCommit()) return;
+		this.path = path;
+		this.pageIndex = pageIndex;
+		this.format = format;
+		this.width = image != null ? image.getWidth() : 0;
+		this.height = image != null ? image.getHeight() : 0;
+		this.bytesWritten = bytesWritten;
+		commit();
+	}
+}
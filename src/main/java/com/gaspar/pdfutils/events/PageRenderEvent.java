@@ -0,0 +1,62 @@
+package com.gaspar.pdfutils.events;
+
+import java.awt.image.RenderedImage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of creating the image of a page: rendering it, or decoding the image of a scanned page.
+ * Very large pages are rendered in strips while they are encoded, then most of their time is in the {@link ImageEncodeEvent}.
+ * @author Gáspár Tamás
+ */
+@Name("com.gaspar.pdfutils.PageRender")
+@Label("Page Render")
+@Category({"PDF Utils"})
+@Description("The image of a page was rendered or decoded")
+@StackTrace(false)
+public class PageRenderEvent extends PdfUtilsEvent {
+
+	@Label("Path")
+	String path;
+
+	@Label("Page Index")
+	@Description("0 based")
+	int pageIndex;
+
+	@Label("DPI")
+	float dpi;
+
+	@Label("Width")
+	int width;
+
+	@Label("Height")
+	int height;
+
+	@Label("Method")
+	@Description("rendered, decoded (scanned page), preview or tile (page inspector)")
+	String method;
+
+	/**
+	 * Ends the event and records it, if it is enabled and long enough.
+	 * @param path Path of the document.
+	 * @param pageIndex Index of the page, 0 based.
+	 * @param dpi Resolution of the image, 0 for scanned pages that keep their own resolution.
+	 * @param image The image, null if it could not be created.
+	 * @param method How the image was created.
+	 */
+	public void finish(String path, int pageIndex, float dpi, RenderedImage image, String method) {
+		end();
+		if(!shouldCommit()) return;
+		this.path = path;
+		this.pageIndex = pageIndex;
+		this.dpi = dpi;
+		this.width = image != null ? image.getWidth() : 0;
+		this.height = image != null ? image.getHeight() : 0;
+		this.method = method;
+		commit();
+	}
+}
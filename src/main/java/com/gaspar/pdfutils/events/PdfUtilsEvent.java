@@ -0,0 +1,20 @@
+package com.gaspar.pdfutils.events;
+
+import jdk.jfr.Event;
+
+/**
+ * Base class of the Java Flight Recorder events of the program. The events are timed like this:
+ * <pre>
+ * final PageRenderEvent event = new PageRenderEvent();
+ * event.begin();
+ * ... the measured work ...
+ * event.finish(...);
+ * </pre>
+ * The <i>finish</i> methods only fill the fields if the event is recorded, so disabled events cost almost nothing. 
+ * The events are disabled unless a recording enables them, for example with 
+ * <i>-XX:StartFlightRecording:settings=profile</i> or in JDK Mission Control.
+ * @author Gáspár Tamás
+ */
+abstract class PdfUtilsEvent extends Event {
+
+}
@@ -4,19 +4,23 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Dimension;
-import java.awt.Image;
+import java.awt.Graphics;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 
-import javax.swing.ImageIcon;
+import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.UIManager;
 
+import com.gaspar.pdfutils.render.ThumbnailStore;
+
 /**
- * This panel displays a single immage, most likely a PDF page. Can also show page number, and selection.
- * {@link PageViewerDialog} displays these for each page in a grid.
+ * This panel displays a single immage, most likely a PDF page. Can also show page number, and selection. The image 
+ * is not kept by the panel, it is painted from a {@link ThumbnailStore}.
+ * {@link PageViewerDialog} displays these for each page in a grid. Double clicking the image can open a closer view, 
+ * see {@link #setOpenAction(Runnable)}.
  * @author Gáspár Tamás
  */
 public class ImageDisplayPanel extends JPanel {
@@ -25,44 +29,118 @@ public class ImageDisplayPanel extends JPanel {
 	 * True if this page is selected. This only matters if {@link #selectionAllowed} is true.
 	 */
 	private boolean selected;
+	/**
+	 * Background when the page is not selected.
+	 */
+	private final Color defaultColor = UIManager.getColor("Panel.background");
+	/**
+	 * Background when the page is selected.
+	 */
+	private final Color selectedColor = new Color(68, 85, 90);
+	/**
+	 * Run when the image is double clicked, null if nothing happens.
+	 */
+	private Runnable openAction;
+	
+	/**
+	 * Keeps the image. The image of this panel may be dropped from it, and then it is requested with {@link #reloadAction}.
+	 */
+	private final ThumbnailStore thumbnails;
+	/**
+	 * The key of the image in the {@link #thumbnails}.
+	 */
+	private final int pageNumber;
+	/**
+	 * Run when the image is painted but it is not in the {@link #thumbnails}, null if nothing happens.
+	 */
+	private Runnable reloadAction;
 	
 	/**
 	 * Constructor with all parameters specified.
 	 * @param selectionAllowed Determines if selection is allowed.
 	 * @param labelText Text that is shown above the image.
-	 * @param image The image to be displayed.
+	 * @param thumbnails The image to be displayed is stored here.
+	 * @param pageNumber Key of the image in the store.
 	 */
-	public ImageDisplayPanel(boolean selectionAllowed, String labelText, BufferedImage image) {
+	public ImageDisplayPanel(boolean selectionAllowed, String labelText, ThumbnailStore thumbnails, int pageNumber) {
+		this.thumbnails = thumbnails;
+		this.pageNumber = pageNumber;
 		selected = false; 
 		setLayout(new BorderLayout());
 		setPreferredSize(new Dimension(200,250));
 		if(labelText != null) add(new JLabel(labelText), BorderLayout.PAGE_START); //add label
 		
-		Image scaled = new ImageIcon(image).getImage().getScaledInstance(180, 210, Image.SCALE_FAST);
-		JLabel imageLabel = new JLabel(new ImageIcon(scaled));
+		final ThumbnailView imageLabel = new ThumbnailView();
 		add(imageLabel, BorderLayout.CENTER); //add image
 		
-		if(selectionAllowed) { //add click listener
-			final Color defaultColor = UIManager.getColor("Panel.background");
-			final Color selectedColor = new Color(68, 85, 90);
-			
-			imageLabel.setCursor(new Cursor(Cursor.HAND_CURSOR));
-			imageLabel.addMouseListener(new MouseListener() {
-				@Override public void mouseReleased(MouseEvent e) {}
-				@Override public void mousePressed(MouseEvent e) {}
-				@Override public void mouseExited(MouseEvent e) {}
-				@Override public void mouseEntered(MouseEvent e) {}
-				@Override
-				public void mouseClicked(MouseEvent e) {
-			        selected = !selected;
-			        setBackground(selected ? selectedColor : defaultColor);
-				}
-			});
-		}
+		if(selectionAllowed) imageLabel.setCursor(new Cursor(Cursor.HAND_CURSOR));
+		imageLabel.addMouseListener(new MouseListener() { //add click listener
+			@Override public void mouseReleased(MouseEvent e) {}
+			@Override public void mousePressed(MouseEvent e) {}
+			@Override public void mouseExited(MouseEvent e) {}
+			@Override public void mouseEntered(MouseEvent e) {}
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				//a double click also toggles the selection twice, so it stays the same
+				if(selectionAllowed) setSelected(!selected);
+				if(e.getClickCount() == 2 && openAction != null) openAction.run();
+			}
+		});
 		
 	}
 	
 	public boolean isSelected() {
 		return selected;
 	}
+	
+	/**
+	 * Selects or deselects this page, and shows it with the background.
+	 * @param selected True to select.
+	 */
+	public void setSelected(boolean selected) {
+		this.selected = selected;
+		setBackground(selected ? selectedColor : defaultColor);
+	}
+	
+	/**
+	 * Sets what happens when the image is double clicked.
+	 * @param openAction The action, or null to do nothing.
+	 */
+	public void setOpenAction(Runnable openAction) {
+		this.openAction = openAction;
+		setToolTipText(openAction != null ? "Double click to zoom into the page" : null);
+	}
+	
+	/**
+	 * Sets what happens when the image is shown, but it was dropped from the {@link ThumbnailStore}. This should 
+	 * put the image back into the store in the background, and then repaint this panel.
+	 * @param reloadAction The action, or null to do nothing.
+	 */
+	public void setReloadAction(Runnable reloadAction) {
+		this.reloadAction = reloadAction;
+	}
+	
+	/**
+	 * Paints the image from the {@link ThumbnailStore} in the middle, or requests it if it is not there.
+	 */
+	private class ThumbnailView extends JComponent {
+		
+		private ThumbnailView() {
+			setPreferredSize(new Dimension(thumbnails.getWidth(), thumbnails.getHeight()));
+		}
+		
+		@Override
+		protected void paintComponent(Graphics g) {
+			final int x = (getWidth() - thumbnails.getWidth()) / 2;
+			final int y = (getHeight() - thumbnails.getHeight()) / 2;
+			final BufferedImage thumbnail = thumbnails.get(pageNumber);
+			if(thumbnail != null) {
+				g.drawImage(thumbnail, x, y, null);
+			} else { //it will be repainted when the image is back
+				g.setColor(Color.LIGHT_GRAY);
+				g.fillRect(x, y, thumbnails.getWidth(), thumbnails.getHeight());
+				if(reloadAction != null) reloadAction.run();
+			}
+		}
+	}
 }
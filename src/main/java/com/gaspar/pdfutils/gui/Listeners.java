@@ -20,7 +20,7 @@ import javax.swing.filechooser.FileFilter;
 
 import com.gaspar.pdfutils.OperationThread;
 import com.gaspar.pdfutils.PdfUtilsMain;
-import com.gaspar.pdfutils.modes.ModeImagesToPdf;
+import com.gaspar.pdfutils.engine.ImagesToPdfEngine;
 
 /**
  * Contains listeners for buttons so they dont pollute the code.
@@ -155,7 +155,7 @@ public abstract class Listeners {
 					if(f.isDirectory()) return true;
 					//supported image formats: JPG, JPEG, TIF, TIFF, GIF, BMP and PNG
 					String fileName = Paths.get(f.getPath()).getFileName().toString();
-					for(String supported: ModeImagesToPdf.SUPPORTED_FORMATS) {
+					for(String supported: ImagesToPdfEngine.SUPPORTED_FORMATS) {
 						if(fileName.endsWith("." + supported)) return true;
 					}
 					return false;
@@ -6,13 +6,13 @@ import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.Insets;
-import java.util.ArrayList;
-import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
@@ -22,7 +22,10 @@ import javax.swing.JTextField;
 import javax.swing.border.EmptyBorder;
 
 import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.pages.PageSet;
 import com.gaspar.pdfutils.modes.ModeExtractToImages;
+import com.gaspar.pdfutils.output.ImageFormat;
+import com.gaspar.pdfutils.render.Binarization;
 
 /**
  * This panel displays options for the user to enter details about the 
@@ -48,6 +51,22 @@ public class ModeExtractToImagesPanel extends JPanel {
 	 * This field stores the image prefix input.
 	 */
 	private final JTextField prefixField = new JTextField("img_");
+	/**
+	 * Selects the format of the images.
+	 */
+	private final JComboBox<ImageFormat> formatBox = new JComboBox<>(ImageFormat.values());
+	/**
+	 * Selects dithering for black and white formats. Only visible if such a format is selected.
+	 */
+	private final JCheckBox ditherCheckbox = new JCheckBox("Dither (for photos and halftones)");
+	/**
+	 * Selects writing all pages into a single file. Only visible if a multi-page format is selected.
+	 */
+	private final JCheckBox multiPageCheckbox = new JCheckBox("Single multi-page file");
+	/**
+	 * Selects writing the images into a ZIP archive. Not possible together with a multi-page file.
+	 */
+	private final JCheckBox archiveCheckbox = new JCheckBox("Save into a ZIP archive");
 	
 	/**
 	 * Builds a panel where all input fields are empty.
@@ -62,6 +81,8 @@ public class ModeExtractToImagesPanel extends JPanel {
 		final Font font = new Font("SansSerif", Font.PLAIN, 15);
 		addSourceDestInputs(container, font);
 		
+		addFormatInputs(container, font);
+		
 		addPageSelectingTools(container, font);
 		
 		add(container);
@@ -128,6 +149,53 @@ public class ModeExtractToImagesPanel extends JPanel {
 		container.add(imagePrefixFlow);
 	}
 	
+	/**
+	 * Add tools to select the format of the images.
+	 * @param container Will be added to this.
+	 * @param font Texts will have this font.
+	 */
+	private void addFormatInputs(final JPanel container, final Font font) {
+		JPanel formatFlow = new JPanel(new FlowLayout(20));
+		JLabel formatLabel = new JLabel("Image format:");
+		formatLabel.setFont(font);
+		formatFlow.add(formatLabel);
+		formatBox.setToolTipText("Black and white TIFF files are much smaller, use them for scanned documents.");
+		formatFlow.add(formatBox);
+		ditherCheckbox.setFont(font);
+		ditherCheckbox.setVisible(false); //PNG is selected at start
+		formatFlow.add(ditherCheckbox);
+		multiPageCheckbox.setFont(font);
+		multiPageCheckbox.setToolTipText("All pages are written into one file, named with the prefix and 'pages'.");
+		multiPageCheckbox.setVisible(false);
+		formatFlow.add(multiPageCheckbox);
+		archiveCheckbox.setFont(font);
+		archiveCheckbox.setToolTipText("All images are written into one ZIP file, named with the prefix and 'images.zip'.");
+		formatFlow.add(archiveCheckbox);
+		formatBox.addActionListener(e -> {
+			ditherCheckbox.setVisible(getSelectedFormat().isBilevel());
+			multiPageCheckbox.setVisible(getSelectedFormat().isMultiPage());
+			container.revalidate();
+			PdfUtilsMain.getFrame().pack();
+		});
+		container.add(formatFlow);
+	}
+	
+	private ImageFormat getSelectedFormat() {
+		return (ImageFormat)formatBox.getSelectedItem();
+	}
+	
+	private boolean isMultiPageSelected() {
+		return getSelectedFormat().isMultiPage() && multiPageCheckbox.isSelected();
+	}
+	
+	private boolean isArchiveSelected() {
+		return archiveCheckbox.isSelected() && !isMultiPageSelected();
+	}
+	
+	private Binarization getSelectedBinarization() {
+		return ditherCheckbox.isSelected() ? Binarization.DITHER : Binarization.THRESHOLD;
+	}
+	
 	//card layout IDs
 	private static final String PAGE_RANGE = "pr", INDIVIDUAL_PAGES = "ip";
 	
@@ -202,7 +270,11 @@ public class ModeExtractToImagesPanel extends JPanel {
 													   prefixField.getText(),
 													   sourcePathField.getText(),
 													   destPathField.getText(),
-													   new String(passwordField.getPassword()))
+													   new String(passwordField.getPassword()),
+													   getSelectedFormat(),
+													   getSelectedBinarization(),
+													   isMultiPageSelected(),
+													   isArchiveSelected())
 		);
 		
 		final JPanel wrapper = new JPanel(new FlowLayout(FlowLayout.CENTER));
@@ -213,11 +285,9 @@ public class ModeExtractToImagesPanel extends JPanel {
 			try {
 				int pageFrom = Integer.parseInt(fromField.getText());
 				int pageTo = Integer.parseInt(toField.getText());
-				if(pageTo < pageFrom) throw new NumberFormatException();
-				List<Integer> pageNumbers = new ArrayList<>();
-				for(int i=pageFrom; i<=pageTo; i++) pageNumbers.add(i);
+				PageSet pages = PageSet.range(pageFrom, pageTo); //throws if the range is invalid
 				
-				PageViewerDialog dialog = new PageViewerDialog(pageNumbers, sourcePathField.getText(), false);
+				PageViewerDialog dialog = new PageViewerDialog(pages, sourcePathField.getText(), false);
 				if(passwordField.getPassword().length>0) dialog.setPassword(new String(passwordField.getPassword()));
 				dialog.startFilling();
 				dialog.showPages();
@@ -248,7 +318,7 @@ public class ModeExtractToImagesPanel extends JPanel {
 		l.setFont(font);
 		pageSpecFlow.add(l);
 		final JTextField csvPagesField = new JTextField();
-		csvPagesField.setToolTipText("Separate page numbers with a comma, or use the selector tool!");
+		csvPagesField.setToolTipText("Separate page numbers and ranges with a comma (for example 1-5,8,12-), or use the selector tool!");
 		csvPagesField.setColumns(20);
 		pageSpecFlow.add(csvPagesField);
 		individualPagesPanel.add(pageSpecFlow);
@@ -260,7 +330,11 @@ public class ModeExtractToImagesPanel extends JPanel {
 													   prefixField.getText(),
 													   sourcePathField.getText(),
 													   destPathField.getText(),
-													   new String(passwordField.getPassword())));
+													   new String(passwordField.getPassword()),
+													   getSelectedFormat(),
+													   getSelectedBinarization(),
+													   isMultiPageSelected(),
+													   isArchiveSelected()));
 		buttonFlow.add(executeButton);
 		JButton selectorButton = new JButton("Select pages"); //select pages tool
 		selectorButton.setFont(font);
@@ -268,14 +342,8 @@ public class ModeExtractToImagesPanel extends JPanel {
 			PageViewerDialog dialog = new PageViewerDialog(sourcePathField.getText(), true);
 			if(passwordField.getPassword().length>0) dialog.setPassword(new String(passwordField.getPassword()));
 			dialog.startFilling();
-			List<Integer> selectedPages = dialog.showPagesForResult();
-			//make csv string from result
-			StringBuilder b = new StringBuilder();
-			for(int i=0; i<selectedPages.size();i++) {
-				b.append(selectedPages.get(i));
-				if(i<selectedPages.size()-1) b.append(",");
-			}
-			csvPagesField.setText(b.toString());
+			PageSet selectedPages = dialog.showPagesForResult();
+			csvPagesField.setText(selectedPages.toString()); //consecutive pages are shown as ranges
 		});
 		buttonFlow.add(selectorButton);
 		individualPagesPanel.add(buttonFlow);
@@ -7,9 +7,7 @@ import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.Insets;
 import java.awt.event.ItemEvent;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
@@ -26,6 +24,7 @@ import javax.swing.JTextField;
 import javax.swing.border.EmptyBorder;
 
 import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.pages.PageSet;
 import com.gaspar.pdfutils.modes.ModeExtractToPdf;
 
 /**
@@ -283,11 +282,9 @@ public class ModeExtractToPdfPanel extends JPanel {
 			try {
 				int pageFrom = Integer.parseInt(fromField.getText());
 				int pageTo = Integer.parseInt(toField.getText());
-				if(pageTo < pageFrom) throw new NumberFormatException();
-				List<Integer> pageNumbers = new ArrayList<>();
-				for(int i=pageFrom; i<=pageTo; i++) pageNumbers.add(i);
+				PageSet pages = PageSet.range(pageFrom, pageTo); //throws if the range is invalid
 				
-				PageViewerDialog dialog = new PageViewerDialog(pageNumbers, sourcePathField.getText(), false);
+				PageViewerDialog dialog = new PageViewerDialog(pages, sourcePathField.getText(), false);
 				if(passwordField.getPassword().length>0) dialog.setPassword(new String(passwordField.getPassword()));
 				dialog.startFilling();
 				dialog.showPages();
@@ -318,7 +315,7 @@ public class ModeExtractToPdfPanel extends JPanel {
 		l.setFont(font);
 		pageSpecFlow.add(l);
 		final JTextField csvPagesField = new JTextField();
-		csvPagesField.setToolTipText("Separate page numbers with a comma, or use the selector tool!");
+		csvPagesField.setToolTipText("Separate page numbers and ranges with a comma (for example 1-5,8,12-), or use the selector tool!");
 		csvPagesField.setColumns(20);
 		pageSpecFlow.add(csvPagesField);
 		individualPagesPanel.add(pageSpecFlow);
@@ -351,14 +348,8 @@ public class ModeExtractToPdfPanel extends JPanel {
 			PageViewerDialog dialog = new PageViewerDialog(sourcePathField.getText(), true);
 			if(passwordField.getPassword().length>0) dialog.setPassword(new String(passwordField.getPassword()));
 			dialog.startFilling();
-			List<Integer> selectedPages = dialog.showPagesForResult();
-			//make csv string from result
-			StringBuilder b = new StringBuilder();
-			for(int i=0; i<selectedPages.size();i++) {
-				b.append(selectedPages.get(i));
-				if(i<selectedPages.size()-1) b.append(",");
-			}
-			csvPagesField.setText(b.toString());
+			PageSet selectedPages = dialog.showPagesForResult();
+			csvPagesField.setText(selectedPages.toString()); //consecutive pages are shown as ranges
 		});
 		buttonFlow.add(selectorButton);
 		individualPagesPanel.add(buttonFlow);
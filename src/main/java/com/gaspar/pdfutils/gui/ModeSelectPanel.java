@@ -18,8 +18,10 @@ import javax.swing.JTextArea;
 
 import com.gaspar.pdfutils.PdfUtilsMain;
 import com.gaspar.pdfutils.modes.Mode;
+import com.gaspar.pdfutils.modes.ModeExtractEmbeddedImages;
 import com.gaspar.pdfutils.modes.ModeExtractToImages;
 import com.gaspar.pdfutils.modes.ModeExtractToPdf;
+import com.gaspar.pdfutils.modes.ModeExtractToText;
 import com.gaspar.pdfutils.modes.ModeImagesToPdf;
 
 /**
@@ -105,6 +107,8 @@ public class ModeSelectPanel extends JPanel {
 		dropdown.addItem(Mode.MODE_EXTRACT_TO_IMAGES);
 		dropdown.addItem(Mode.MODE_EXTRACT_TO_PDF);
 		dropdown.addItem(Mode.MODE_IMAGES_TO_PDF);
+		dropdown.addItem(Mode.MODE_EXTRACT_TO_TEXT);
+		dropdown.addItem(Mode.MODE_EXTRACT_EMBEDDED_IMAGES);
 		dropdown.setSelectedIndex(-1);
 		
 		dropdown.addActionListener(e -> { //on select, update mode
@@ -119,6 +123,12 @@ public class ModeSelectPanel extends JPanel {
 			case Mode.MODE_IMAGES_TO_PDF:
 				selectedMode = new ModeImagesToPdf();
 				break;
+			case Mode.MODE_EXTRACT_TO_TEXT:
+				selectedMode = new ModeExtractToText();
+				break;
+			case Mode.MODE_EXTRACT_EMBEDDED_IMAGES:
+				selectedMode = new ModeExtractEmbeddedImages();
+				break;
 			default: //not possible
 				break;
 			}
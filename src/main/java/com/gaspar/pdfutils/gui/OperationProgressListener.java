@@ -0,0 +1,63 @@
+package com.gaspar.pdfutils.gui;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.progress.ProgressPhase;
+import com.gaspar.pdfutils.progress.RateLimitedProgressListener;
+
+/**
+ * Shows the progress of an operation on the {@link RootPanel}. Updates are coalesced: while an update is waiting to be 
+ * displayed on the event dispatch thread, newer updates only replace its value, so the EDT never gets flooded with runnables.
+ * <p>
+ * Use {@link #create()} to get an instance that is also rate limited.
+ * @author Gáspár Tamás
+ */
+public class OperationProgressListener implements ProgressListener {
+
+	/**
+	 * The latest update, which is not displayed yet.
+	 */
+	private final AtomicReference<Update> latest = new AtomicReference<>();
+	/**
+	 * True if a runnable is already scheduled to display {@link #latest}.
+	 */
+	private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+	/**
+	 * Creates a listener that updates the root panel at most {@link RateLimitedProgressListener#DEFAULT_UPDATES_PER_SECOND} times per second.
+	 * @return The listener.
+	 */
+	public static ProgressListener create() {
+		return new RateLimitedProgressListener(new OperationProgressListener());
+	}
+
+	@Override
+	public void progressChanged(ProgressPhase phase, long done, long total) {
+		final int percent = total > 0 ? (int)Math.min(100, 100 * done / total) : 0;
+		latest.set(new Update(phase.getDescription(), percent));
+		if(scheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(() -> {
+				scheduled.set(false); //updates after this will schedule a new runnable
+				final Update update = latest.get();
+				RootPanel.getInstance().updateOperationProgress(update.status, update.percent);
+			});
+		}
+	}
+
+	/**
+	 * An update waiting to be displayed.
+	 */
+	private static class Update {
+		private final String status;
+		private final int percent;
+
+		private Update(String status, int percent) {
+			this.status = status;
+			this.percent = percent;
+		}
+	}
+}
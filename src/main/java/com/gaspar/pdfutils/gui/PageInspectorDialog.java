@@ -0,0 +1,468 @@
+package com.gaspar.pdfutils.gui;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Cursor;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Window;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import com.gaspar.pdfutils.events.PageRenderEvent;
+import com.gaspar.pdfutils.render.RenderBudget;
+import com.gaspar.pdfutils.render.RenderQuality;
+import com.gaspar.pdfutils.render.TileCache;
+
+/**
+ * Shows a single page of a document, and allows to zoom into it to check the details. It is opened by double clicking
+ * an {@link ImageDisplayPanel} in the {@link PageViewerDialog}.
+ * <p>
+ * The page is never rendered as a whole at the zoomed resolution. It is split into square tiles, and only the tiles that
+ * are visible are rendered, on a background thread with its own copy of the document. Rendered tiles are kept in a
+ * {@link TileCache}, so scrolling back does not render them again. Until a tile is ready, a low resolution image
+ * of the whole page is shown scaled up in its place, so panning and zooming never wait for the renderer.
+ * <p>
+ * Zoom with the buttons or with the mouse wheel while holding control. The page can be dragged with the mouse.
+ * @author Gáspár Tamás
+ */
+public class PageInspectorDialog extends JDialog {
+
+	private static final Logger LOGGER = Logger.getLogger(PageInspectorDialog.class.getName());
+
+	/**
+	 * Size of a tile in pixels.
+	 */
+	private static final int TILE_SIZE = 512;
+	/**
+	 * Limits of the zoom.
+	 */
+	private static final float MIN_DPI = 25, MAX_DPI = 800;
+	/**
+	 * One zoom step changes the resolution this many times.
+	 */
+	private static final float ZOOM_STEP = 1.25f;
+	/**
+	 * The longer side of the low resolution image, in pixels.
+	 */
+	private static final int PREVIEW_PIXELS = 1000;
+	/**
+	 * The zoomed resolution is also limited so that the longer side of the page is at most this many pixels.
+	 */
+	private static final int MAX_PIXELS = 100000;
+
+	/**
+	 * Path to the document.
+	 */
+	private final String path;
+	/**
+	 * Optional password of the document.
+	 */
+	private final String password;
+	/**
+	 * Index of the shown page, 0 based.
+	 */
+	private final int pageIndex;
+	/**
+	 * The rendered tiles of this page.
+	 */
+	private final TileCache tileCache = new TileCache();
+	/**
+	 * Opens the document and renders the tiles. PDFBox documents are not thread safe, so there is only one thread.
+	 */
+	private final ExecutorService renderThread = Executors.newSingleThreadExecutor(task -> {
+		final Thread thread = new Thread(task, "pdfutils-inspector");
+		thread.setDaemon(true);
+		return thread;
+	});
+	/**
+	 * Tiles that are waiting to be rendered, so they are not requested again on every paint.
+	 */
+	private final Set<TileCache.Key> requestedTiles = ConcurrentHashMap.newKeySet();
+	/**
+	 * Paints the page.
+	 */
+	private final PageCanvas canvas = new PageCanvas();
+	/**
+	 * Scrolls the page.
+	 */
+	private final JScrollPane scroller = new JScrollPane(canvas);
+	/**
+	 * Shows the zoom, or the problem if the page can't be shown.
+	 */
+	private final JLabel statusLabel = new JLabel("Loading page, please wait...");
+	/**
+	 * Current resolution of the page.
+	 */
+	private volatile float dpi = 72;
+	/**
+	 * Size of the page in points, after rotation. Zero until the document is opened.
+	 */
+	private volatile float pageWidth, pageHeight;
+	/**
+	 * The whole page in low resolution, null until it is rendered.
+	 */
+	private volatile BufferedImage preview;
+	/**
+	 * The part of the page that was visible when it was last painted, in pixels at the current resolution.
+	 * Tiles that are not visible anymore are not rendered.
+	 */
+	private volatile Rectangle visibleArea = new Rectangle();
+	/**
+	 * True after the dialog is closed, or the page could not be rendered.
+	 */
+	private volatile boolean stopped;
+	/**
+	 * The document, only used by the {@link #renderThread}.
+	 */
+	private PDDocument document;
+	private PDFRenderer renderer;
+	private RenderQuality quality;
+
+	/**
+	 * Creates a dialog. Use {@link #showPage()} to show it.
+	 * @param owner The window that opened this.
+	 * @param path Path to the document.
+	 * @param password Password of the document, or null.
+	 * @param pageNumber The page to show. This is 1 based!
+	 */
+	public PageInspectorDialog(Window owner, String path, String password, int pageNumber) {
+		super(owner, "Page " + pageNumber);
+		this.path = path;
+		this.password = password;
+		this.pageIndex = pageNumber - 1;
+		setModalityType(ModalityType.MODELESS);
+		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+		setLayout(new BorderLayout());
+
+		scroller.setPreferredSize(new Dimension(900, 700));
+		scroller.getVerticalScrollBar().setUnitIncrement(32);
+		scroller.getHorizontalScrollBar().setUnitIncrement(32);
+		scroller.getViewport().setScrollMode(JViewport.BLIT_SCROLL_MODE); //only the uncovered part is painted
+		add(scroller, BorderLayout.CENTER);
+
+		final JButton zoomOutButton = new JButton("-");
+		zoomOutButton.addActionListener(e -> zoom(dpi / ZOOM_STEP, null));
+		final JButton zoomInButton = new JButton("+");
+		zoomInButton.addActionListener(e -> zoom(dpi * ZOOM_STEP, null));
+		final JButton fitButton = new JButton("Fit");
+		fitButton.addActionListener(e -> zoom(fittingDpi(), null));
+		final JButton closeButton = new JButton("Close");
+		closeButton.addActionListener(e -> dispose());
+		final JPanel tools = new JPanel(new FlowLayout(FlowLayout.CENTER));
+		tools.add(zoomOutButton);
+		tools.add(zoomInButton);
+		tools.add(fitButton);
+		tools.add(statusLabel);
+		tools.add(closeButton);
+		add(tools, BorderLayout.PAGE_END);
+
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				stopped = true; //waiting tiles are skipped, then the document is closed
+				renderThread.execute(() -> closeDocument());
+				renderThread.shutdown();
+				tileCache.clear();
+			}
+		});
+		pack();
+		setLocationRelativeTo(owner);
+	}
+
+	/**
+	 * Starts loading the page in the background, and shows the dialog.
+	 */
+	public void showPage() {
+		renderThread.execute(() -> openDocument());
+		setVisible(true);
+	}
+
+	/**
+	 * Opens the document and renders the low resolution image. Runs on the {@link #renderThread}.
+	 */
+	@SuppressWarnings("try")
+	private void openDocument() {
+		try {
+			final File file = new File(path);
+			document = password == null ? PDDocument.load(file) : PDDocument.load(file, password);
+			renderer = new PDFRenderer(document);
+			final PDPage page = document.getPage(pageIndex);
+			final PDRectangle cropBox = page.getCropBox();
+			final boolean turned = page.getRotation() == 90 || page.getRotation() == 270;
+			final float width = turned ? cropBox.getHeight() : cropBox.getWidth();
+			final float height = turned ? cropBox.getWidth() : cropBox.getHeight();
+
+			final float previewDpi = PREVIEW_PIXELS * 72f / Math.max(width, height);
+			RenderQuality.FAST.apply(renderer);
+			quality = RenderQuality.FAST;
+			final BufferedImage image;
+			try(RenderBudget.Reservation reservation = RenderBudget.shared().reserve(page, previewDpi, ImageType.RGB)) {
+				final PageRenderEvent event = new PageRenderEvent();
+				event.begin();
+				image = renderer.renderImageWithDPI(pageIndex, previewDpi, ImageType.RGB);
+				event.finish(path, pageIndex, previewDpi, image, "preview");
+			}
+			SwingUtilities.invokeLater(() -> {
+				pageWidth = width;
+				pageHeight = height;
+				preview = image;
+				zoom(fittingDpi(), null);
+			});
+		} catch(InvalidPasswordException e) {
+			showProblem("Incorrect password for this PDF file!");
+		} catch(IOException | IndexOutOfBoundsException e) {
+			LOGGER.log(Level.FINE, "Could not open page " + (pageIndex + 1) + " of " + path, e);
+			showProblem("Failed to open the page. Check if the file still exists!");
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Closes the document. Runs on the {@link #renderThread}, after the dialog is closed.
+	 */
+	private void closeDocument() {
+		if(document == null) return;
+		try {
+			document.close();
+		} catch(IOException e) {
+			LOGGER.log(Level.FINE, "Could not close " + path, e);
+		}
+		document = null;
+		renderer = null;
+	}
+
+	/**
+	 * Stops rendering, and shows why. Can be called from any thread.
+	 * @param message Description of the problem.
+	 */
+	private void showProblem(String message) {
+		stopped = true;
+		SwingUtilities.invokeLater(() -> statusLabel.setText(message));
+	}
+
+	/**
+	 * @return The resolution where the whole page fits into the visible area.
+	 */
+	private float fittingDpi() {
+		if(pageWidth == 0) return dpi;
+		final Dimension area = scroller.getViewport().getExtentSize();
+		if(area.width <= 0 || area.height <= 0) return dpi;
+		return Math.min(area.width / pageWidth, area.height / pageHeight) * 72f;
+	}
+
+	/**
+	 * Changes the resolution of the page. Must be called on the event dispatch thread.
+	 * @param newDpi The new resolution. It is limited to the allowed zoom.
+	 * @param anchor This point of the viewport shows the same part of the page after the zoom. If null, the center is used.
+	 */
+	private void zoom(float newDpi, Point anchor) {
+		if(pageWidth == 0) return; //not loaded yet
+		final float maxDpi = Math.min(MAX_DPI, MAX_PIXELS * 72f / Math.max(pageWidth, pageHeight));
+		newDpi = Math.max(MIN_DPI, Math.min(maxDpi, newDpi));
+		final JViewport viewport = scroller.getViewport();
+		if(anchor == null) anchor = new Point(viewport.getExtentSize().width / 2, viewport.getExtentSize().height / 2);
+		final Point position = viewport.getViewPosition();
+		final float ratio = newDpi / dpi;
+		dpi = newDpi;
+		final Dimension size = pixelSize(newDpi);
+		canvas.setPreferredSize(size);
+		canvas.setSize(size); //the position below can only be set if the canvas already has its new size
+		final Dimension extent = viewport.getExtentSize();
+		final int x = Math.round((position.x + anchor.x) * ratio) - anchor.x;
+		final int y = Math.round((position.y + anchor.y) * ratio) - anchor.y;
+		viewport.setViewPosition(new Point(Math.max(0, Math.min(x, size.width - extent.width)), Math.max(0, Math.min(y, size.height - extent.height))));
+		canvas.revalidate();
+		canvas.repaint();
+		statusLabel.setText("Zoom: " + Math.round(newDpi) + " DPI (" + Math.round(newDpi / 72f * 100) + "%)");
+	}
+
+	/**
+	 * Calculates the size of the page image, the same way as PDFBox does.
+	 * @param dpi The resolution.
+	 * @return Size in pixels.
+	 */
+	private Dimension pixelSize(float dpi) {
+		final float scale = dpi / 72f;
+		return new Dimension((int)Math.max(Math.floor(pageWidth * scale), 1), (int)Math.max(Math.floor(pageHeight * scale), 1));
+	}
+
+	/**
+	 * Requests a tile to be rendered in the background, if it is not already waiting.
+	 * @param key The tile.
+	 */
+	private void requestTile(TileCache.Key key) {
+		if(stopped || !requestedTiles.add(key)) return;
+		renderThread.execute(() -> renderTile(key));
+	}
+
+	/**
+	 * Renders a tile into the cache and repaints it. Runs on the {@link #renderThread}. Tiles that were scrolled
+	 * away or belong to an old zoom level while they were waiting are skipped.
+	 * @param key The tile.
+	 */
+	@SuppressWarnings("try")
+	private void renderTile(TileCache.Key key) {
+		try {
+			final float tileDpi = key.getDpi();
+			final Rectangle bounds = tileBounds(key);
+			if(stopped || tileDpi != dpi || !visibleArea.intersects(bounds)) return;
+			if(tileCache.get(key) == null) {
+				final RenderQuality tileQuality = RenderQuality.forDpi(tileDpi);
+				if(tileQuality != quality) {
+					tileQuality.apply(renderer);
+					quality = tileQuality;
+				}
+				final BufferedImage tile = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_RGB);
+				try(RenderBudget.Reservation reservation = RenderBudget.shared().reserve((long)bounds.width * bounds.height * 4)) {
+					final PageRenderEvent event = new PageRenderEvent();
+					event.begin();
+					final Graphics2D graphics = tile.createGraphics();
+					try {
+						graphics.setBackground(Color.WHITE);
+						graphics.clearRect(0, 0, bounds.width, bounds.height);
+						graphics.translate(-bounds.x, -bounds.y); //the tile is a window on the page
+						renderer.renderPageToGraphics(pageIndex, graphics, tileDpi / 72f);
+					} finally {
+						graphics.dispose();
+					}
+					event.finish(path, pageIndex, tileDpi, tile, "tile");
+				}
+				tileCache.put(key, tile);
+			}
+			SwingUtilities.invokeLater(() -> canvas.repaint(bounds));
+		} catch(IOException e) {
+			LOGGER.log(Level.FINE, "Could not render page " + (pageIndex + 1) + " of " + path, e);
+			showProblem("Failed to render the page, only the preview is shown.");
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			requestedTiles.remove(key);
+		}
+	}
+
+	/**
+	 * Finds the area of a tile. Tiles at the right and bottom edges may be smaller.
+	 * @param key The tile.
+	 * @return Area of the tile, in pixels at the resolution of the tile.
+	 */
+	private Rectangle tileBounds(TileCache.Key key) {
+		final Dimension size = pixelSize(key.getDpi());
+		final int x = key.getColumn() * TILE_SIZE;
+		final int y = key.getRow() * TILE_SIZE;
+		return new Rectangle(x, y, Math.min(TILE_SIZE, size.width - x), Math.min(TILE_SIZE, size.height - y));
+	}
+
+	/**
+	 * Paints the visible tiles of the page, and requests the missing ones.
+	 */
+	private class PageCanvas extends JComponent {
+
+		private PageCanvas() {
+			setOpaque(true);
+			setBackground(Color.GRAY);
+			setPreferredSize(new Dimension(400, 300));
+			setCursor(Cursor.getPredefinedCursor(Cursor.MOVE_CURSOR));
+			final MouseAdapter mouse = new MouseAdapter() {
+				/**
+				 * Where the drag was last seen, on the screen.
+				 */
+				private Point dragStart;
+
+				@Override
+				public void mousePressed(MouseEvent e) {
+					dragStart = e.getLocationOnScreen();
+				}
+
+				@Override
+				public void mouseDragged(MouseEvent e) {
+					if(dragStart == null) return;
+					final Point now = e.getLocationOnScreen();
+					final Rectangle view = getVisibleRect();
+					view.translate(dragStart.x - now.x, dragStart.y - now.y);
+					scrollRectToVisible(view);
+					dragStart = now;
+				}
+
+				@Override
+				public void mouseWheelMoved(MouseWheelEvent e) {
+					if(e.isControlDown()) { //zoom around the mouse
+						final Point anchor = SwingUtilities.convertPoint(PageCanvas.this, e.getPoint(), scroller.getViewport());
+						zoom(e.getWheelRotation() < 0 ? dpi * ZOOM_STEP : dpi / ZOOM_STEP, anchor);
+					} else { //a listener here stops the event, so the scroll pane gets it manually
+						scroller.dispatchEvent(SwingUtilities.convertMouseEvent(PageCanvas.this, e, scroller));
+					}
+				}
+			};
+			addMouseListener(mouse);
+			addMouseMotionListener(mouse);
+			addMouseWheelListener(mouse);
+		}
+
+		@Override
+		protected void paintComponent(Graphics g) {
+			g.setColor(getBackground());
+			final Rectangle clip = g.getClipBounds();
+			g.fillRect(clip.x, clip.y, clip.width, clip.height);
+			final BufferedImage previewImage = preview;
+			if(previewImage == null) return;
+
+			final float paintedDpi = dpi;
+			final Dimension size = pixelSize(paintedDpi);
+			visibleArea = getVisibleRect();
+			final Rectangle area = clip.intersection(new Rectangle(size));
+			if(area.isEmpty()) return;
+			((Graphics2D)g).setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			final double previewScale = (double)previewImage.getWidth() / size.width;
+			for(int row = area.y / TILE_SIZE; row * TILE_SIZE < area.y + area.height; row++) {
+				for(int column = area.x / TILE_SIZE; column * TILE_SIZE < area.x + area.width; column++) {
+					final TileCache.Key key = new TileCache.Key(pageIndex, paintedDpi, column, row);
+					final Rectangle bounds = tileBounds(key);
+					final BufferedImage tile = tileCache.get(key);
+					if(tile != null) {
+						g.drawImage(tile, bounds.x, bounds.y, null);
+					} else { //the preview is shown until the tile is rendered
+						g.drawImage(previewImage, bounds.x, bounds.y, bounds.x + bounds.width, bounds.y + bounds.height,
+								(int)(bounds.x * previewScale), (int)(bounds.y * previewScale),
+								(int)Math.ceil((bounds.x + bounds.width) * previewScale), (int)Math.ceil((bounds.y + bounds.height) * previewScale), null);
+						requestTile(key);
+					}
+				}
+			}
+		}
+	}
+}
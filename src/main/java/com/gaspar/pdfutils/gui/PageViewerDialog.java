@@ -8,12 +8,22 @@ import java.awt.FlowLayout;
 import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.Insets;
+import java.awt.Rectangle;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.JButton;
 import javax.swing.JDialog;
@@ -21,6 +31,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
 import javax.swing.border.EmptyBorder;
 
@@ -30,14 +41,29 @@ import org.apache.pdfbox.rendering.PDFRenderer;
 
 import com.gaspar.pdfutils.DialogFillerThread;
 import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.TextIndexThread;
+import com.gaspar.pdfutils.events.PageRenderEvent;
+import com.gaspar.pdfutils.index.TextIndex;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.render.RenderBudget;
+import com.gaspar.pdfutils.render.RenderQuality;
+import com.gaspar.pdfutils.render.ThumbnailStore;
 
 /**
  * This custom dialog shows pages from a selected document. It can allow to select and deselect individual pages.
- * Pages are shown using {@link ImageDisplayPanel}s.
+ * Pages are shown using {@link ImageDisplayPanel}s. Double clicking a page opens it in a {@link PageInspectorDialog}.
+ * <p>
+ * The images of the pages are kept in a {@link ThumbnailStore}, which has a memory limit. Images that were dropped 
+ * from it are rendered again in the background when their page is scrolled into view.
+ * <p>
+ * Pages can also be found by their text: a {@link TextIndexThread} gets the {@link TextIndex} of the document in the 
+ * background, and then the find field jumps to (and can select) the pages containing the entered words.
  * @author Gáspár Tamás
  */
 public class PageViewerDialog extends JDialog {
 
+	private static final Logger LOGGER = Logger.getLogger(PageViewerDialog.class.getName());
+
 	/**
 	 * Determines if the user can select or unselect pages.
 	 */
@@ -47,15 +73,19 @@ public class PageViewerDialog extends JDialog {
 	 */
 	private final String path;
 	/**
-	 * Page numbers that needs to be shown. These are from the UI and so they are 1 based! 
-	 * This can be null, which means all pages has to be shown.
+	 * Pages that needs to be shown. These are from the UI and so they are 1 based! 
+	 * This can have an open range, for example {@link PageSet#all()} shows all pages.
+	 */
+	private final PageSet pages;
+	/**
+	 * The shown pages, after the open ranges are closed using the document. Null until the document is opened.
 	 */
-	private final List<Integer> pageNumbers;
+	private volatile PageSet shownPages;
 	/**
-	 * Stores all page display panels so they can be iterated in the end to see which is selected. 
-	 * Page numbers stored in this are 1 based!
+	 * Stores all page display panels so they can be iterated in the end to see which is selected. These are in 
+	 * the same order as {@link #shownPages}.
 	 */
-	private final Map<Integer, ImageDisplayPanel> imagePanels = new HashMap<>();
+	private final List<ImageDisplayPanel> imagePanels = new ArrayList<>();
 	/**
 	 * This panel indicates loading until the pages are actually loaded. The second component of this is the 
 	 * actual progress bar!
@@ -69,19 +99,66 @@ public class PageViewerDialog extends JDialog {
 	 * Optional password for the PDF file.
 	 */
 	private String password;
+	/**
+	 * Index of the words in the document. Null until the {@link TextIndexThread} is done.
+	 */
+	private TextIndex textIndex;
+	/**
+	 * The user enters the words to find here.
+	 */
+	private final JTextField findField = new JTextField(15);
+	/**
+	 * Jumps to the next page containing the words.
+	 */
+	private final JButton findButton = new JButton("Find");
+	/**
+	 * Selects all pages containing the words. Only visible if selection is allowed.
+	 */
+	private final JButton selectFoundButton = new JButton("Select found");
+	/**
+	 * Shows which pages contain the words.
+	 */
+	private final JLabel findResultLabel = new JLabel();
+	/**
+	 * The last query that was searched for, and the index of the panel that was jumped to.
+	 */
+	private String lastQuery;
+	private int lastFoundPanel;
+	/**
+	 * The images of the pages, by page number.
+	 */
+	private final ThumbnailStore thumbnails = new ThumbnailStore(180, 210);
+	/**
+	 * Renders the images that were dropped from the {@link #thumbnails} again. It opens its own copy of the document 
+	 * when it is first needed.
+	 */
+	private final ExecutorService reloadThread = Executors.newSingleThreadExecutor(task -> {
+		final Thread thread = new Thread(task, "pdfutils-thumbnails");
+		thread.setDaemon(true);
+		return thread;
+	});
+	/**
+	 * Pages waiting to be rendered again, so they are not requested on every paint.
+	 */
+	private final Set<Integer> reloadingPages = ConcurrentHashMap.newKeySet();
+	/**
+	 * The document and renderer of the {@link #reloadThread}, only used by that thread.
+	 */
+	private PDDocument reloadDocument;
+	private PDFRenderer reloadRenderer;
 	
 	/**
 	 * Create a dialog. If there is an exception during opening the required pages, that that will be shown instead of the pages. Use 
 	 * {@link #startFilling()} to start loading the pages.
-	 * @param pageNumbers Shows these pages from the document. These are 1 based!
+	 * @param pages Shows these pages from the document. These are 1 based!
 	 * @param path Path to the document.
 	 * @param selectAllowed Allow or disallow selection.
 	 */
-	public PageViewerDialog(List<Integer> pageNumbers, String path, boolean selectAllowed) {
+	public PageViewerDialog(PageSet pages, String path, boolean selectAllowed) {
 		super(PdfUtilsMain.getFrame(), selectAllowed ? "Select pages" : "Preview pages");
 		this.selectAllowed = selectAllowed;
 		this.path = path;
-		this.pageNumbers = pageNumbers;
+		this.pages = pages;
 		
 		setFont(new Font("SansSerif", Font.PLAIN, 15));
 		setLayout(new BorderLayout());
@@ -89,6 +166,16 @@ public class PageViewerDialog extends JDialog {
 		setLocationRelativeTo(null);
 		//if there is a selection, make it block so we can get the result
 		setModalityType(selectAllowed ? ModalityType.APPLICATION_MODAL : ModalityType.MODELESS);
+		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				disposed = true;
+				reloadThread.execute(() -> closeReloadDocument());
+				reloadThread.shutdown();
+				thumbnails.clear();
+			}
+		});
 		
 		getContentPane().setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 		progressIndicatorPane.setLayout(new BorderLayout()); //set up loading indicator
@@ -108,11 +195,33 @@ public class PageViewerDialog extends JDialog {
 			dispose();
 		});
 		JPanel wrapper = new JPanel(new FlowLayout(FlowLayout.CENTER));
+		addFindTools(wrapper);
 		wrapper.add(okButton);
 		add(wrapper, BorderLayout.PAGE_END);
 		pack();
 	}
 	
+	/**
+	 * Adds the tools that find pages by their text. They are disabled until the text index is ready.
+	 * @param container The tools are added to this.
+	 */
+	private void addFindTools(final JPanel container) {
+		container.add(new JLabel("Find text:"));
+		findField.setEnabled(false);
+		findField.setToolTipText("The text of the document is being indexed, please wait...");
+		findField.addActionListener(e -> findPages()); //enter jumps to the next page as well
+		container.add(findField);
+		findButton.setEnabled(false);
+		findButton.addActionListener(e -> findPages());
+		container.add(findButton);
+		if(selectAllowed) {
+			selectFoundButton.setEnabled(false);
+			selectFoundButton.addActionListener(e -> selectFoundPages());
+			container.add(selectFoundButton);
+		}
+		container.add(findResultLabel);
+	}
+	
 	/**
 	 * Create a dialog. If there is an exception during opening the required pages, that that will be shown instead of the pages. 
 	 * All pages of the document will be selected.
@@ -120,14 +229,15 @@ public class PageViewerDialog extends JDialog {
 	 * @param selectAllowed Allow or disallow selection.
 	 */
 	public PageViewerDialog(String path, boolean selectAllowed) {
-		this(null, path, selectAllowed);
+		this(PageSet.all(), path, selectAllowed);
 	}
 	
 	/**
 	 * Attempts to build the panel displaying the selected pages. This is run on a background thread using {@link DialogFillerThread}.
 	 * @param document The document to build from.
 	 * @return The panel.
-	 * @throws IOException If the document becomes unavailable or the requested pages do not exist.
+	 * @throws IOException If the document becomes unavailable.
+	 * @throws IllegalArgumentException If the requested pages do not exist.
 	 * @throws InterruptedException If the dialog is disposed and the background thread needs to stop as well.
 	 */
 	public JPanel buildPageViewerPane(final PDDocument document) throws IOException, InterruptedException {
@@ -138,43 +248,103 @@ public class PageViewerDialog extends JDialog {
 		
 		if(disposed) throw new InterruptedException();
 		final PDFRenderer pdfRenderer = new PDFRenderer(document);
-		if(pageNumbers != null) { //show only some pages
-			int counter = 0;
-			for(int pageNumber: pageNumbers) { //page numbers are from the UI and are 1 based!
-				if(disposed) throw new InterruptedException();
-				final BufferedImage image = pdfRenderer.renderImageWithDPI(pageNumber-1, 50, ImageType.RGB);
-				final ImageDisplayPanel displayPanel = new ImageDisplayPanel(selectAllowed, "Page " + pageNumber, image); //use image display panel
-				imagePanels.put(pageNumber, displayPanel);
-				pageViewPanel.add(displayPanel);
-				
-				final int fCounter = counter++; //update progress bar
-				SwingUtilities.invokeLater(() -> {
-					JProgressBar bar = (JProgressBar)progressIndicatorPane.getComponent(1);
-					int newPercent = (int)(100*(Double.valueOf(fCounter)/pageNumbers.size()));
-					bar.setValue(newPercent);
-				});
-			}
-		} else { //show all pages in the document
-			for(int pageNumber=0; pageNumber<document.getNumberOfPages(); pageNumber++) { //page numbers are from PDFBox and are 0 based!
-				if(disposed) throw new InterruptedException();
-				final BufferedImage image = pdfRenderer.renderImageWithDPI(pageNumber, 50, ImageType.RGB);
-				//page numbers are 0 based here, but we pass 1 based numbers in
-				final ImageDisplayPanel displayPanel = new ImageDisplayPanel(selectAllowed, "Page " + (pageNumber+1), image); //use image display panel
-				imagePanels.put(pageNumber + 1, displayPanel); //make it 1 based in the map
-				pageViewPanel.add(displayPanel);
-				
-				final int fCounter = pageNumber+1; //update progress bar
-				SwingUtilities.invokeLater(() -> {
-					JProgressBar bar = (JProgressBar)progressIndicatorPane.getComponent(1);
-					int newPercent = (int)(100*(Double.valueOf(fCounter)/document.getNumberOfPages()));
-					bar.setValue(newPercent);
-				});
-			}
+		RenderQuality.FAST.apply(pdfRenderer); //small previews don't need full resolution images
+		final PageSet _pages = pages.resolve(document.getNumberOfPages()); //closes open ranges and checks if the pages exist
+		final int pageCount = _pages.size();
+		final PrimitiveIterator.OfInt iterator = _pages.iterator();
+		int counter = 1;
+		while(iterator.hasNext()) {
+			final int pageNumber = iterator.nextInt(); //page numbers are from the UI and are 1 based!
+			if(disposed) throw new InterruptedException();
+			thumbnails.put(pageNumber, renderPreview(pdfRenderer, document, pageNumber)); //only the thumbnail is kept
+			final ImageDisplayPanel displayPanel = new ImageDisplayPanel(selectAllowed, "Page " + pageNumber, thumbnails, pageNumber); //use image display panel
+			displayPanel.setOpenAction(() -> new PageInspectorDialog(this, path, password, pageNumber).showPage());
+			displayPanel.setReloadAction(() -> reloadThumbnail(pageNumber, displayPanel));
+			imagePanels.add(displayPanel);
+			pageViewPanel.add(displayPanel);
+			
+			final int fCounter = counter++; //update progress bar
+			SwingUtilities.invokeLater(() -> {
+				JProgressBar bar = (JProgressBar)progressIndicatorPane.getComponent(1);
+				int newPercent = (int)(100*(Double.valueOf(fCounter)/pageCount));
+				bar.setValue(newPercent);
+			});
 		}
+		shownPages = _pages;
 		
 		return pageViewPanel;
 	}
 	
+	/**
+	 * Renders the preview image of a page.
+	 * @param renderer Renderer of the document.
+	 * @param document The document.
+	 * @param pageNumber The page, 1 based.
+	 * @return The image.
+	 * @throws IOException If the page can't be rendered.
+	 * @throws InterruptedException If the thread was interrupted while waiting for memory.
+	 */
+	@SuppressWarnings("try")
+	private BufferedImage renderPreview(PDFRenderer renderer, PDDocument document, int pageNumber) throws IOException, InterruptedException {
+		final BufferedImage image;
+		final long renderStart = System.nanoTime();
+		//shares the memory budget with the operations, which may be rendering at the same time
+		try(RenderBudget.Reservation reservation = RenderBudget.shared().reserve(document.getPage(pageNumber-1), 50, ImageType.RGB)) {
+			final PageRenderEvent event = new PageRenderEvent();
+			event.begin();
+			image = renderer.renderImageWithDPI(pageNumber-1, 50, ImageType.RGB);
+			event.finish(path, pageNumber-1, 50, image, "preview");
+		}
+		if(LOGGER.isLoggable(Level.FINE)) {
+			LOGGER.fine("Preview of page " + pageNumber + " rendered in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - renderStart) + " ms");
+		}
+		return image;
+	}
+	
+	/**
+	 * Renders the image of a page again in the background, after it was dropped from the {@link #thumbnails}. 
+	 * Must be called on the event dispatch thread.
+	 * @param pageNumber The page, 1 based.
+	 * @param panel Shows the page, it is repainted when the image is ready.
+	 */
+	private void reloadThumbnail(final int pageNumber, final ImageDisplayPanel panel) {
+		if(disposed || !reloadingPages.add(pageNumber)) return;
+		reloadThread.execute(() -> {
+			try {
+				if(disposed) return;
+				if(reloadDocument == null) {
+					final File file = new File(path);
+					reloadDocument = password == null ? PDDocument.load(file) : PDDocument.load(file, password);
+					reloadRenderer = new PDFRenderer(reloadDocument);
+					RenderQuality.FAST.apply(reloadRenderer);
+				}
+				thumbnails.put(pageNumber, renderPreview(reloadRenderer, reloadDocument, pageNumber));
+				SwingUtilities.invokeLater(() -> panel.repaint());
+			} catch(IOException e) {
+				//the page stays empty, it was shown before so this is unlikely
+				LOGGER.log(Level.FINE, "Could not render page " + pageNumber + " of " + path + " again", e);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				reloadingPages.remove(pageNumber);
+			}
+		});
+	}
+	
+	/**
+	 * Closes the document of the {@link #reloadThread}, on that thread, after the dialog is closed.
+	 */
+	private void closeReloadDocument() {
+		if(reloadDocument == null) return;
+		try {
+			reloadDocument.close();
+		} catch(IOException e) {
+			LOGGER.log(Level.FINE, "Could not close " + path, e);
+		}
+		reloadDocument = null;
+		reloadRenderer = null;
+	}
+	
 	/**
 	 * Shows the dialog. This should be used where we don't care about the result of the user selecting pages, 
 	 * or when selection is not allowed.
@@ -186,14 +356,17 @@ public class PageViewerDialog extends JDialog {
 	
 	/**
 	 * Shows the dialog. This should be used when the user's selection is important.
-	 * @return The selected pages.
+	 * @return The selected pages, in the order they were shown. Empty if the pages could not be loaded.
 	 */
-	public List<Integer> showPagesForResult() {
+	public PageSet showPagesForResult() {
 		pack();
 		setVisible(true);
-		List<Integer> selectedPages = new ArrayList<>();
-		for(int pageNumber: imagePanels.keySet()) {
-			if(imagePanels.get(pageNumber).isSelected()) selectedPages.add(pageNumber);
+		final PageSet selectedPages = new PageSet();
+		if(shownPages == null) return selectedPages; //dialog was closed before the pages were loaded
+		final PrimitiveIterator.OfInt iterator = shownPages.iterator();
+		for(ImageDisplayPanel panel: imagePanels) { //panels are in the same order as the pages
+			final int pageNumber = iterator.nextInt();
+			if(panel.isSelected()) selectedPages.add(pageNumber);
 		}
 		return selectedPages; //has 1 based numbers, ready to display in the UI
 	}
@@ -205,7 +378,73 @@ public class PageViewerDialog extends JDialog {
 	public void startFilling() {
 		final DialogFillerThread fillerThread = new DialogFillerThread(this); //this will load in the pages and show them when done
 		fillerThread.start();
+		new TextIndexThread(this).start(); //enables finding pages when done
+	}
+	
+	/**
+	 * Enables the find tools. Must be called on the event dispatch thread.
+	 * @param textIndex Index of the document.
+	 */
+	public void setTextIndex(TextIndex textIndex) {
+		this.textIndex = textIndex;
+		findField.setEnabled(true);
+		findField.setToolTipText("Pages containing all of these words will be found. Word beginnings are enough.");
+		findButton.setEnabled(true);
+		selectFoundButton.setEnabled(true);
+	}
+	
+	/**
+	 * Shows which pages contain the words in the find field, and jumps to the next one of them. Nothing is rendered.
+	 */
+	private void findPages() {
+		final String query = findField.getText();
+		if(!query.equals(lastQuery)) { //start from the first page again
+			lastQuery = query;
+			lastFoundPanel = -1;
+		}
+		final PageSet found = textIndex.find(query);
+		if(found.isEmpty()) {
+			findResultLabel.setText("No pages found.");
+			return;
+		}
+		String spec = found.toString();
+		if(spec.length() > 40) spec = spec.substring(0, 40) + "...";
+		findResultLabel.setText("Found on " + found.size() + " pages: " + spec);
+		if(shownPages == null) return; //pages are still loading, nothing to jump to
 		
+		final int[] pageNumbers = shownPageNumbers();
+		for(int i=1; i<=pageNumbers.length; i++) { //look for the next match after the last one, then start over
+			final int panelIndex = (lastFoundPanel + i) % pageNumbers.length;
+			if(found.contains(pageNumbers[panelIndex])) {
+				lastFoundPanel = panelIndex;
+				final ImageDisplayPanel panel = imagePanels.get(panelIndex);
+				panel.scrollRectToVisible(new Rectangle(panel.getSize()));
+				return;
+			}
+		}
+		findResultLabel.setText(findResultLabel.getText() + " (not shown here)");
+	}
+	
+	/**
+	 * Selects the shown pages that contain the words in the find field. Other pages are not changed.
+	 */
+	private void selectFoundPages() {
+		if(shownPages == null) return;
+		final PageSet found = textIndex.find(findField.getText());
+		final int[] pageNumbers = shownPageNumbers();
+		for(int i=0; i<pageNumbers.length; i++) {
+			if(found.contains(pageNumbers[i])) imagePanels.get(i).setSelected(true);
+		}
+	}
+	
+	/**
+	 * @return Page number of each panel in {@link #imagePanels}. Only call this when {@link #shownPages} is set.
+	 */
+	private int[] shownPageNumbers() {
+		final int[] pageNumbers = new int[imagePanels.size()];
+		final PrimitiveIterator.OfInt iterator = shownPages.iterator();
+		for(int i=0; i<pageNumbers.length; i++) pageNumbers[i] = iterator.nextInt();
+		return pageNumbers;
 	}
 	
 	public String getPath() {
@@ -135,6 +135,10 @@ public class RootPanel extends JPanel {
 	 * Use {@link #updateOperationProgress(int)} to update the value.
 	 */
 	private JProgressBar operationBar = new JProgressBar(0,100);
+	/**
+	 * Displays what the ongoing operation is doing. Use {@link #updateOperationProgress(String, int)} to update it.
+	 */
+	private final JLabel operationLabel = new JLabel("Operation in progress");
 	
 	/**
 	 * Builds {@link #operationPanel} that displays the ongoing operation. This is a card layout panel. Use {@link #changeOperationPanel(String)} 
@@ -151,9 +155,8 @@ public class RootPanel extends JPanel {
 		final FlowLayout fl = new FlowLayout(20);
 		fl.setAlignment(FlowLayout.RIGHT);
 		JPanel progressPanel = new JPanel(fl);
-		JLabel l = new JLabel("Operation in progress");
-		l.setFont(f);
-		progressPanel.add(l);
+		operationLabel.setFont(f);
+		progressPanel.add(operationLabel);
 		operationBar.setValue(0);
 		progressPanel.add(operationBar);
 		operationPanel.add(progressPanel, OPERATION_IN_PROGRESS);
@@ -167,6 +170,7 @@ public class RootPanel extends JPanel {
 	 * @param status Should be one of {@link #NO_OPERATION} or {@link #OPERATION_IN_PROGRESS}.
 	 */
 	public void changeOperationPanel(String status) {
+		if(status.equals(OPERATION_IN_PROGRESS)) updateOperationProgress("Operation in progress", 0); //clear previous operation
 		operationCards.show(operationPanel, status);
 	}
 	
@@ -177,6 +181,16 @@ public class RootPanel extends JPanel {
 	public void updateOperationProgress(int progress) {
 		operationBar.setValue(progress);
 	}
+	
+	/**
+	 * Updates {@link #operationBar} and the text displayed next to it.
+	 * @param status Describes what the operation is doing.
+	 * @param progress The new progress. Must be between 0 and 100.
+	 */
+	public void updateOperationProgress(String status, int progress) {
+		operationLabel.setText(status);
+		operationBar.setValue(progress);
+	}
 
 	public JLabel getTitleLabel() {
 		return titleLabel;
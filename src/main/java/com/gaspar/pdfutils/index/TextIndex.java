@@ -0,0 +1,191 @@
+package com.gaspar.pdfutils.index;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import com.gaspar.pdfutils.pages.PageSet;
+
+/**
+ * Inverted index of the words in a document: for each word it stores the pages where the word appears. This 
+ * answers "which pages contain this word" without rendering or extracting anything. Build it with 
+ * {@link #build(PDDocument)}, and use {@link TextIndexStore} to keep it between sessions.
+ * <p>
+ * Words are lowercase sequences of letters and digits. Queries are prefix matches and all words of the 
+ * query must appear on a page, in any order.
+ * @author Gáspár Tamás
+ */
+public class TextIndex {
+
+	/**
+	 * Longer words are not indexed, these are usually garbage from broken text extraction.
+	 */
+	private static final int MAX_WORD_LENGTH = 64;
+	/**
+	 * Identifies the serialized form.
+	 */
+	private static final int MAGIC = 0x50555449, VERSION = 1;
+
+	/**
+	 * Amount of pages in the document.
+	 */
+	private final int pageCount;
+	/**
+	 * The words, sorted so that prefix queries are a range lookup. The pages are 1 based and ascending.
+	 */
+	private final TreeMap<String, PageSet> postings = new TreeMap<>();
+
+	/**
+	 * Creates an empty index.
+	 * @param pageCount Amount of pages in the document.
+	 */
+	TextIndex(int pageCount) {
+		this.pageCount = pageCount;
+	}
+
+	/**
+	 * Extracts the text of all pages and indexes it. This takes about as long as a text extraction.
+	 * @param document The document.
+	 * @return The index.
+	 * @throws IOException If the document can't be read.
+	 */
+	public static TextIndex build(PDDocument document) throws IOException {
+		final TextIndex index = new TextIndex(document.getNumberOfPages());
+		new TextIndexBuilder(index).build(document);
+		return index;
+	}
+
+	/**
+	 * Adds the words of a page. Pages must be added in ascending order.
+	 * @param page The page, 1 based.
+	 * @param text Text of the page.
+	 */
+	void addPage(int page, CharSequence text) {
+		final Set<String> words = new HashSet<>(tokenize(text));
+		for(String word: words) {
+			postings.computeIfAbsent(word, w -> new PageSet()).add(page); //consecutive pages are merged into runs
+		}
+	}
+
+	/**
+	 * Finds the pages that contain all words of a query. A word of the query matches every indexed word it is a 
+	 * prefix of, so <i>contr</i> finds <i>contract</i> as well.
+	 * @param query The query, for example <i>payment terms</i>.
+	 * @return The matching pages in ascending order, 1 based. Empty if the query has no words.
+	 */
+	public PageSet find(String query) {
+		final List<String> words = tokenize(query);
+		BitSet result = null;
+		for(String word: words) {
+			final BitSet pages = new BitSet(pageCount + 1);
+			//every indexed word that starts with this word
+			for(PageSet matching: postings.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+				final PrimitiveIterator.OfInt iterator = matching.iterator();
+				while(iterator.hasNext()) pages.set(iterator.nextInt());
+			}
+			if(result == null) {
+				result = pages;
+			} else {
+				result.and(pages);
+			}
+			if(result.isEmpty()) break; //no need to check the other words
+		}
+		final PageSet found = new PageSet();
+		if(result != null) {
+			for(int page = result.nextSetBit(0); page >= 0; page = result.nextSetBit(page + 1)) found.add(page);
+		}
+		return found;
+	}
+
+	/**
+	 * @return Amount of pages in the indexed document.
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * @return Amount of different words in the index.
+	 */
+	public int getWordCount() {
+		return postings.size();
+	}
+
+	/**
+	 * Splits text into lowercase words.
+	 * @param text The text.
+	 * @return The words, in order, with duplicates.
+	 */
+	static List<String> tokenize(CharSequence text) {
+		final List<String> words = new ArrayList<>();
+		final StringBuilder word = new StringBuilder();
+		for(int i=0; i<=text.length(); i++) {
+			final char c = i < text.length() ? text.charAt(i) : ' '; //extra separator at the end
+			if(Character.isLetterOrDigit(c)) {
+				word.append(c);
+			} else if(word.length() > 0) {
+				if(word.length() <= MAX_WORD_LENGTH) words.add(word.toString().toLowerCase(Locale.ROOT));
+				word.setLength(0);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Writes this index in a compact binary form, which can be read back with {@link #read(InputStream)}.
+	 * @param out The stream, which is not closed.
+	 * @throws IOException If writing failed.
+	 */
+	public void write(OutputStream out) throws IOException {
+		final DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(pageCount);
+		data.writeInt(postings.size());
+		for(Map.Entry<String, PageSet> entry: postings.entrySet()) {
+			data.writeUTF(entry.getKey()); //words are short, see MAX_WORD_LENGTH
+			final byte[] pages = entry.getValue().toString().getBytes(StandardCharsets.US_ASCII); //can be longer than writeUTF allows
+			data.writeInt(pages.length);
+			data.write(pages);
+		}
+		data.flush();
+	}
+
+	/**
+	 * Reads an index written by {@link #write(OutputStream)}.
+	 * @param in The stream, which is not closed.
+	 * @return The index.
+	 * @throws IOException If reading failed or the data is not an index.
+	 */
+	public static TextIndex read(InputStream in) throws IOException {
+		final DataInputStream data = new DataInputStream(in);
+		if(data.readInt() != MAGIC || data.readInt() != VERSION) throw new IOException("Not a text index, or an old version!");
+		final TextIndex index = new TextIndex(data.readInt());
+		final int wordCount = data.readInt();
+		for(int i=0; i<wordCount; i++) {
+			final String word = data.readUTF();
+			final byte[] pages = new byte[data.readInt()];
+			data.readFully(pages);
+			try {
+				index.postings.put(word, PageSet.parse(new String(pages, StandardCharsets.US_ASCII)));
+			} catch(NumberFormatException e) {
+				throw new IOException("Corrupted text index!", e);
+			}
+		}
+		return index;
+	}
+}
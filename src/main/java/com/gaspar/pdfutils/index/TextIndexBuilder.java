@@ -0,0 +1,64 @@
+package com.gaspar.pdfutils.index;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+/**
+ * Collects the text of each page and adds it to a {@link TextIndex}. The whole document is processed in one pass, 
+ * and only the text of the current page is kept in memory.
+ * @author Gáspár Tamás
+ */
+class TextIndexBuilder extends PDFTextStripper {
+
+	/**
+	 * The words are added to this.
+	 */
+	private final TextIndex index;
+	/**
+	 * Text of the current page.
+	 */
+	private final StringBuilder pageText = new StringBuilder();
+
+	TextIndexBuilder(TextIndex index) throws IOException {
+		this.index = index;
+	}
+
+	/**
+	 * Processes all pages of the document.
+	 * @param document The document.
+	 * @throws IOException If the document can't be read.
+	 */
+	void build(PDDocument document) throws IOException {
+		writeText(document, new DiscardingWriter()); //the text is collected in writeString, not from the output
+	}
+
+	@Override
+	protected void startPage(PDPage page) throws IOException {
+		pageText.setLength(0);
+	}
+
+	@Override
+	protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+		pageText.append(text).append(' ');
+	}
+
+	@Override
+	protected void endPage(PDPage page) throws IOException {
+		index.addPage(getCurrentPageNo(), pageText);
+	}
+
+	/**
+	 * The output of the stripper is only separators, which are not needed.
+	 */
+	private static class DiscardingWriter extends Writer {
+		@Override public void write(char[] cbuf, int off, int len) {}
+		@Override public void flush() {}
+		@Override public void close() {}
+	}
+}
@@ -0,0 +1,106 @@
+package com.gaspar.pdfutils.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps {@link TextIndex}es on the disk, so a document has to be indexed only once. The indexes are stored in 
+ * the per user cache folder of the program, one file for each document. The file name is derived from the path, 
+ * size and modification time of the document, so when the document changes, its old index is simply not found.
+ * <p>
+ * Indexes of encrypted documents should not be stored, as they would leak the text of the document.
+ * @author Gáspár Tamás
+ */
+public class TextIndexStore {
+
+	/**
+	 * Cache folder of the program. Other caches are placed next to the text indexes as well.
+	 */
+	public static final File CACHE_DIRECTORY = new File(System.getProperty("user.home"), ".pdfutils");
+
+	/**
+	 * Folder of the index files.
+	 */
+	private final File directory;
+
+	/**
+	 * Creates a store in the default folder, which is inside {@link #CACHE_DIRECTORY}.
+	 */
+	public TextIndexStore() {
+		this(new File(CACHE_DIRECTORY, "text-index"));
+	}
+
+	/**
+	 * Creates a store.
+	 * @param directory Folder of the index files. Created when the first index is saved.
+	 */
+	public TextIndexStore(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Loads the index of a document, if it was saved before and the document has not changed since.
+	 * @param document The PDF file.
+	 * @return The index, or null if there is no up to date index.
+	 */
+	public TextIndex load(File document) {
+		final File file = indexFile(document);
+		if(!file.isFile()) return null;
+		try(InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			return TextIndex.read(in);
+		} catch(IOException e) {
+			file.delete(); //corrupted, it will be rebuilt
+			return null;
+		}
+	}
+
+	/**
+	 * Saves the index of a document. The file is written under a temporary name and then renamed, so a half written 
+	 * index is never loaded.
+	 * @param document The PDF file.
+	 * @param index Index of the document.
+	 * @throws IOException If the index can't be written.
+	 */
+	public void save(File document, TextIndex index) throws IOException {
+		Files.createDirectories(directory.toPath());
+		final Path target = indexFile(document).toPath();
+		final Path temp = Files.createTempFile(directory.toPath(), "index", ".tmp");
+		try {
+			try(OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				index.write(out);
+			}
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Finds the file of an index.
+	 * @param document The PDF file.
+	 * @return The index file, which may not exist.
+	 */
+	private File indexFile(File document) {
+		final String identity = document.getAbsolutePath() + '|' + document.length() + '|' + document.lastModified();
+		try {
+			final byte[] hash = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder name = new StringBuilder();
+			for(byte b: hash) name.append(String.format("%02x", b));
+			return new File(directory, name.append(".idx").toString());
+		} catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+}
@@ -1,11 +1,19 @@
 package com.gaspar.pdfutils.modes;
 
-import java.io.IOException;
-
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
+import com.gaspar.pdfutils.OperationThread;
+import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.engine.WrongPasswordException;
+import com.gaspar.pdfutils.gui.OperationProgressListener;
+import com.gaspar.pdfutils.progress.ProgressListener;
+
 /**
- * Mode base class.
+ * Mode base class. Modes are the GUI side of the operations: they collect the user input, and pass it to an engine 
+ * from the {@link com.gaspar.pdfutils.engine} package, which does the actual work.
  * @author Gáspár Tamás
  */
 public abstract class Mode {
@@ -23,23 +31,72 @@ public abstract class Mode {
 	 * the images are extracted PDF pages. Works only for PNG images.
 	 */
 	public static final String MODE_IMAGES_TO_PDF = "Images to PDF";
+	/**
+	 * This mode extracts the text of the pages in range to a text file.
+	 */
+	public static final String MODE_EXTRACT_TO_TEXT = "Extract to text";
+	/**
+	 * This mode saves the images embedded in the pages in range, without rendering the pages.
+	 */
+	public static final String MODE_EXTRACT_EMBEDDED_IMAGES = "Extract embedded images";
 	
 	/**
 	 * One of the mode constants
 	 */
 	protected String modeName;
+	/**
+	 * Progress of {@link #execute(String, String)} is reported here. By default nobody listens.
+	 */
+	protected ProgressListener progressListener = ProgressListener.NONE;
 	
 	protected Mode(String modeName) {
 		this.modeName = modeName;
 	}
 	
+	/**
+	 * Sets where the progress of this mode is reported. Must be called before {@link #execute(String, String)}.
+	 * @param progressListener The listener.
+	 */
+	public void setProgressListener(ProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+	
 	/**
 	 * Executes this mode on the selected pdf.
 	 * @param sourcePath The path of the selected pdf file.
 	 * @param destinationPath The path where the result will be placed.
-	 * @throws IOException When the source or destination cant be opened.
+	 * @throws EngineException When the input is invalid, or the source or destination cant be opened.
 	 */
-	public abstract void execute(String sourcePath, String destinationPath) throws IOException;
+	public abstract void execute(String sourcePath, String destinationPath) throws EngineException;
+	
+	/**
+	 * Executes this mode on an {@link OperationThread}, showing the progress on the root panel. If something goes wrong, 
+	 * a dialog will display the problem.
+	 * @param sourcePath The path of the selected pdf file.
+	 * @param destinationPath The path where the result will be placed.
+	 */
+	protected void executeInBackground(String sourcePath, String destinationPath) {
+		setProgressListener(OperationProgressListener.create()); //shows progress on the root panel
+		//this handler displays dialogs from background exceptions
+		Thread.UncaughtExceptionHandler h = new Thread.UncaughtExceptionHandler() {
+		    @Override
+		    public void uncaughtException(Thread th, Throwable ex) {
+		    	String title = "Error";
+		    	if(ex.getCause() instanceof InvalidRequestException) title = "Invalid input";
+		    	if(ex.getCause() instanceof WrongPasswordException) title = "Incorrect password";
+		        JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), ex.getMessage(), title, JOptionPane.ERROR_MESSAGE);
+		    }
+		};
+		OperationThread opThread = new OperationThread(() -> {
+			try {
+				execute(sourcePath, destinationPath);
+			} catch(EngineException e) {
+				throw new RuntimeException(e.getMessage(), e); //message is ready to be displayed
+			}
+		});
+		opThread.setUncaughtExceptionHandler(h);
+		opThread.start();
+	}
 	
 	/**
 	 * Provides a description for this mode to be displayed in the mode selection panel.
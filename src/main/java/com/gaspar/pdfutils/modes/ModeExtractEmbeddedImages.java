@@ -0,0 +1,142 @@
+package com.gaspar.pdfutils.modes;
+
+import java.util.Locale;
+
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+import com.gaspar.pdfutils.OperationThread;
+import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.EngineResult;
+import com.gaspar.pdfutils.engine.ExtractEmbeddedImagesEngine;
+import com.gaspar.pdfutils.engine.ExtractEmbeddedImagesRequest;
+import com.gaspar.pdfutils.gui.ModeExtractEmbeddedImagesPanel;
+import com.gaspar.pdfutils.pages.PageSet;
+
+/**
+ * This mode saves the images embedded in the pages, in their original format when possible. For scanned documents
+ * this is much faster than {@link ModeExtractToImages}, because the pages are not rendered. The work is done by
+ * the {@link ExtractEmbeddedImagesEngine}.
+ * @author Gáspár Tamás
+ */
+public class ModeExtractEmbeddedImages extends Mode {
+
+	/**
+	 * Pages whose images are extracted. This is from the UI, so numbers are 1 based. May contain an open range, which is
+	 * resolved when the document is opened.
+	 */
+	private final PageSet pages;
+	/**
+	 * Images are named with this prefix, the page number and a counter.
+	 */
+	private final String imageNamePrefix;
+	/**
+	 * Password for the pdf file. Null if no password is given. Must be set after object creation.
+	 */
+	private String password = null;
+
+	/**
+	 * Constructor with a page range.
+	 * @param fromPage Start extract at this page. 1 based!
+	 * @param toPage End extract at this page (inclusive). 1 based!
+	 * @param imageNamePrefix Images will be named with this prefix.
+	 */
+	public ModeExtractEmbeddedImages(int fromPage, int toPage, String imageNamePrefix) {
+		this(PageSet.range(fromPage, toPage), imageNamePrefix);
+	}
+
+	/**
+	 * Constructor which specifies the pages directly.
+	 * @param pages The selected pages. This is from the UI, so numbers are 1 based.
+	 * @param imageNamePrefix Images will be named with this prefix.
+	 */
+	public ModeExtractEmbeddedImages(PageSet pages, String imageNamePrefix) {
+		super(Mode.MODE_EXTRACT_EMBEDDED_IMAGES);
+		this.pages = pages;
+		this.imageNamePrefix = imageNamePrefix;
+	}
+
+	/**
+	 * A default constructor to create a mode object only for dislaying name
+	 * and description. {@link #execute(String, String)} should not be called on this!
+	 */
+	public ModeExtractEmbeddedImages() {
+		this(PageSet.all(), "img_");
+	}
+
+	/**
+	 * Saves the images of the specified pages. This is run on an {@link OperationThread} in the background.
+	 * Progress is reported to {@link #progressListener}. When it is done, a dialog shows how many images were found.
+	 * @param sourcePdfPath The path of the selected pdf file.
+	 * @param destinationPath The path where the images will be placed.
+	 * @throws EngineException When the input is invalid, the password is incorrect, or the source or destination cant be opened.
+	 */
+	@Override
+	public void execute(String sourcePdfPath, String destinationPath) throws EngineException {
+		final ExtractEmbeddedImagesRequest request = new ExtractEmbeddedImagesRequest(sourcePdfPath, destinationPath, pages, imageNamePrefix);
+		request.setPassword(password);
+		final EngineResult result = new ExtractEmbeddedImagesEngine().execute(request, progressListener);
+		final String message = String.format(Locale.ROOT, "Saved %d images from %d pages in %.1f seconds.",
+				result.getOutputs().size(), result.getPageCount(), result.getElapsedMillis() / 1000.0);
+		JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), message, "Images extracted", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	/**
+	 * This method will attempt to extract the images using a page range. If something goes wrong, a dialog will display the problem.
+	 * These parameters are not checked in any ways here!
+	 * @param fromPage Start page as string.
+	 * @param toPage End page as string.
+	 * @param imagePrefix Prefix of the images.
+	 * @param sourcePath Path of PDF file.
+	 * @param destPath Path of the images.
+	 * @param password Password for the source PDF file.
+	 */
+	public static void attemptImageExtraction(String fromPage, String toPage, String imagePrefix, String sourcePath, String destPath, String password) {
+		int fromPageInt, toPageInt;
+		try {
+			fromPageInt = Integer.parseInt(fromPage);
+			toPageInt = Integer.parseInt(toPage);
+
+			ModeExtractEmbeddedImages mode = new ModeExtractEmbeddedImages(fromPageInt, toPageInt, imagePrefix);
+			if(!password.isEmpty()) mode.password = password;
+			mode.executeInBackground(sourcePath, destPath);
+		} catch (NumberFormatException e) {
+			String fromInput = fromPage.isEmpty() ? "[EMPTY]" : fromPage;
+			String toInput = toPage.isEmpty() ? "[EMPTY]" : toPage;
+			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), fromInput+" and "+toInput+" is not a valid range of pages in this document!","Invalid pages", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	/**
+	 * This method will attempt to extract the images using directly specified pages. If something goes wrong, a dialog will display the problem.
+	 * These parameters are not checked in any ways here!
+	 * @param csvPages The pages in a comma separated string, and are 1 based! See {@link PageSet#parse(String)} for the format.
+	 * @param imagePrefix Prefix of the images.
+	 * @param sourcePath Path of PDF file.
+	 * @param destPath Path of the images.
+	 * @param password Password for the source PDF file.
+	 */
+	public static void attemptImageExtraction(String csvPages, String imagePrefix, String sourcePath, String destPath, String password) {
+		try {
+			PageSet pages = PageSet.parse(csvPages); //attempt to convert them into a valid page selection
+
+			ModeExtractEmbeddedImages mode = new ModeExtractEmbeddedImages(pages, imagePrefix);
+			if(!password.isEmpty()) mode.password = password;
+			mode.executeInBackground(sourcePath, destPath);
+		} catch (NumberFormatException e) {
+			String input = csvPages.isEmpty() ? "[EMPTY]" : csvPages;
+			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), input+" is not a valid page specifier! Use the page selector tool!","Invalid pages", JOptionPane.ERROR_MESSAGE);
+		}
+	}
+
+	@Override
+	public String getDescription() {
+		return "Save the images embedded in the pages of a PDF, without rendering the pages. Best for scanned documents.";
+	}
+
+	@Override
+	public JPanel getModePanel() {
+		return new ModeExtractEmbeddedImagesPanel();
+	}
+}
@@ -1,49 +1,32 @@
 package com.gaspar.pdfutils.modes;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-
-import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
-import javax.swing.SwingUtilities;
-
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
-import org.apache.pdfbox.rendering.ImageType;
-import org.apache.pdfbox.rendering.PDFRenderer;
 
 import com.gaspar.pdfutils.OperationThread;
 import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ExtractToImagesEngine;
+import com.gaspar.pdfutils.engine.ExtractToImagesRequest;
 import com.gaspar.pdfutils.gui.ModeExtractToImagesPanel;
-import com.gaspar.pdfutils.gui.RootPanel;
+import com.gaspar.pdfutils.output.ImageFormat;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.render.Binarization;
 
 /**
  * This mode extracts the specifies pages to separate images. You can use {@link ModeImagesToPdf} to recombine edited images.
+ * The work is done by the {@link ExtractToImagesEngine}.
  * <p>
  * You can give a range of pages using {@link ModeExtractToImages#ModeExtractToImages(int, int, String)} or specify 
- * individual pages using {@link ModeExtractToImages#ModeExtractToImages(List, String)}.
+ * individual pages using {@link ModeExtractToImages#ModeExtractToImages(PageSet, String)}.
  */
 public class ModeExtractToImages extends Mode {
 
 	/**
-	 * Start extract at this page. This is 1 BASED, not 0 based!
-	 */
-	private final int fromPage;
-	/**
-	 * End extract at this page (inclusive). This is 1 BASED, not 0 based!
-	 */
-	private final int toPage;
-	/**
-	 * Pages to be extracted. If this object is created with a page range, then this is null. This is from the UI, so numbers are 
-	 * 1 based.
+	 * Pages to be extracted. This is from the UI, so numbers are 1 based. May contain an open range, which is resolved 
+	 * when the document is opened.
 	 */
-	private List<Integer> pageNumbers;
+	private final PageSet pages;
 	/**
 	 * Generated images will be enumerated with this prefix. For example if you set this "homework_" then 
 	 * the generated images will be "homework_1", "homework_2", ...
@@ -55,6 +38,22 @@ public class ModeExtractToImages extends Mode {
 	 * Password for the pdf file. Null if no password is given. Must be set after object creation.
 	 */
 	private String password = null;
+	/**
+	 * Format of the images. PNG by default. Must be set after object creation.
+	 */
+	private ImageFormat format = ImageFormat.PNG;
+	/**
+	 * How pages become black and white, for bilevel formats. Must be set after object creation.
+	 */
+	private Binarization binarization = Binarization.THRESHOLD;
+	/**
+	 * Write all pages into one file. Only for multi-page formats. Must be set after object creation.
+	 */
+	private boolean multiPage = false;
+	/**
+	 * Write the images into a single ZIP archive. Must be set after object creation.
+	 */
+	private boolean archive = false;
 	
 	/**
 	 * Constructor with specified image prefix, and a page range.
@@ -63,23 +62,18 @@ public class ModeExtractToImages extends Mode {
 	 * @param imageNamePrefix Generated images will be enumerated with this prefix.
 	 */
 	public ModeExtractToImages(int fromPage, int toPage, String imageNamePrefix) {
-		super(Mode.MODE_EXTRACT_TO_IMAGES);
-		this.fromPage = fromPage;
-		this.toPage = toPage;
-		this.imageNamePrefix = imageNamePrefix;
+		this(PageSet.range(fromPage, toPage), imageNamePrefix);
 	}
 	
 	/**
 	 * Conostructor which specifies the pages to be extracted directly.
-	 * @param pageNumbers The page numbers in a list. This is from the UI, so numbers are 1 based.
+	 * @param pages The selected pages. This is from the UI, so numbers are 1 based.
 	 * @param imagePrefix The image prefix.
 	 */
-	public ModeExtractToImages(List<Integer> pageNumbers, String imagePrefix) {
+	public ModeExtractToImages(PageSet pages, String imagePrefix) {
 		super(Mode.MODE_EXTRACT_TO_IMAGES);
-		this.pageNumbers = pageNumbers;
+		this.pages = pages;
 		this.imageNamePrefix = imagePrefix;
-		toPage = -1; //these do not matter when pages are specified in a list
-		fromPage = -1;
 	}
 	
 	/**
@@ -87,48 +81,25 @@ public class ModeExtractToImages extends Mode {
 	 * and description. {@link #execute(String, String)} should not be called on this!
 	 */
 	public ModeExtractToImages() {
-		this(-1,-1,"img_");
+		this(PageSet.all(),"img_");
 	}
 
 	/**
-	 * Extracts the specified pages and converts them into images. This is run on an {@link OperationThread} in the background, so 
-	 * changes to the GUI must be made with {@link SwingUtilities#invokeLater(Runnable)}.
+	 * Extracts the specified pages and converts them into images. This is run on an {@link OperationThread} in the background. 
+	 * Progress is reported to {@link #progressListener}.
 	 * @param sourcePdfPath The path of the selected pdf file.
 	 * @param destinationPath The path where the images will be placed.
-	 * @throws IOException When the source or destination cant be opened.
-	 * @throws InvalidPasswordException When the specified password is incorrect.
+	 * @throws EngineException When the input is invalid, the password is incorrect, or the source or destination cant be opened.
 	 */
 	@Override
-	public void execute(String sourcePdfPath, String destPath) throws IOException, InvalidPasswordException {
-		try(PDDocument document = password==null ? PDDocument.load(new File(sourcePdfPath)) : PDDocument.load(new File(sourcePdfPath), password)) {
-			
-			SwingUtilities.invokeLater(() -> RootPanel.getInstance().updateOperationProgress(0)); //show 0 progress
-			
-			final PDFRenderer pdfRenderer = new PDFRenderer(document);
-			
-			List<Integer> _pageNumbers = null; //fill a list with 0 based indices
-			if(pageNumbers != null) { //already have a list, reduce indices by one, to make it 0 based
-				_pageNumbers = pageNumbers.stream().map(page -> page-1).collect(Collectors.toList());
-			} else {
-				_pageNumbers = new ArrayList<>(); //fill list from range, reducing by one to make it 0 based
-				for(int i=fromPage-1; i<toPage; i++) {
-					_pageNumbers.add(i);
-				}
-			}
-			//now it does not matter if it was page range or not, _pageNumbers has the 0 based page indices
-			int counter = 1;
-			for(int i: _pageNumbers) {
-				final BufferedImage image = pdfRenderer.renderImageWithDPI(i, 300, ImageType.RGB);
-				
-                String fileName = destPath + "/" + imageNamePrefix + String.valueOf(counter) + ".png";
-                ImageIO.write(image, "png", new File(fileName));
-                counter++;
-                
-                //update operation progress on GUI
-                final int newPercent = (int)(100*(Double.valueOf(i)/_pageNumbers.size()));
-                SwingUtilities.invokeLater(() -> RootPanel.getInstance().updateOperationProgress(newPercent));
-			}
-		}
+	public void execute(String sourcePdfPath, String destPath) throws EngineException {
+		final ExtractToImagesRequest request = new ExtractToImagesRequest(sourcePdfPath, destPath, pages, imageNamePrefix);
+		request.setPassword(password);
+		request.setFormat(format);
+		request.setBinarization(binarization);
+		request.setMultiPage(multiPage);
+		request.setArchive(archive);
+		new ExtractToImagesEngine().execute(request, progressListener);
 	}
 	
 	/**
@@ -140,12 +111,13 @@ public class ModeExtractToImages extends Mode {
 	 * @param sourcePath Path of PDF file.
 	 * @param destPath Path of the images.
 	 * @param password Password for the source PDF file.
+	 * @param format Format of the images.
+	 * @param binarization Used if the format is black and white.
+	 * @param multiPage Write all pages into one file.
+	 * @param archive Write the images into a ZIP archive.
 	 */
-	public static void attemptImageExtraction(String fromPage, String toPage, String imagePrefix, String sourcePath, String destPath, String password) {
-		if(imagePrefix.isEmpty()) {
-			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), "There must be an image prefix!", "Invalid prefix", JOptionPane.ERROR_MESSAGE);
-			return;
-		}
+	public static void attemptImageExtraction(String fromPage, String toPage, String imagePrefix, String sourcePath, String destPath, String password, 
+			ImageFormat format, Binarization binarization, boolean multiPage, boolean archive) {
 		int fromPageInt, toPageInt;
 		try {
 			fromPageInt = Integer.parseInt(fromPage);
@@ -153,25 +125,11 @@ public class ModeExtractToImages extends Mode {
 			
 			ModeExtractToImages mode = new ModeExtractToImages(fromPageInt, toPageInt, imagePrefix);
 			if(!password.isEmpty()) mode.password = password;
-			//this handler displays dialogs from background exceptions
-			Thread.UncaughtExceptionHandler h = new Thread.UncaughtExceptionHandler() {
-			    @Override
-			    public void uncaughtException(Thread th, Throwable ex) {
-			        JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-			    }
-			};
-			
-			OperationThread opThread = new OperationThread(() -> {
-				try {
-					mode.execute(sourcePath, destPath);
-				} catch(InvalidPasswordException e) {
-					throw new RuntimeException("Password is incorrect for this PDF file!");
-				} catch (IOException e) {
-					throw new RuntimeException("The source or destination file could not be opened! Maybe they don't exist or this app does not have permission to read/write there.");
-				}
-			});
-			opThread.setUncaughtExceptionHandler(h);
-			opThread.start();
+			mode.format = format;
+			mode.binarization = binarization;
+			mode.multiPage = multiPage;
+			mode.archive = archive;
+			mode.executeInBackground(sourcePath, destPath);
 		} catch (NumberFormatException e) {
 			String fromInput = fromPage.isEmpty() ? "[EMPTY]" : fromPage;
 			String toInput = toPage.isEmpty() ? "[EMPTY]" : toPage;
@@ -182,45 +140,29 @@ public class ModeExtractToImages extends Mode {
 	/**
 	 * This method will attempt to extract the images using directly specified pages. If something goes wrong, a dialog will display the problem.
 	 * These parameters are not checked in any ways here!
-	 * @param csvPages The pages in a comma separated string, and are 1 based! for example 1,3,7,2. Can be in any order and can contain duplicates.
+	 * @param csvPages The pages in a comma separated string, and are 1 based! for example 1,3,7-9,2. Can be in any order and can contain duplicates. 
+	 * See {@link PageSet#parse(String)} for the format.
 	 * @param imagePrefix Prefix of generated images.
 	 * @param sourcePath Path of PDF file.
 	 * @param destPath Path of the images.
 	 * @param password Password for the source PDF file.
+	 * @param format Format of the images.
+	 * @param binarization Used if the format is black and white.
+	 * @param multiPage Write all pages into one file.
+	 * @param archive Write the images into a ZIP archive.
 	 */
-	public static void attemptImageExtraction(String csvPages, String imagePrefix, String sourcePath, String destPath, String password) {
+	public static void attemptImageExtraction(String csvPages, String imagePrefix, String sourcePath, String destPath, String password, 
+			ImageFormat format, Binarization binarization, boolean multiPage, boolean archive) {
 		try {
-			if(imagePrefix.isEmpty()) {
-				JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), "There must be an image prefix!", "Invalid prefix", JOptionPane.ERROR_MESSAGE);
-				return;
-			}
-			
-			List<Integer> pageNumbers = Arrays.asList(csvPages.split(",")).stream()
-					.map(p -> Integer.parseInt(p))
-					.collect(Collectors.toList()); //attempt to convert them into a valid int list
+			PageSet pages = PageSet.parse(csvPages); //attempt to convert them into a valid page selection
 			
-			ModeExtractToImages mode = new ModeExtractToImages(pageNumbers, imagePrefix);
+			ModeExtractToImages mode = new ModeExtractToImages(pages, imagePrefix);
 			if(!password.isEmpty()) mode.password = password;
-			
-			//this handler displays dialogs from background exceptions
-			Thread.UncaughtExceptionHandler h = new Thread.UncaughtExceptionHandler() {
-			    @Override
-			    public void uncaughtException(Thread th, Throwable ex) {
-			        JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-			    }
-			};
-			
-			OperationThread opThread = new OperationThread(() -> {
-				try {
-					mode.execute(sourcePath, destPath);
-				} catch(InvalidPasswordException e) {
-					throw new RuntimeException("Password is incorrect for this PDF file!");
-				} catch (IOException e) {
-					throw new RuntimeException("The source or destination file could not be opened! Maybe they don't exist or this app does not have permission to read/write there.");
-				}
-			});
-			opThread.setUncaughtExceptionHandler(h);
-			opThread.start();
+			mode.format = format;
+			mode.binarization = binarization;
+			mode.multiPage = multiPage;
+			mode.archive = archive;
+			mode.executeInBackground(sourcePath, destPath);
 		} catch (NumberFormatException e) {
 			String input = csvPages.isEmpty() ? "[EMPTY]" : csvPages;
 			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), input+" is not a valid page specifier! Use the page selector tool!","Invalid pages", JOptionPane.ERROR_MESSAGE);
@@ -0,0 +1,143 @@
+package com.gaspar.pdfutils.modes;
+
+import java.util.Locale;
+
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+import com.gaspar.pdfutils.OperationThread;
+import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.EngineResult;
+import com.gaspar.pdfutils.engine.ExtractToTextEngine;
+import com.gaspar.pdfutils.engine.ExtractToTextRequest;
+import com.gaspar.pdfutils.gui.ModeExtractToTextPanel;
+import com.gaspar.pdfutils.pages.PageSet;
+
+/**
+ * This mode extracts the plain text of the pages into a text file. The work is done by the {@link ExtractToTextEngine}.
+ * You can give a range of pages using {@link ModeExtractToText#ModeExtractToText(int, int, String)} or specify 
+ * individual pages using {@link ModeExtractToText#ModeExtractToText(PageSet, String)}.
+ * @author Gáspár Tamás
+ */
+public class ModeExtractToText extends Mode {
+
+	/**
+	 * This will be the name of the text file (may or may not contain the .txt extension).
+	 */
+	private final String name;
+	/**
+	 * Pages to be extracted. This is from the UI, so numbers are 1 based. May contain an open range, which is resolved 
+	 * when the document is opened.
+	 */
+	private final PageSet pages;
+	/**
+	 * Password for the PDF file. Null if no password is given. Must be set after object creation.
+	 */
+	private String password = null;
+	
+	/**
+	 * Contructor which specifies a page range. 
+	 * @param fromPage Start extract at this page.
+	 * @param toPage End extract at this page (inclusive).
+	 * @param name This will be the name of the text file (dont write .txt extension).
+	 */
+	public ModeExtractToText(int fromPage, int toPage, String name) {
+		this(PageSet.range(fromPage, toPage), name);
+	}
+
+	/**
+	 * Conostructor which specifies the pages to be extracted directly.
+	 * @param pages The selected pages. This is from the UI, so numbers are 1 based.
+	 * @param name This will be the name of the text file.
+	 */
+	public ModeExtractToText(PageSet pages, String name) {
+		super(Mode.MODE_EXTRACT_TO_TEXT);
+		this.pages = pages;
+		this.name = name;
+	}
+	
+	/**
+	 * A default constructor to create a mode object only for dislaying name 
+	 * and description. {@link #execute(String, String)} should not be called on this!
+	 */
+	public ModeExtractToText() {
+		this(PageSet.all(),"text");
+	}
+	
+	/**
+	 * Extracts the text of the specified pages into a single text file. This is run on an {@link OperationThread} in the background. 
+	 * Progress is reported to {@link #progressListener}. When it is done, a dialog shows the speed of the extraction.
+	 * @param sourcePdfPath The path of the selected pdf file.
+	 * @param destinationPath The path where the text file will be placed.
+	 * @throws EngineException When the input is invalid, the password is incorrect, or the source or destination cant be opened.
+	 */
+	@Override
+	public void execute(String sourcePdfPath, String destinationPath) throws EngineException {
+		final ExtractToTextRequest request = new ExtractToTextRequest(sourcePdfPath, destinationPath, pages, name);
+		request.setPassword(password);
+		final EngineResult result = new ExtractToTextEngine().execute(request, progressListener);
+		final String message = String.format(Locale.ROOT, "Extracted the text of %d pages in %.1f seconds (%.1f pages/s).", 
+				result.getPageCount(), result.getElapsedMillis() / 1000.0, result.getPagesPerSecond());
+		JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), message, "Text extracted", JOptionPane.INFORMATION_MESSAGE);
+	}
+	
+	/**
+	 * This method will attempt to extract the text using a page range. If something goes wrong, a dialog will display the problem.
+	 * These parameters are not checked in any ways here!
+	 * @param fromPage Start page as string.
+	 * @param toPage End page as string.
+	 * @param name Name of the text file.
+	 * @param sourcePath Path of PDF file.
+	 * @param destPath Path of the text file.
+	 * @param password Password for the PDF file.
+	 */
+	public static void attemptTextExtraction(String fromPage, String toPage, String name, String sourcePath, String destPath, String password) {
+		int fromPageInt, toPageInt;
+		try {
+			fromPageInt = Integer.parseInt(fromPage);
+			toPageInt = Integer.parseInt(toPage);
+			
+			ModeExtractToText mode = new ModeExtractToText(fromPageInt, toPageInt, name);
+			if(!password.isEmpty()) mode.password = password;
+			mode.executeInBackground(sourcePath, destPath);
+		} catch (NumberFormatException e) {
+			String fromInput = fromPage.isEmpty() ? "[EMPTY]" : fromPage;
+			String toInput = toPage.isEmpty() ? "[EMPTY]" : toPage;
+			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), fromInput+" and "+toInput+" is not a valid range of pages in this document!","Invalid pages", JOptionPane.ERROR_MESSAGE);
+		} 
+	}
+	
+	/**
+	 * This method will attempt to extract the text using directly specified page numbers. If something goes wrong, a dialog will display the problem.
+	 * These parameters are not checked in any ways here!
+	 * @param csvPages The pages in a comma separated string, and are 1 based! for example 1,3,7-9,2. Can be in any order and can contain duplicates. 
+	 * See {@link PageSet#parse(String)} for the format.
+	 * @param name Name of the text file.
+	 * @param sourcePath Path of PDF file.
+	 * @param destPath Path of the text file.
+	 * @param password Password for the PDF file.
+	 */
+	public static void attemptTextExtraction(String csvPages, String name, String sourcePath, String destPath, String password) {
+		try {
+			PageSet pages = PageSet.parse(csvPages); //attempt to convert them into a valid page selection
+			
+			ModeExtractToText mode = new ModeExtractToText(pages, name);
+			if(!password.isEmpty()) mode.password = password;
+			mode.executeInBackground(sourcePath, destPath);
+		} catch (NumberFormatException e) {
+			String input = csvPages.isEmpty() ? "[EMPTY]" : csvPages;
+			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), input+" is not a valid page specifier! Use the page selector tool!","Invalid pages", JOptionPane.ERROR_MESSAGE);
+		} 
+	}
+
+	@Override
+	public String getDescription() {
+		return "Extract the text of pages from a PDF file. The text will be saved into a single text file.";
+	}
+
+	@Override
+	public JPanel getModePanel() {
+		return new ModeExtractToTextPanel();
+	}
+}
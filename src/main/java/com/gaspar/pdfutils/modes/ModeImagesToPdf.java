@@ -1,37 +1,25 @@
 package com.gaspar.pdfutils.modes;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.List;
 
-import javax.swing.JOptionPane;
 import javax.swing.JPanel;
-import javax.swing.SwingUtilities;
-
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.common.PDRectangle;
-import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
-import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
-import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
-import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
 import com.gaspar.pdfutils.OperationThread;
-import com.gaspar.pdfutils.PdfUtilsMain;
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ImagesToPdfEngine;
+import com.gaspar.pdfutils.engine.ImagesToPdfRequest;
 import com.gaspar.pdfutils.gui.ModeImagesToPdfPanel;
-import com.gaspar.pdfutils.gui.RootPanel;
 
 /**
  * This mode combines images into a single pdf files, with each image as a page. This works best when 
- * the images are extracted PDF pages and they need to be recombined after some edits.
+ * the images are extracted PDF pages and they need to be recombined after some edits. The work is done by 
+ * the {@link ImagesToPdfEngine}.
  * <p>
  * The following image formats are supported: JPG, JPEG, TIF, TIFF, GIF, BMP and PNG.
  * @author Gáspár Tamás
  */
 public class ModeImagesToPdf extends Mode {
-	
-	public static final String[] SUPPORTED_FORMATS = {"jpg","jpeg","tif","tiff","gif","bmp","png"};
 
 	/**
 	 * Name of the resulting PDF file. May or may not contain the '.pdf' extension.
@@ -66,83 +54,31 @@ public class ModeImagesToPdf extends Mode {
 	}
 	
 	/**
-	 * Combines images into a PDF file. This is run on an {@link OperationThread} in the background, so 
-	 * changes to the GUI must be made with {@link SwingUtilities#invokeLater(Runnable)}.
+	 * Combines images into a PDF file. This is run on an {@link OperationThread} in the background. 
+	 * Progress is reported to {@link #progressListener}, saving is reported in bytes.
 	 * @param sourcePath For this mode, this parameter is ignored, since the images may be in multiple folders, and their path is 
 	 * already specified in {@link #images} file array. 
 	 * @param destinationPath The path where the new PDF will be placed.
-	 * @throws IOException When the source or destination cant be opened.
+	 * @throws EngineException When the input is invalid, or the source or destination cant be opened.
 	 */
 	@Override
-	public void execute(String sourcePath, String destinationPath) throws IOException {
-		try(PDDocument combined = new PDDocument()) {
-			SwingUtilities.invokeLater(() -> RootPanel.getInstance().updateOperationProgress(0)); //show 0 progress
-			
-			//handle the encryption if needed
-			if(password != null) {
-				int keyLength = 128;
-				AccessPermission ap = new AccessPermission();
-				StandardProtectionPolicy spp = new StandardProtectionPolicy(password, password, ap);
-				spp.setEncryptionKeyLength(keyLength);
-				spp.setPermissions(ap);
-				combined.protect(spp);
-			}
-			int counter = 0;
-			for(File image: images) {
-				 final PDPage page = new PDPage();
-		         combined.addPage(page);
-		         final PDRectangle mediaBox = page.getMediaBox();
-		         final PDImageXObject pdImage = PDImageXObject.createFromFile(image.getPath(), combined);
-		         
-		         try(PDPageContentStream contents = new PDPageContentStream(combined, page)) {
-		        	 contents.drawImage(pdImage, 0, 0, mediaBox.getWidth(), mediaBox.getHeight());
-		         }
-		         //update operation progress on GUI
-	             final int newPercent = (int)(100*(Double.valueOf(counter++)/images.size()));
-	             SwingUtilities.invokeLater(() -> RootPanel.getInstance().updateOperationProgress(newPercent));
-			}
-			//create name and save
-			String nameWithExtension = name.endsWith(".pdf") ? name : name+".pdf";
-			combined.save(new File(destinationPath + "/" + nameWithExtension));
-		}
+	public void execute(String sourcePath, String destinationPath) throws EngineException {
+		final ImagesToPdfRequest request = new ImagesToPdfRequest(images, destinationPath, name);
+		request.setPassword(password);
+		new ImagesToPdfEngine().execute(request, progressListener);
 	}
 	
 	/**
-	 * Attempts to combine the images into a PDF file.
+	 * Attempts to combine the images into a PDF file. If something goes wrong, a dialog will display the problem.
 	 * @param destPath The folder where the new PDF will be places.
 	 * @param name Name of the resulting PDF.
 	 * @param images File objects for each image to be included.
 	 * @param password Password for the new PDF.
 	 */
 	public static void attemptImageCombination(String destPath, String name, final List<File> images, String password) {
-		if(name.isEmpty()) {
-			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), "You must specify a name for the PDF file!","Invalid name",JOptionPane.ERROR_MESSAGE);
-			return;
-		}
-		if(images.size() == 0) {
-			JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), "You must select at least one image!","No images",JOptionPane.ERROR_MESSAGE);
-			return;
-		}
 		final ModeImagesToPdf mode = new ModeImagesToPdf(name, images);
 		if(!password.isEmpty()) mode.password = password;
-		//this handler displays dialogs from background exceptions
-		Thread.UncaughtExceptionHandler h = new Thread.UncaughtExceptionHandler() {
-		    @Override
-		    public void uncaughtException(Thread th, Throwable ex) {
-		        JOptionPane.showMessageDialog(PdfUtilsMain.getFrame(), ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-		    }
-		};
-		OperationThread opThread = new OperationThread(() -> {
-			try {
-				mode.execute("", destPath); //this mode ignores source path parameter
-			} catch(InvalidPasswordException e) {
-				throw new RuntimeException("Password is incorrect for this PDF file!");
-			} catch (IOException e) {
-				throw new RuntimeException("The source or destination files could not be opened! Maybe they don't exist or this app does not have permission to read/write there.");
-			}
-		});
-		opThread.setUncaughtExceptionHandler(h);
-		opThread.start();
+		mode.executeInBackground("", destPath); //this mode ignores source path parameter
 	}
 
 	@Override
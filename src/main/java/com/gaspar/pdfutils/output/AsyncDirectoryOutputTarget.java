@@ -0,0 +1,447 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * A {@link DirectoryOutputTarget} that writes the files on a background thread, so the thread that renders and encodes
+ * the images does not wait for the disk. Entry streams fill large direct buffers, and full buffers are passed to the
+ * writer thread, which writes them with a {@link FileChannel}. Only a few buffers can wait for writing: if the disk
+ * is slower than the encoding, the encoding thread waits for a free place.
+ * <p>
+ * Files are written under a temporary name and renamed when they are complete, like in the parent class. Optionally the
+ * files are also synced to the disk before they are renamed, in batches, so a crash never leaves an incomplete file
+ * with the final name.
+ * <p>
+ * Image entries ({@link #openImageEntry(String)}) need random access, so they are written on the calling thread, but they
+ * are renamed in order with the other entries. Entries must be written by one thread at a time.
+ * @author Gáspár Tamás
+ */
+public class AsyncDirectoryOutputTarget extends DirectoryOutputTarget {
+
+	/**
+	 * System property with the default sync batch size, see {@link #setSyncBatchSize(int)}.
+	 */
+	public static final String SYNC_BATCH_PROPERTY = "pdfutils.syncBatch";
+	/**
+	 * Size of a buffer.
+	 */
+	public static final int BUFFER_BYTES = 1024 * 1024;
+	/**
+	 * Maximum amount of buffers waiting for the writer thread.
+	 */
+	public static final int QUEUED_BUFFERS = 8;
+
+	/**
+	 * Types of the commands of the writer thread.
+	 */
+	private static final int OPEN = 0, DATA = 1, FINISH = 2, END = 3, ABORT = 4;
+	/**
+	 * Counts the writer threads, for their names.
+	 */
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+
+	/**
+	 * Commands for the writer thread, in the order they were given.
+	 */
+	private final BlockingQueue<Command> queue = new ArrayBlockingQueue<>(QUEUED_BUFFERS);
+	/**
+	 * Written buffers, which can be filled again. Every buffer fits in here: the queued ones, one at the writer and one
+	 * at the entry stream.
+	 */
+	private final BlockingQueue<ByteBuffer> freeBuffers = new ArrayBlockingQueue<>(QUEUED_BUFFERS + 2);
+	/**
+	 * Amount of complete files that are synced and renamed together. 0 means that files are not synced.
+	 */
+	private int syncBatchSize = Integer.getInteger(SYNC_BATCH_PROPERTY, 0);
+	/**
+	 * The writer thread, started when the first entry is opened.
+	 */
+	private Thread writer;
+	/**
+	 * The first error of the writer thread, null if there was none.
+	 */
+	private volatile IOException failure;
+	/**
+	 * True if the target is closed or aborted.
+	 */
+	private boolean closed = false;
+
+	public AsyncDirectoryOutputTarget(File directory) {
+		super(directory);
+	}
+
+	/**
+	 * Sets if the files are synced to the disk before they are renamed. Syncing each file separately is slow, so they
+	 * are synced in batches: the files of a batch are synced, then renamed, then the folder is synced. Must be set
+	 * before the first entry is opened.
+	 * @param syncBatchSize Amount of files in a batch. 0 disables syncing, which is the default, unless the
+	 * {@value #SYNC_BATCH_PROPERTY} system property sets something else.
+	 */
+	public void setSyncBatchSize(int syncBatchSize) {
+		if(syncBatchSize < 0) throw new IllegalArgumentException("Batch size can't be negative!");
+		this.syncBatchSize = syncBatchSize;
+	}
+
+	@Override
+	public OutputStream openEntry(String name) throws IOException {
+		final Entry entry = new Entry(tempFile(name).toPath(), new File(getDirectory(), name).toPath(), false);
+		send(new Command(OPEN, entry, null));
+		return new EntryStream(entry);
+	}
+
+	@Override
+	public ImageOutputStream openImageEntry(String name) throws IOException {
+		final Entry entry = new Entry(tempFile(name).toPath(), new File(getDirectory(), name).toPath(), true);
+		send(new Command(OPEN, entry, null));
+		return new FileImageOutputStream(entry.temp.toFile()) {
+			@Override
+			public void close() throws IOException {
+				super.close();
+				send(new Command(FINISH, entry, null));
+			}
+		};
+	}
+
+	/**
+	 * Waits until every file is written and renamed. Does nothing if the target is already closed.
+	 * @throws IOException If a file could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		if(writer == null || closed) return; //nothing was written, or already closed
+		closed = true;
+		stopWriter(END);
+		if(failure != null) throw new IOException(failure.getMessage(), failure);
+	}
+
+	/**
+	 * Waits until every file is written, and deletes the last one, which may be incomplete.
+	 */
+	@Override
+	public void abort() {
+		if(writer == null || closed) return;
+		closed = true;
+		stopWriter(ABORT);
+	}
+
+	/**
+	 * Gives the last command to the writer thread and waits until it stops. This is not interrupted, because the
+	 * writer thread must stop in any case. The interrupt status of this thread is restored after.
+	 * @param type {@link #END} or {@link #ABORT}.
+	 */
+	private void stopWriter(int type) {
+		boolean interrupted = false;
+		while(true) { //the writer is always taking commands, so this does not wait long
+			try {
+				queue.put(new Command(type, null, null));
+				break;
+			} catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		while(writer.isAlive()) {
+			try {
+				writer.join();
+			} catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if(interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Gives a command to the writer thread. Waits if the queue is full.
+	 * @param command The command.
+	 * @throws IOException If the writer already failed, or this thread was interrupted.
+	 */
+	private void send(Command command) throws IOException {
+		if(failure != null) throw new IOException(failure.getMessage(), failure);
+		if(writer == null) {
+			writer = new Thread(this::write, "pdfutils-writer-" + THREAD_COUNTER.getAndIncrement());
+			writer.setDaemon(true);
+			writer.start();
+		}
+		try {
+			queue.put(command);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the disk");
+		}
+	}
+
+	/**
+	 * Body of the writer thread. Executes the commands until the target is closed or aborted. After an error, the
+	 * commands are only taken from the queue, so the entry streams never wait for a stopped writer.
+	 */
+	private void write() {
+		final List<Entry> complete = new ArrayList<>(); //known to be complete, but not yet renamed
+		Entry last = null; //closed, but may be incomplete
+		Entry open = null;
+		try {
+			while(true) {
+				final Command command = queue.take();
+				if(failure != null) {
+					if(command.type == END || command.type == ABORT) return;
+					recycle(command.data);
+					continue;
+				}
+				try {
+					switch(command.type) {
+					case OPEN: //the previous entry is complete, because the next one is started
+						if(last != null) complete.add(last);
+						last = null;
+						if(complete.size() >= Math.max(1, syncBatchSize)) commit(complete);
+						open = command.entry;
+						if(!open.image) {
+							open.channel = FileChannel.open(open.temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+						}
+						break;
+					case DATA:
+						while(command.data.hasRemaining()) command.entry.channel.write(command.data);
+						recycle(command.data);
+						break;
+					case FINISH:
+						if(syncBatchSize == 0) command.entry.closeChannel(); //there is no need to keep it
+						last = command.entry;
+						open = null;
+						break;
+					case END:
+						if(last != null) complete.add(last);
+						commit(complete);
+						return;
+					case ABORT:
+						discard(last);
+						discard(open);
+						commit(complete);
+						return;
+					default: //not possible
+						break;
+					}
+				} catch(IOException e) {
+					failure = e;
+					for(Entry entry: complete) discard(entry);
+					complete.clear();
+					discard(last);
+					discard(open);
+					if(command.type == END || command.type == ABORT) return; //nothing else is sent
+				}
+			}
+		} catch(InterruptedException e) { //the daemon thread is only interrupted if the program stops
+			failure = new InterruptedIOException("Writer thread interrupted");
+		}
+	}
+
+	/**
+	 * Renames complete entries. If syncing is enabled, the files are synced first, and the folder is synced after the
+	 * files are renamed. Then the commit listener is notified.
+	 * @param entries The entries, cleared after they are renamed.
+	 * @throws IOException If a file could not be synced or renamed, or the listener failed.
+	 */
+	private void commit(List<Entry> entries) throws IOException {
+		if(entries.isEmpty()) return;
+		if(syncBatchSize > 0) {
+			for(Entry entry: entries) {
+				if(entry.channel == null) entry.channel = FileChannel.open(entry.temp, StandardOpenOption.WRITE); //image entries
+				entry.channel.force(true);
+				entry.closeChannel();
+			}
+		}
+		final List<String> names = new ArrayList<>(entries.size());
+		for(Entry entry: entries) {
+			commit(entry.temp, entry.target);
+			names.add(entry.target.getFileName().toString());
+		}
+		entries.clear();
+		if(syncBatchSize > 0) syncDirectory(getDirectory().toPath());
+		notifyCommitted(names, syncBatchSize > 0);
+	}
+
+	/**
+	 * Syncs a folder, so renamed files keep their new name after a crash. Not every system can open folders, there
+	 * the renames are not synced.
+	 * @param directory The folder.
+	 */
+	private static void syncDirectory(Path directory) {
+		try(FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch(IOException e) {
+			//for example on Windows
+		}
+	}
+
+	/**
+	 * Deletes the temporary file of an entry.
+	 * @param entry The entry, may be null.
+	 */
+	private static void discard(Entry entry) {
+		if(entry == null) return;
+		try {
+			entry.closeChannel();
+			Files.deleteIfExists(entry.temp);
+		} catch(IOException e) {
+			//a temporary file is left behind, but it is hidden
+		}
+	}
+
+	/**
+	 * @return An empty buffer.
+	 */
+	private ByteBuffer takeBuffer() {
+		final ByteBuffer buffer = freeBuffers.poll();
+		return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_BYTES);
+	}
+
+	/**
+	 * Makes a buffer available for filling again.
+	 * @param buffer The buffer, may be null.
+	 */
+	private void recycle(ByteBuffer buffer) {
+		if(buffer == null) return;
+		buffer.clear();
+		freeBuffers.offer(buffer);
+	}
+
+	/**
+	 * A file that is being written.
+	 */
+	private static class Entry {
+
+		/**
+		 * The file is written here.
+		 */
+		private final Path temp;
+		/**
+		 * The final name of the file.
+		 */
+		private final Path target;
+		/**
+		 * True if the file is written by an image writer on the calling thread.
+		 */
+		private final boolean image;
+		/**
+		 * The open file. Only used by the writer thread.
+		 */
+		private FileChannel channel;
+
+		private Entry(Path temp, Path target, boolean image) {
+			this.temp = temp;
+			this.target = target;
+			this.image = image;
+		}
+
+		private void closeChannel() throws IOException {
+			if(channel != null) channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * An instruction for the writer thread.
+	 */
+	private static class Command {
+
+		/**
+		 * One of the command constants.
+		 */
+		private final int type;
+		/**
+		 * The entry, null for {@link AsyncDirectoryOutputTarget#END} and {@link AsyncDirectoryOutputTarget#ABORT}.
+		 */
+		private final Entry entry;
+		/**
+		 * The data to be written, only for {@link AsyncDirectoryOutputTarget#DATA}.
+		 */
+		private final ByteBuffer data;
+
+		private Command(int type, Entry entry, ByteBuffer data) {
+			this.type = type;
+			this.entry = entry;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Fills buffers with the data of an entry, and passes them to the writer thread.
+	 */
+	private class EntryStream extends OutputStream {
+
+		/**
+		 * The entry.
+		 */
+		private final Entry entry;
+		/**
+		 * The buffer being filled, null if there is none.
+		 */
+		private ByteBuffer buffer;
+		/**
+		 * True if the stream is closed.
+		 */
+		private boolean closed = false;
+
+		private EntryStream(Entry entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if(buffer == null) buffer = takeBuffer();
+			buffer.put((byte)b);
+			if(!buffer.hasRemaining()) sendBuffer();
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			while(len > 0) {
+				if(buffer == null) buffer = takeBuffer();
+				final int count = Math.min(len, buffer.remaining());
+				buffer.put(b, off, count);
+				off += count;
+				len -= count;
+				if(!buffer.hasRemaining()) sendBuffer();
+			}
+		}
+
+		/**
+		 * Passes the data to the writer thread, even if the buffer is not full.
+		 */
+		@Override
+		public void flush() throws IOException {
+			if(buffer != null && buffer.position() > 0) sendBuffer();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(closed) return;
+			closed = true;
+			flush();
+			send(new Command(FINISH, entry, null));
+		}
+
+		/**
+		 * Passes the current buffer to the writer thread.
+		 * @throws IOException If the writer failed.
+		 */
+		private void sendBuffer() throws IOException {
+			buffer.flip();
+			final ByteBuffer data = buffer;
+			buffer = null;
+			send(new Command(DATA, entry, data));
+		}
+	}
+}
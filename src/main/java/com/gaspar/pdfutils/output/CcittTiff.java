@@ -0,0 +1,77 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Wraps CCITT Group 4 (T.6) data, as it is stored in PDF files, into a single strip TIFF file. The data is not
+ * decoded, only a TIFF header is written in front of it.
+ * @author Gáspár Tamás
+ */
+public abstract class CcittTiff {
+
+	/**
+	 * TIFF tags, in the ascending order they must have in the directory.
+	 */
+	private static final short IMAGE_WIDTH = 256, IMAGE_LENGTH = 257, BITS_PER_SAMPLE = 258, COMPRESSION = 259,
+			PHOTOMETRIC = 262, STRIP_OFFSETS = 273, SAMPLES_PER_PIXEL = 277, ROWS_PER_STRIP = 278, STRIP_BYTE_COUNTS = 279,
+			T6_OPTIONS = 293;
+	/**
+	 * Types of the values in the directory.
+	 */
+	private static final short SHORT = 3, LONG = 4;
+	/**
+	 * Amount of entries in the directory.
+	 */
+	private static final int ENTRIES = 10;
+	/**
+	 * Size of the header and the directory, the data starts here.
+	 */
+	private static final int DATA_OFFSET = 8 + 2 + ENTRIES * 12 + 4;
+
+	/**
+	 * Writes a TIFF file.
+	 * @param data The encoded image.
+	 * @param width Width of the image, the <i>Columns</i> of the PDF filter.
+	 * @param height Height of the image.
+	 * @param blackIsZero If true, the decoded 0 bits are shown as black, otherwise as white, which is normal for fax images.
+	 * @param out The file is written here. It is not closed.
+	 * @throws IOException If writing failed.
+	 */
+	public static void write(byte[] data, int width, int height, boolean blackIsZero, OutputStream out) throws IOException {
+		final ByteBuffer header = ByteBuffer.allocate(DATA_OFFSET).order(ByteOrder.LITTLE_ENDIAN);
+		header.put((byte)'I').put((byte)'I').putShort((short)42).putInt(8); //the directory follows the header
+		header.putShort((short)ENTRIES);
+		putEntry(header, IMAGE_WIDTH, LONG, width);
+		putEntry(header, IMAGE_LENGTH, LONG, height);
+		putEntry(header, BITS_PER_SAMPLE, SHORT, 1);
+		putEntry(header, COMPRESSION, SHORT, 4); //CCITT T.6
+		putEntry(header, PHOTOMETRIC, SHORT, blackIsZero ? 1 : 0);
+		putEntry(header, STRIP_OFFSETS, LONG, DATA_OFFSET);
+		putEntry(header, SAMPLES_PER_PIXEL, SHORT, 1);
+		putEntry(header, ROWS_PER_STRIP, LONG, height);
+		putEntry(header, STRIP_BYTE_COUNTS, LONG, data.length);
+		putEntry(header, T6_OPTIONS, LONG, 0);
+		header.putInt(0); //no more directories
+		out.write(header.array());
+		out.write(data);
+	}
+
+	/**
+	 * Adds an entry to the directory. The value is stored in the entry itself.
+	 * @param buffer The directory.
+	 * @param tag Tag of the entry.
+	 * @param type Type of the value.
+	 * @param value The value.
+	 */
+	private static void putEntry(ByteBuffer buffer, short tag, short type, int value) {
+		buffer.putShort(tag).putShort(type).putInt(1);
+		if(type == SHORT) {
+			buffer.putShort((short)value).putShort((short)0); //left justified in the 4 bytes
+		} else {
+			buffer.putInt(value);
+		}
+	}
+}
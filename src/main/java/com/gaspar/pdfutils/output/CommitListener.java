@@ -0,0 +1,20 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Notified when entries of a {@link DirectoryOutputTarget} get their final names, so they are known to be complete.
+ * @author Gáspár Tamás
+ */
+@FunctionalInterface
+public interface CommitListener {
+
+	/**
+	 * Called after entries were renamed. The {@link AsyncDirectoryOutputTarget} calls this on its writer thread.
+	 * @param names Names of the entries, in the order they were written.
+	 * @param synced True if the files and their names were synced to the disk.
+	 * @throws IOException If the listener fails. This fails the target, like a failed write.
+	 */
+	void committed(List<String> names, boolean synced) throws IOException;
+}
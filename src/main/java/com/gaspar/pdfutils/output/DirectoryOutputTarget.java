@@ -0,0 +1,156 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Writes each entry into a separate file in a folder. An entry is written into a hidden temporary file, which is
+ * renamed when the entry is known to be complete, so other programs never see partially written files.
+ * <p>
+ * Entries are closed even if writing them failed, so closing an entry does not mean that it is complete. An entry is
+ * renamed when the next entry is opened, or when the target is closed. If the target is {@link #abort() aborted}
+ * instead, the last entry is deleted.
+ * @author Gáspár Tamás
+ * @see AsyncDirectoryOutputTarget
+ */
+public class DirectoryOutputTarget implements OutputTarget {
+
+	/**
+	 * Entries are written into this folder.
+	 */
+	private final File directory;
+	/**
+	 * Temporary file of the last entry, null if there is none, or it is already renamed.
+	 */
+	private File lastTemp;
+	/**
+	 * The final name of the last entry.
+	 */
+	private File lastFile;
+	/**
+	 * Notified when entries are renamed, null if there is no listener.
+	 */
+	private CommitListener commitListener;
+
+	public DirectoryOutputTarget(File directory) {
+		this.directory = directory;
+	}
+
+	@Override
+	public OutputStream openEntry(String name) throws IOException {
+		commitLast();
+		final File temp = startEntry(name);
+		return new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024);
+	}
+
+	/**
+	 * Image writers can seek in the file, so nothing is kept in memory.
+	 */
+	@Override
+	public ImageOutputStream openImageEntry(String name) throws IOException {
+		commitLast();
+		return new FileImageOutputStream(startEntry(name));
+	}
+
+	/**
+	 * Renames the last entry.
+	 */
+	@Override
+	public void close() throws IOException {
+		commitLast();
+	}
+
+	/**
+	 * Deletes the last entry, which may be incomplete.
+	 */
+	@Override
+	public void abort() {
+		if(lastTemp != null) lastTemp.delete();
+		lastTemp = null;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Sets the listener that is notified when entries are renamed. Must be set before the first entry is opened.
+	 * @param commitListener The listener, null to remove it.
+	 */
+	public void setCommitListener(CommitListener commitListener) {
+		this.commitListener = commitListener;
+	}
+
+	/**
+	 * Notifies the listener about renamed entries, if there is a listener.
+	 * @param names Names of the entries.
+	 * @param synced True if the files were synced to the disk.
+	 * @throws IOException If the listener failed.
+	 */
+	protected void notifyCommitted(List<String> names, boolean synced) throws IOException {
+		if(commitListener != null) commitListener.committed(names, synced);
+	}
+
+	/**
+	 * Creates the temporary file of a new entry.
+	 * @param name Name of the entry.
+	 * @return The temporary file.
+	 * @throws IOException If the file can't be created.
+	 */
+	private File startEntry(String name) throws IOException {
+		lastTemp = tempFile(name);
+		lastFile = new File(directory, name);
+		return lastTemp;
+	}
+
+	/**
+	 * Renames the last entry, if there is one.
+	 * @throws IOException If the file can't be renamed.
+	 */
+	private void commitLast() throws IOException {
+		if(lastTemp == null) return;
+		final File temp = lastTemp;
+		lastTemp = null;
+		commit(temp.toPath(), lastFile.toPath());
+		notifyCommitted(Collections.singletonList(lastFile.getName()), false);
+	}
+
+	/**
+	 * Finds the temporary file for an entry, in the folder of the entries, so it can be renamed atomically. It is
+	 * hidden on most systems.
+	 * @param name Name of the entry.
+	 * @return The file, which does not exist.
+	 * @throws IOException If an old temporary file can't be deleted.
+	 */
+	protected File tempFile(String name) throws IOException {
+		final File temp = new File(directory, "." + name + ".part");
+		if(temp.exists() && !temp.delete()) throw new IOException("Can't overwrite " + temp); //random access files are not truncated
+		return temp;
+	}
+
+	/**
+	 * Makes a complete entry visible by renaming its temporary file. The rename is atomic if the file system supports it.
+	 * @param temp The temporary file.
+	 * @param target The final file, it is replaced if it exists.
+	 * @throws IOException If the file can't be renamed.
+	 */
+	protected static void commit(Path temp, Path target) throws IOException {
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch(AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.gaspar.pdfutils.output;
+
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Encodes images into streams. Unlike {@link ImageIO#write(RenderedImage, String, OutputStream)}, this never caches 
+ * the encoded image in a temporary file, the stream is written directly.
+ * @author Gáspár Tamás
+ */
+public abstract class ImageEncoder {
+
+	/**
+	 * Encodes an image with the default settings of the format.
+	 * @param image The image.
+	 * @param formatName Informal name of the format, for example <i>png</i>.
+	 * @param out The encoded image is written here. It is not closed.
+	 * @throws IOException If there is no writer for the format, or writing failed.
+	 */
+	public static void write(RenderedImage image, String formatName, OutputStream out) throws IOException {
+		final ImageWriter writer = getWriter(formatName);
+		try(ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+			writer.setOutput(ios);
+			writer.write(image);
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	/**
+	 * Encodes an image in one of the formats of the program, with its compression.
+	 * @param image The image. Bilevel formats need a {@link java.awt.image.BufferedImage#TYPE_BYTE_BINARY} image.
+	 * @param format The format.
+	 * @param out The encoded image is written here. It is not closed.
+	 * @throws IOException If there is no writer for the format, or writing failed.
+	 */
+	public static void write(RenderedImage image, ImageFormat format, OutputStream out) throws IOException {
+		final ImageWriter writer = getWriter(format.getFormatName());
+		try {
+			write(image, writer, createParam(writer, format), out);
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	/**
+	 * Creates the settings of a writer for a format.
+	 * @param writer The writer.
+	 * @param format The format.
+	 * @return The settings, with the compression of the format.
+	 */
+	public static ImageWriteParam createParam(ImageWriter writer, ImageFormat format) {
+		final ImageWriteParam param = writer.getDefaultWriteParam();
+		if(format.getCompressionType() != null) {
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionType(format.getCompressionType());
+		}
+		return param;
+	}
+
+	/**
+	 * Encodes an image with custom settings, for example compression.
+	 * @param image The image.
+	 * @param writer The writer to use, with the format already selected. It is not disposed.
+	 * @param param Settings of the writer, created with {@link ImageWriter#getDefaultWriteParam()}.
+	 * @param out The encoded image is written here. It is not closed.
+	 * @throws IOException If writing failed.
+	 */
+	public static void write(RenderedImage image, ImageWriter writer, ImageWriteParam param, OutputStream out) throws IOException {
+		try(ImageOutputStream ios = new MemoryCacheImageOutputStream(out)) {
+			writer.setOutput(ios);
+			writer.write(null, new IIOImage(image, null, null), param);
+		}
+	}
+
+	/**
+	 * Finds an image writer.
+	 * @param formatName Informal name of the format, for example <i>png</i>.
+	 * @return The writer, must be disposed by the caller.
+	 * @throws IOException If this JVM has no writer for the format.
+	 */
+	public static ImageWriter getWriter(String formatName) throws IOException {
+		final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+		if(!writers.hasNext()) { //TIFF writers are only part of the JDK since Java 9
+			throw new IOException("No image writer is available for " + formatName + " format! Update Java to a newer version.");
+		}
+		return writers.next();
+	}
+}
@@ -0,0 +1,91 @@
+package com.gaspar.pdfutils.output;
+
+/**
+ * Formats of the images created from pages.
+ * @author Gáspár Tamás
+ */
+public enum ImageFormat {
+
+	/**
+	 * Color PNG, lossless. This is the default.
+	 */
+	PNG("PNG (color)", "png", "png", null, false),
+	/**
+	 * Color TIFF with lossless LZW compression. Mostly useful for multi-page files.
+	 */
+	TIFF_LZW("TIFF (color)", "tiff", "tif", "LZW", false),
+	/**
+	 * Color JPEG, lossy. Scanned pages that are already JPEG images are saved without encoding them again.
+	 */
+	JPEG("JPEG (color)", "jpeg", "jpg", null, false),
+	/**
+	 * Black and white TIFF with CCITT Group 4 compression, the usual format of scanned documents. Pages are 
+	 * rendered as bilevel images, which need a fraction of the memory and disk space of color images.
+	 */
+	TIFF_G4("TIFF G4 (black and white)", "tiff", "tif", "CCITT T.6", true);
+
+	/**
+	 * Shown to the user.
+	 */
+	private final String displayName;
+	/**
+	 * Informal name of the format for ImageIO.
+	 */
+	private final String formatName;
+	/**
+	 * Extension of the created files.
+	 */
+	private final String extension;
+	/**
+	 * Compression type of the image writer, null for the default.
+	 */
+	private final String compressionType;
+	/**
+	 * True if the pages must be rendered as black and white images.
+	 */
+	private final boolean bilevel;
+
+	private ImageFormat(String displayName, String formatName, String extension, String compressionType, boolean bilevel) {
+		this.displayName = displayName;
+		this.formatName = formatName;
+		this.extension = extension;
+		this.compressionType = compressionType;
+		this.bilevel = bilevel;
+	}
+
+	public String getFormatName() {
+		return formatName;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	public String getCompressionType() {
+		return compressionType;
+	}
+
+	public boolean isBilevel() {
+		return bilevel;
+	}
+
+	/**
+	 * @return True if many pages can be written into one file of this format.
+	 */
+	public boolean isMultiPage() {
+		return formatName.equals("tiff");
+	}
+
+	/**
+	 * @return True if the image writer of the format reads the image strip by strip, so a large page can be rendered 
+	 * while it is encoded. The JPEG writer of ImageIO reads the whole image at once.
+	 */
+	public boolean isWrittenInStrips() {
+		return !formatName.equals("jpeg");
+	}
+
+	@Override
+	public String toString() {
+		return displayName;
+	}
+}
@@ -0,0 +1,72 @@
+package com.gaspar.pdfutils.output;
+
+import java.awt.image.RenderedImage;
+import java.io.Closeable;
+import java.io.IOException;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Writes images into a single multi-page file, such as a multi-page TIFF, one after the other. Each image is encoded 
+ * when it is appended, so it does not have to be kept after that.
+ * @author Gáspár Tamás
+ */
+public class MultiPageImageWriter implements Closeable {
+
+	/**
+	 * The image writer, in sequence mode.
+	 */
+	private final ImageWriter writer;
+	/**
+	 * Settings of the writer, such as compression.
+	 */
+	private final ImageWriteParam param;
+	/**
+	 * The entry of the file.
+	 */
+	private final ImageOutputStream stream;
+
+	/**
+	 * Creates the file and starts the sequence.
+	 * @param output The file is an entry of this.
+	 * @param name Name of the file.
+	 * @param format Format of the file. Must be a multi-page format.
+	 * @throws IOException If the file can't be created, or the format does not support multiple pages.
+	 */
+	public MultiPageImageWriter(OutputTarget output, String name, ImageFormat format) throws IOException {
+		writer = ImageEncoder.getWriter(format.getFormatName());
+		if(!format.isMultiPage() || !writer.canWriteSequence()) {
+			writer.dispose();
+			throw new IOException(format + " images can't be written into a single file!");
+		}
+		param = ImageEncoder.createParam(writer, format);
+		stream = output.openImageEntry(name);
+		writer.setOutput(stream);
+		writer.prepareWriteSequence(null);
+	}
+
+	/**
+	 * Encodes an image as the next page of the file.
+	 * @param image The image.
+	 * @throws IOException If writing failed.
+	 */
+	public void append(RenderedImage image) throws IOException {
+		writer.writeToSequence(new IIOImage(image, null, null), param);
+	}
+
+	/**
+	 * Ends the sequence and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			writer.endWriteSequence();
+		} finally {
+			writer.dispose();
+			stream.close();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.FileCacheImageOutputStream;
+
+/**
+ * Destination of the files created by the engines. A target can be a folder, an archive or a single stream, such as 
+ * an HTTP response. Files are written one after the other, as named entries.
+ * <p>
+ * Closing the target finishes it (for example writes the end of an archive). It does not close streams that were 
+ * given to the target from the outside. If the operation failed, {@link #abort()} is called instead.
+ * @author Gáspár Tamás
+ */
+public interface OutputTarget extends Closeable {
+
+	/**
+	 * Starts a new entry. The returned stream must be closed before the next entry is opened.
+	 * @param name Name of the entry, for example <i>img_1.png</i>.
+	 * @return Stream where the content of the entry can be written.
+	 * @throws IOException If the entry can't be created.
+	 */
+	OutputStream openEntry(String name) throws IOException;
+
+	/**
+	 * Starts a new entry for an image writer. Some writers, such as the multi-page TIFF writer, seek back to 
+	 * earlier positions, so by default the written data is cached in a temporary file until the stream is closed. 
+	 * Targets backed by files should override this to seek in the file instead. The returned stream must be closed 
+	 * before the next entry is opened, which also closes the entry.
+	 * @param name Name of the entry, for example <i>pages.tif</i>.
+	 * @return Stream for an image writer.
+	 * @throws IOException If the entry or the cache can't be created.
+	 */
+	default ImageOutputStream openImageEntry(String name) throws IOException {
+		final OutputStream entry = openEntry(name);
+		//a memory cache would hold the whole file, which can be gigabytes for long documents
+		return new FileCacheImageOutputStream(entry, null) {
+			@Override
+			public void close() throws IOException {
+				super.close(); //writes the cached data, but does not close the entry
+				entry.close();
+			}
+		};
+	}
+
+	/**
+	 * Closes the target after an operation failed. Targets that can, discard the entry that was written last, because it 
+	 * may be incomplete. By default this is the same as {@link #close()}.
+	 * @throws IOException If the target can't be closed.
+	 */
+	default void abort() throws IOException {
+		close();
+	}
+}
@@ -0,0 +1,48 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a single entry into a stream, for example a PDF into an HTTP response. The name of the entry is ignored. 
+ * The stream is not closed, not even when the target is closed.
+ * @author Gáspár Tamás
+ */
+public class StreamOutputTarget implements OutputTarget {
+
+	/**
+	 * The entry is written here.
+	 */
+	private final OutputStream out;
+	/**
+	 * Stores if the single entry was already opened.
+	 */
+	private boolean opened;
+
+	public StreamOutputTarget(OutputStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public OutputStream openEntry(String name) throws IOException {
+		if(opened) throw new IOException("Only a single entry can be written into a stream!");
+		opened = true;
+		return new FilterOutputStream(out) {
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+			}
+
+			@Override
+			public void close() throws IOException {
+				out.flush(); //the stream belongs to someone else
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.flush();
+	}
+}
@@ -0,0 +1,253 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the entries into a single ZIP archive, as they are produced. Closing the target writes the end of the
+ * archive, but does not close the underlying stream.
+ * <p>
+ * An entry is only completed in the archive when the next entry is opened or the target is closed, because closing the 
+ * stream of an entry does not mean that it was written successfully. If the operation fails, {@link #abort()} discards 
+ * the last entry and leaves the archive without its end, so a partial result is never a valid archive.
+ * <p>
+ * Files that are already compressed (images, see {@link #isCompressed(String)}) are stored without compression, because
+ * deflating them again takes time and saves almost nothing. A stored entry must start with its size and checksum, so
+ * it is collected first: in memory, or in a temporary file if it is large. Other files are deflated as they are written.
+ * @author Gáspár Tamás
+ */
+public class ZipOutputTarget implements OutputTarget {
+
+	/**
+	 * Extensions of the files that are stored without compression.
+	 */
+	private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList("png", "jpg", "jpeg", "jp2", "tif", "tiff", "gif", "zip"));
+	/**
+	 * Stored entries larger than this are collected in a temporary file instead of the memory.
+	 */
+	private static final int MEMORY_LIMIT = 16 * 1024 * 1024;
+
+	/**
+	 * The archive.
+	 */
+	private final ZipOutputStream zip;
+	/**
+	 * The entry that was opened last, not yet completed in the archive. Null if there is none.
+	 */
+	private EntryStream lastEntry;
+
+	/**
+	 * Creates a target.
+	 * @param out The archive is written here.
+	 */
+	public ZipOutputTarget(OutputStream out) {
+		this.zip = new ZipOutputStream(out);
+	}
+
+	@Override
+	public OutputStream openEntry(String name) throws IOException {
+		completeLastEntry(); //the previous entry was written successfully
+		lastEntry = isCompressed(name) ? new StoredEntryStream(name) : new DeflatedEntryStream(name);
+		return lastEntry;
+	}
+
+	@Override
+	public void close() throws IOException {
+		completeLastEntry();
+		zip.finish();
+		zip.flush();
+	}
+
+	/**
+	 * Discards the last entry, and does not write the end of the archive.
+	 */
+	@Override
+	public void abort() throws IOException {
+		if(lastEntry != null) {
+			final EntryStream entry = lastEntry;
+			lastEntry = null;
+			entry.discard();
+		}
+	}
+
+	/**
+	 * Completes the entry that was opened last in the archive, if there is one.
+	 * @throws IOException If the entry can't be written.
+	 */
+	private void completeLastEntry() throws IOException {
+		if(lastEntry != null) {
+			final EntryStream entry = lastEntry;
+			lastEntry = null;
+			entry.close();
+			entry.complete();
+		}
+	}
+
+	/**
+	 * Decides if a file is stored without compression.
+	 * @param name Name of the file.
+	 * @return True if the extension belongs to a compressed format.
+	 */
+	public static boolean isCompressed(String name) {
+		final int dot = name.lastIndexOf('.');
+		return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Stream of an entry. Closing it only ends the writing, the target decides if the entry is completed or discarded.
+	 */
+	private abstract static class EntryStream extends OutputStream {
+
+		/**
+		 * Writes the rest of the entry into the archive.
+		 * @throws IOException If the entry can't be written.
+		 */
+		abstract void complete() throws IOException;
+
+		/**
+		 * Drops the entry. Data that was already written into the archive stays there, but the entry is not ended.
+		 */
+		abstract void discard();
+	}
+
+	/**
+	 * Deflates an entry directly into the archive. The entry is ended when it is completed.
+	 */
+	private class DeflatedEntryStream extends EntryStream {
+
+		private DeflatedEntryStream(String name) throws IOException {
+			zip.putNextEntry(new ZipEntry(name));
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			zip.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			zip.write(b, off, len);
+		}
+
+		@Override
+		void complete() throws IOException {
+			zip.closeEntry(); //writes the size and checksum, the archive continues
+		}
+
+		@Override
+		void discard() {
+			//without the size and checksum the entry is not valid
+		}
+	}
+
+	/**
+	 * Collects a stored entry and computes its checksum. The entry is written into the archive when it is completed.
+	 */
+	private class StoredEntryStream extends EntryStream {
+
+		/**
+		 * Name of the entry.
+		 */
+		private final String name;
+		/**
+		 * Checksum of the data.
+		 */
+		private final CRC32 crc = new CRC32();
+		/**
+		 * Collects the data while it is small.
+		 */
+		private ByteArrayOutputStream memory = new ByteArrayOutputStream(64 * 1024);
+		/**
+		 * Collects the data after it grew over {@link ZipOutputTarget#MEMORY_LIMIT}, null before that.
+		 */
+		private File spillFile;
+		/**
+		 * Writes the temporary file.
+		 */
+		private OutputStream spill;
+		/**
+		 * Amount of bytes written.
+		 */
+		private long size = 0;
+
+		private StoredEntryStream(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte)b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			crc.update(b, off, len);
+			size += len;
+			if(spill == null && size > MEMORY_LIMIT) { //move the data into a file
+				spillFile = File.createTempFile("pdfutils-zip", ".tmp");
+				spill = new FileOutputStream(spillFile);
+				memory.writeTo(spill);
+				memory = null;
+			}
+			if(spill != null) {
+				spill.write(b, off, len);
+			} else {
+				memory.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(spill != null) spill.close();
+		}
+
+		@Override
+		void complete() throws IOException {
+			try {
+				final ZipEntry entry = new ZipEntry(name);
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(size);
+				entry.setCompressedSize(size);
+				entry.setCrc(crc.getValue());
+				zip.putNextEntry(entry);
+				if(spill != null) {
+					try(InputStream in = new FileInputStream(spillFile)) {
+						final byte[] buffer = new byte[64 * 1024];
+						int read;
+						while((read = in.read(buffer)) != -1) zip.write(buffer, 0, read);
+					}
+				} else {
+					memory.writeTo(zip);
+				}
+				zip.closeEntry();
+			} finally {
+				discard();
+			}
+		}
+
+		@Override
+		void discard() {
+			memory = null;
+			if(spill != null) {
+				try {
+					spill.close();
+				} catch(IOException e) {
+					//the file is deleted anyway
+				}
+				spillFile.delete();
+			}
+		}
+	}
+}
@@ -0,0 +1,244 @@
+package com.gaspar.pdfutils.pages;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A compact selection of 1 based page numbers. Pages are stored as runs of consecutive numbers, so a range of
+ * 100 000 pages takes 8 bytes instead of a list of boxed integers.
+ * <p>
+ * The order in which pages were added is kept, because it decides the order of the output (for example the page order
+ * in an extracted PDF). Duplicates are allowed, just like when the user types in the pages.
+ * <p>
+ * Selections can be parsed from specifiers such as <i>1-100,250,300-</i> using {@link #parse(String)}. The last range in
+ * this example is open, it lasts until the final page of the document. Open selections must be closed with {@link #resolve(int)}
+ * before they are iterated.
+ * @author Gáspár Tamás
+ */
+public class PageSet {
+
+	/**
+	 * End of a run that lasts until the final page of the document.
+	 */
+	public static final int OPEN_END = Integer.MAX_VALUE;
+
+	/**
+	 * Start and end (inclusive) of each run, in pairs. Only the first {@link #runCount} pairs are used.
+	 */
+	private int[] runs;
+	/**
+	 * Amount of runs stored in {@link #runs}.
+	 */
+	private int runCount;
+
+	/**
+	 * Creates an empty selection. Use {@link #add(int)} and {@link #addRange(int, int)} to fill it.
+	 */
+	public PageSet() {
+		runs = new int[8];
+		runCount = 0;
+	}
+
+	/**
+	 * Creates a selection with a single range.
+	 * @param from First page, 1 based.
+	 * @param to Last page (inclusive), 1 based. Can be {@link #OPEN_END}.
+	 * @return The selection.
+	 * @throws NumberFormatException If the range is not valid.
+	 */
+	public static PageSet range(int from, int to) {
+		final PageSet pages = new PageSet();
+		pages.addRange(from, to);
+		return pages;
+	}
+
+	/**
+	 * Creates a selection with all pages of a document, whatever their count is.
+	 * @return The selection.
+	 */
+	public static PageSet all() {
+		return range(1, OPEN_END);
+	}
+
+	/**
+	 * Parses a page specifier. It is a comma separated list of page numbers (<i>7</i>), closed ranges (<i>3-10</i>) and
+	 * open ranges (<i>12-</i>). Whitespace around the elements is ignored.
+	 * @param spec The specifier, with 1 based page numbers.
+	 * @return The selection, in the same order as the specifier.
+	 * @throws NumberFormatException If the specifier is empty or not valid.
+	 */
+	public static PageSet parse(String spec) {
+		final PageSet pages = new PageSet();
+		for(String element: spec.split(",", -1)) {
+			element = element.trim();
+			final int dash = element.indexOf('-');
+			if(dash < 0) { //single page
+				pages.add(Integer.parseInt(element));
+			} else {
+				final int from = Integer.parseInt(element.substring(0, dash).trim());
+				final String toPart = element.substring(dash + 1).trim();
+				pages.addRange(from, toPart.isEmpty() ? OPEN_END : Integer.parseInt(toPart));
+			}
+		}
+		return pages;
+	}
+
+	/**
+	 * Adds a page to the end of the selection.
+	 * @param page The page, 1 based.
+	 * @throws NumberFormatException If the page number is not positive.
+	 */
+	public void add(int page) {
+		addRange(page, page);
+	}
+
+	/**
+	 * Adds a range of pages to the end of the selection. If it continues the last run, then the run is extended instead.
+	 * @param from First page, 1 based.
+	 * @param to Last page (inclusive), 1 based. Can be {@link #OPEN_END}.
+	 * @throws NumberFormatException If the range is not valid.
+	 */
+	public void addRange(int from, int to) {
+		if(from < 1 || to < from) throw new NumberFormatException(from + "-" + to + " is not a valid range of pages!");
+		if(runCount > 0) {
+			final int lastEnd = runs[2*runCount - 1];
+			if(lastEnd != OPEN_END && lastEnd + 1 == from) { //continues the last run
+				runs[2*runCount - 1] = to;
+				return;
+			}
+		}
+		if(2*runCount == runs.length) runs = Arrays.copyOf(runs, runs.length * 2);
+		runs[2*runCount] = from;
+		runs[2*runCount + 1] = to;
+		runCount++;
+	}
+
+	/**
+	 * Checks if the selection has an open range, which must be resolved with {@link #resolve(int)}.
+	 * @return True if there is an open range.
+	 */
+	public boolean isOpen() {
+		for(int i=0; i<runCount; i++) {
+			if(runs[2*i + 1] == OPEN_END) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Closes the open ranges and validates the selection against a document.
+	 * @param pageCount Amount of pages in the document.
+	 * @return A closed selection with the same pages.
+	 * @throws IllegalArgumentException If a page is not in the document.
+	 */
+	public PageSet resolve(int pageCount) {
+		final PageSet resolved = new PageSet();
+		for(int i=0; i<runCount; i++) {
+			final int from = runs[2*i];
+			final int to = runs[2*i + 1] == OPEN_END ? pageCount : runs[2*i + 1];
+			final int invalid = from > pageCount ? from : to > pageCount ? to : -1;
+			if(invalid != -1) {
+				throw new IllegalArgumentException("Page " + invalid + " does not exist, the document only has " + pageCount + " pages!");
+			}
+			resolved.addRange(from, to);
+		}
+		return resolved;
+	}
+
+	/**
+	 * Counts the pages in the selection. Duplicates are counted each time.
+	 * @return The amount of pages.
+	 * @throws IllegalStateException If the selection is open.
+	 */
+	public int size() {
+		long size = 0;
+		for(int i=0; i<runCount; i++) {
+			if(runs[2*i + 1] == OPEN_END) throw new IllegalStateException("Size of an open page selection is not known!");
+			size += runs[2*i + 1] - runs[2*i] + 1;
+		}
+		return (int)Math.min(size, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Checks if there are no pages in this selection.
+	 * @return True if it is empty.
+	 */
+	public boolean isEmpty() {
+		return runCount == 0;
+	}
+
+	/**
+	 * Checks if a page is in the selection.
+	 * @param page The page, 1 based.
+	 * @return True if it is selected.
+	 */
+	public boolean contains(int page) {
+		for(int i=0; i<runCount; i++) {
+			if(runs[2*i] <= page && page <= runs[2*i + 1]) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Iterates the pages in the order they were added, without boxing them.
+	 * @return Iterator over the 1 based page numbers.
+	 * @throws IllegalStateException If the selection is open.
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		if(isOpen()) throw new IllegalStateException("An open page selection must be resolved before iterating!");
+		return new PrimitiveIterator.OfInt() {
+			private int run = 0;
+			private int next = runCount > 0 ? runs[0] : 0;
+
+			@Override
+			public boolean hasNext() {
+				return run < runCount;
+			}
+
+			@Override
+			public int nextInt() {
+				if(!hasNext()) throw new NoSuchElementException();
+				final int page = next;
+				if(page == runs[2*run + 1]) { //end of this run, move to the next one
+					run++;
+					if(run < runCount) next = runs[2*run];
+				} else {
+					next++;
+				}
+				return page;
+			}
+		};
+	}
+
+	/**
+	 * Creates a specifier that can be parsed back with {@link #parse(String)}, for example <i>1-100,250,300-</i>.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		for(int i=0; i<runCount; i++) {
+			final int from = runs[2*i], to = runs[2*i + 1];
+			if(i > 0) b.append(',');
+			b.append(from);
+			if(to == OPEN_END) {
+				b.append('-');
+			} else if(to != from) {
+				b.append('-').append(to);
+			}
+		}
+		return b.toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) return true;
+		if(!(o instanceof PageSet)) return false;
+		final PageSet other = (PageSet)o;
+		return runCount == other.runCount && Arrays.equals(Arrays.copyOf(runs, 2*runCount), Arrays.copyOf(other.runs, 2*other.runCount));
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(Arrays.copyOf(runs, 2*runCount));
+	}
+}
@@ -0,0 +1,27 @@
+package com.gaspar.pdfutils.progress;
+
+/**
+ * Receives progress updates from an operation. The operation does not know who is listening, so the GUI, the console or 
+ * a metrics collector can all plug in their own listener.
+ * <p>
+ * Updates may arrive very frequently (once per page) and from a background thread. Wrap slow listeners into a 
+ * {@link RateLimitedProgressListener}.
+ * @author Gáspár Tamás
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+	/**
+	 * Listener that ignores all updates. Operations use this when nobody is interested in their progress.
+	 */
+	ProgressListener NONE = (phase, done, total) -> {};
+
+	/**
+	 * Called when the operation made some progress.
+	 * @param phase The phase the operation is in.
+	 * @param done Work done in this phase, for example pages processed or bytes written.
+	 * @param total Expected amount of work in this phase. This may be an estimate (saved file sizes are not known in advance), 
+	 * so done can exceed it. Negative if not known at all. The phase is finished when done equals total.
+	 */
+	void progressChanged(ProgressPhase phase, long done, long total);
+}
@@ -0,0 +1,88 @@
+package com.gaspar.pdfutils.progress;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream that counts the written bytes and reports them as {@link ProgressPhase#SAVING} progress. 
+ * When the stream is closed, the phase is reported as finished with the real amount of bytes.
+ * @author Gáspár Tamás
+ */
+public class ProgressOutputStream extends FilterOutputStream {
+
+	/**
+	 * Progress is reported after every this many bytes, so writing byte by byte does not call the listener for each byte.
+	 */
+	private static final long REPORT_INTERVAL = 64 * 1024;
+
+	/**
+	 * Progress is reported here.
+	 */
+	private final ProgressListener listener;
+	/**
+	 * Expected size of the output. Negative if not known.
+	 */
+	private final long expectedBytes;
+	/**
+	 * Bytes written so far.
+	 */
+	private long written;
+	/**
+	 * Value of {@link #written} when progress was last reported.
+	 */
+	private long reported;
+	/**
+	 * Stores if the stream was closed, so the end is only reported once.
+	 */
+	private boolean closed;
+
+	/**
+	 * Creates a counting stream.
+	 * @param out Bytes are written to this stream.
+	 * @param listener Progress is reported here.
+	 * @param expectedBytes Expected size of the output, can be an estimate. Negative if not known.
+	 */
+	public ProgressOutputStream(OutputStream out, ProgressListener listener, long expectedBytes) {
+		super(out);
+		this.listener = listener;
+		this.expectedBytes = expectedBytes;
+		listener.progressChanged(ProgressPhase.SAVING, 0, expectedBytes);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		written++;
+		report();
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len); //FilterOutputStream would write these one by one
+		written += len;
+		report();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(closed) return;
+		closed = true;
+		super.close();
+		listener.progressChanged(ProgressPhase.SAVING, written, written); //now the real size is known
+	}
+
+	/**
+	 * Reports the written bytes. If the estimate was too low, it is never reported as finished before closing.
+	 */
+	private void report() {
+		if(written - reported < REPORT_INTERVAL) return;
+		reported = written;
+		final long total = expectedBytes >= 0 && written >= expectedBytes ? written + 1 : expectedBytes;
+		listener.progressChanged(ProgressPhase.SAVING, written, total);
+	}
+
+	public long getWritten() {
+		return written;
+	}
+}
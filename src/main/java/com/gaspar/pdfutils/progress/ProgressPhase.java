@@ -0,0 +1,30 @@
+package com.gaspar.pdfutils.progress;
+
+/**
+ * The phases an operation reports progress in. See {@link ProgressListener}.
+ * @author Gáspár Tamás
+ */
+public enum ProgressPhase {
+
+	/**
+	 * Pages (or images) are being processed. Progress is counted in pages.
+	 */
+	PAGES("Processing pages"),
+	/**
+	 * The result is being written to the disk. Progress is counted in bytes.
+	 */
+	SAVING("Saving result");
+
+	/**
+	 * Text that can be displayed to the user.
+	 */
+	private final String description;
+
+	private ProgressPhase(String description) {
+		this.description = description;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+}
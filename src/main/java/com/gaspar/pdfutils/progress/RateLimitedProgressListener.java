@@ -0,0 +1,67 @@
+package com.gaspar.pdfutils.progress;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps another listener and forwards at most a given amount of updates per second to it. The updates carry absolute 
+ * values, so the ones in between can be dropped: the next forwarded update contains all progress made since. 
+ * <p>
+ * Updates that start a new phase or finish one are always forwarded, so the wrapped listener never misses the 
+ * start or the end.
+ * @author Gáspár Tamás
+ */
+public class RateLimitedProgressListener implements ProgressListener {
+
+	/**
+	 * Default limit of updates per second.
+	 */
+	public static final int DEFAULT_UPDATES_PER_SECOND = 20;
+
+	/**
+	 * Updates are forwarded here.
+	 */
+	private final ProgressListener delegate;
+	/**
+	 * Minimum time between two forwarded updates, in nanoseconds.
+	 */
+	private final long intervalNanos;
+	/**
+	 * Phase of the last forwarded update. Null before the first update.
+	 */
+	private ProgressPhase lastPhase;
+	/**
+	 * Time of the last forwarded update, from {@link System#nanoTime()}.
+	 */
+	private long lastForwarded;
+
+	/**
+	 * Creates a listener with {@link #DEFAULT_UPDATES_PER_SECOND}.
+	 * @param delegate Updates are forwarded here.
+	 */
+	public RateLimitedProgressListener(ProgressListener delegate) {
+		this(delegate, DEFAULT_UPDATES_PER_SECOND);
+	}
+
+	/**
+	 * Creates a listener with a custom limit.
+	 * @param delegate Updates are forwarded here.
+	 * @param updatesPerSecond Maximum amount of updates forwarded per second. Must be positive.
+	 */
+	public RateLimitedProgressListener(ProgressListener delegate, int updatesPerSecond) {
+		if(updatesPerSecond <= 0) throw new IllegalArgumentException("Updates per second must be positive!");
+		this.delegate = delegate;
+		this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / updatesPerSecond;
+	}
+
+	@Override
+	public void progressChanged(ProgressPhase phase, long done, long total) {
+		final long now = System.nanoTime();
+		synchronized (this) {
+			final boolean important = phase != lastPhase || done == total; //phase starts or ends
+			if(!important && now - lastForwarded < intervalNanos) return; //coalesced into the next forwarded update
+			lastPhase = phase;
+			lastForwarded = now;
+		}
+		delegate.progressChanged(phase, done, total);
+	}
+}
@@ -0,0 +1,148 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ * Renders pages as black and white ({@link BufferedImage#TYPE_BYTE_BINARY}) images, one bit per pixel. The page is 
+ * rendered in gray strips, and each strip is converted with a {@link Binarization} before the next one is rendered, 
+ * so the full page only exists in the bilevel form. Decoded images can be converted the same way.
+ * @author Gáspár Tamás
+ */
+public abstract class BilevelRenderer {
+
+	/**
+	 * Threshold used if nothing else is set. Pixels darker than this become black.
+	 */
+	public static final int DEFAULT_THRESHOLD = 128;
+	/**
+	 * Approximate size of a gray strip.
+	 */
+	private static final int STRIP_BYTES = 4 * 1024 * 1024;
+
+	/**
+	 * Estimates the memory needed to render a page: the bilevel image and one gray strip.
+	 * @param page The page.
+	 * @param dpi Resolution.
+	 * @return The memory in bytes.
+	 */
+	public static long estimateBytes(PDPage page, float dpi) {
+		final Rectangle size = TiledPageImage.pixelSize(page, dpi);
+		final long imageBytes = (long)(size.width + 7) / 8 * size.height;
+		return imageBytes + Math.min((long)size.width * size.height, STRIP_BYTES);
+	}
+
+	/**
+	 * Renders a page as a bilevel image.
+	 * @param renderer Renderer of the document.
+	 * @param page The page.
+	 * @param pageIndex Index of the page, 0 based.
+	 * @param dpi Resolution.
+	 * @param binarization How gray pixels are converted.
+	 * @param threshold Gray level (0-255) under which pixels are black. Dithering uses it as well.
+	 * @return The image, white pixels are 1.
+	 * @throws IOException If the page can't be rendered.
+	 */
+	public static BufferedImage render(PDFRenderer renderer, PDPage page, int pageIndex, float dpi, 
+			Binarization binarization, int threshold) throws IOException {
+		final Rectangle size = TiledPageImage.pixelSize(page, dpi);
+		return convert(size.width, size.height, binarization, threshold, 
+				graphics -> renderer.renderPageToGraphics(pageIndex, graphics, dpi / 72f));
+	}
+
+	/**
+	 * Converts an image, for example a decoded scan, to a bilevel image. Transparent pixels become white.
+	 * @param image The image.
+	 * @param binarization How gray pixels are converted.
+	 * @param threshold Gray level (0-255) under which pixels are black. Dithering uses it as well.
+	 * @return The converted image, white pixels are 1.
+	 */
+	public static BufferedImage binarize(BufferedImage image, Binarization binarization, int threshold) {
+		try {
+			return convert(image.getWidth(), image.getHeight(), binarization, threshold, graphics -> graphics.drawImage(image, 0, 0, null));
+		} catch(IOException e) { //drawing an image does not throw
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Creates a bilevel image by painting the content into gray strips and converting each strip.
+	 * @param width Width of the image.
+	 * @param height Height of the image.
+	 * @param binarization How gray pixels are converted.
+	 * @param threshold Gray level (0-255) under which pixels are black.
+	 * @param painter Paints the content, in image coordinates. It is translated for each strip.
+	 * @return The image, white pixels are 1.
+	 * @throws IOException If the painter failed.
+	 */
+	private static BufferedImage convert(int width, int height, Binarization binarization, int threshold, StripPainter painter) throws IOException {
+		final BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+		final byte[] bits = ((DataBufferByte)result.getRaster().getDataBuffer()).getData();
+		final int bitsPerRow = (width + 7) / 8;
+		
+		final int stripHeight = Math.max(1, Math.min(height, STRIP_BYTES / width));
+		final BufferedImage strip = new BufferedImage(width, stripHeight, BufferedImage.TYPE_BYTE_GRAY);
+		final byte[] gray = ((DataBufferByte)strip.getRaster().getDataBuffer()).getData();
+		//errors diffused to the current and next row, with a pixel of padding on both sides
+		int[] errors = binarization == Binarization.DITHER ? new int[width + 2] : null;
+		int[] nextErrors = binarization == Binarization.DITHER ? new int[width + 2] : null;
+		
+		for(int top = 0; top < height; top += stripHeight) {
+			final Graphics2D graphics = strip.createGraphics();
+			try {
+				graphics.setBackground(Color.WHITE);
+				graphics.clearRect(0, 0, width, stripHeight);
+				graphics.translate(0, -top); //the strip is a window on the page
+				painter.paint(graphics);
+			} finally {
+				graphics.dispose();
+			}
+			final int rows = Math.min(stripHeight, height - top);
+			for(int row = 0; row < rows; row++) {
+				final int grayOffset = row * width;
+				final int bitsOffset = (top + row) * bitsPerRow;
+				if(binarization == Binarization.DITHER) {
+					for(int x = 0; x < width; x++) {
+						final int value = (gray[grayOffset + x] & 0xFF) + errors[x + 1] / 16;
+						final boolean white = value >= threshold;
+						if(white) bits[bitsOffset + (x >> 3)] |= 0x80 >>> (x & 7);
+						final int error = value - (white ? 255 : 0);
+						errors[x + 2] += error * 7;
+						nextErrors[x] += error * 3;
+						nextErrors[x + 1] += error * 5;
+						nextErrors[x + 2] += error;
+					}
+					final int[] swap = errors; //next row becomes the current one
+					errors = nextErrors;
+					nextErrors = swap;
+					Arrays.fill(nextErrors, 0);
+				} else {
+					for(int x = 0; x < width; x++) {
+						if((gray[grayOffset + x] & 0xFF) >= threshold) bits[bitsOffset + (x >> 3)] |= 0x80 >>> (x & 7);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Paints the content of a bilevel image.
+	 */
+	private interface StripPainter {
+
+		/**
+		 * @param graphics Paint here. The background is already white.
+		 * @throws IOException If painting failed.
+		 */
+		void paint(Graphics2D graphics) throws IOException;
+	}
+}
@@ -0,0 +1,17 @@
+package com.gaspar.pdfutils.render;
+
+/**
+ * How gray pixels are turned into black or white ones, when pages are rendered as bilevel images.
+ * @author Gáspár Tamás
+ */
+public enum Binarization {
+
+	/**
+	 * Pixels darker than the threshold become black. Best for text and line drawings.
+	 */
+	THRESHOLD,
+	/**
+	 * Floyd-Steinberg error diffusion. Keeps the shades of photos and halftones, but makes text edges noisy.
+	 */
+	DITHER
+}
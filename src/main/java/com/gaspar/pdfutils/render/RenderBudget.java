@@ -0,0 +1,154 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.Rectangle;
+import java.util.concurrent.Semaphore;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.rendering.ImageType;
+
+/**
+ * Admission control for rendering. Every render allocates its whole raster up front, so a few large pages rendered 
+ * at the same time (preview, extraction and server jobs) can exhaust the heap. Before rendering, the size of the 
+ * raster must be reserved from this budget, and renders that don't fit wait until others release their memory.
+ * <p>
+ * The shared budget is half of the maximum heap by default. It can be changed with the {@value #BUDGET_PROPERTY} 
+ * system property, in megabytes. A single render that is larger than the whole budget is still allowed, but only 
+ * when nothing else is rendering.
+ * @author Gáspár Tamás
+ */
+public class RenderBudget {
+
+	/**
+	 * System property to configure the size of the shared budget, in megabytes.
+	 */
+	public static final String BUDGET_PROPERTY = "pdfutils.renderBudgetMB";
+
+	/**
+	 * The budget used by all renders of the program.
+	 */
+	private static final RenderBudget SHARED = new RenderBudget(configuredBudget());
+
+	/**
+	 * One permit is one kilobyte, so large budgets still fit into an int. Fair, so large renders are not starved 
+	 * by a stream of small ones.
+	 */
+	private final Semaphore kilobytes;
+	/**
+	 * Size of the budget, in kilobytes.
+	 */
+	private final int totalKilobytes;
+
+	/**
+	 * Creates a budget.
+	 * @param bytes Size of the budget.
+	 */
+	public RenderBudget(long bytes) {
+		if(bytes <= 0) throw new IllegalArgumentException("Render budget must be positive!");
+		totalKilobytes = (int)Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
+		kilobytes = new Semaphore(totalKilobytes, true);
+	}
+
+	/**
+	 * @return The budget shared by the whole program.
+	 */
+	public static RenderBudget shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Reads {@link #BUDGET_PROPERTY}, or uses half of the heap if it is not set or invalid.
+	 * @return Size of the budget in bytes.
+	 */
+	private static long configuredBudget() {
+		final String configured = System.getProperty(BUDGET_PROPERTY);
+		if(configured != null) {
+			try {
+				final long megabytes = Long.parseLong(configured.trim());
+				if(megabytes > 0) return megabytes * 1024 * 1024;
+			} catch(NumberFormatException e) {
+				//use the default
+			}
+		}
+		return Runtime.getRuntime().maxMemory() / 2;
+	}
+
+	/**
+	 * Estimates the memory needed to render a page. Pages that are rendered in strips only need one strip.
+	 * @param page The page.
+	 * @param dpi Resolution of the render.
+	 * @param imageType Type of the rendered image.
+	 * @return Size of the raster in bytes.
+	 */
+	public static long estimateBytes(PDPage page, float dpi, ImageType imageType) {
+		final Rectangle size = TiledPageImage.pixelSize(page, dpi);
+		final long pixels = (long)size.width * size.height;
+		switch(imageType) {
+		case BINARY:
+			return (pixels + 7) / 8;
+		case GRAY:
+			return pixels;
+		default: //RGB, ARGB and BGR images use an int per pixel
+			return pixels * 4;
+		}
+	}
+
+	/**
+	 * Waits until the memory is available, and reserves it.
+	 * @param bytes The memory needed.
+	 * @return The reservation, which must be closed when the raster is not needed anymore.
+	 * @throws InterruptedException If the thread was interrupted while waiting.
+	 */
+	public Reservation reserve(long bytes) throws InterruptedException {
+		//a render larger than the budget waits for the whole budget, so it runs alone
+		final int needed = (int)Math.min(totalKilobytes, Math.max(1, (bytes + 1023) / 1024));
+		kilobytes.acquire(needed);
+		return new Reservation(needed);
+	}
+
+	/**
+	 * Estimates and reserves the memory needed to render a page. Large pages only need one strip, so this must only be 
+	 * used if the image is encoded with a writer that reads it in strips, see {@link TiledPageImage}.
+	 * @param page The page.
+	 * @param dpi Resolution of the render.
+	 * @param imageType Type of the rendered image.
+	 * @return The reservation, which must be closed when the raster is not needed anymore.
+	 * @throws InterruptedException If the thread was interrupted while waiting.
+	 * @see #estimateBytes(PDPage, float, ImageType)
+	 */
+	public Reservation reserve(PDPage page, float dpi, ImageType imageType) throws InterruptedException {
+		final long bytes = TiledPageImage.isNeeded(page, dpi) ? TiledPageImage.STRIP_BYTES : estimateBytes(page, dpi, imageType);
+		return reserve(bytes);
+	}
+
+	/**
+	 * @return Size of the budget, in bytes.
+	 */
+	public long getTotalBytes() {
+		return totalKilobytes * 1024L;
+	}
+
+	/**
+	 * @return Memory that is not reserved at the moment, in bytes.
+	 */
+	public long getAvailableBytes() {
+		return kilobytes.availablePermits() * 1024L;
+	}
+
+	/**
+	 * Memory reserved from a {@link RenderBudget}. Closing it gives the memory back, closing it again does nothing.
+	 */
+	public class Reservation implements AutoCloseable {
+
+		private int reserved;
+
+		private Reservation(int reserved) {
+			this.reserved = reserved;
+		}
+
+		@Override
+		public synchronized void close() {
+			kilobytes.release(reserved);
+			reserved = 0;
+		}
+	}
+}
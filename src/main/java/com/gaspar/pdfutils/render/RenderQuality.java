@@ -0,0 +1,53 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.RenderingHints;
+
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ * Quality settings of a {@link PDFRenderer}. Previews and low resolution images don't need the full quality, and
+ * they are rendered several times faster with subsampling, when the page has large images.
+ * @author Gáspár Tamás
+ */
+public enum RenderQuality {
+
+	/**
+	 * The defaults of PDFBox: images are decoded at full resolution and scaled with bicubic interpolation.
+	 */
+	FULL,
+	/**
+	 * Images are subsampled (only every n-th pixel is decoded) when they are larger than needed for the resolution, and
+	 * scaled with bilinear interpolation. Text and lines are still antialiased, so they stay readable.
+	 */
+	FAST;
+
+	/**
+	 * Images with this resolution or less are rendered with {@link #FAST} quality, unless something else is set.
+	 */
+	public static final float FAST_DPI_LIMIT = 100;
+
+	/**
+	 * Selects the quality for a resolution.
+	 * @param dpi The resolution.
+	 * @return {@link #FAST} for low resolutions, {@link #FULL} otherwise.
+	 */
+	public static RenderQuality forDpi(float dpi) {
+		return dpi <= FAST_DPI_LIMIT ? FAST : FULL;
+	}
+
+	/**
+	 * Configures a renderer for this quality.
+	 * @param renderer The renderer.
+	 */
+	public void apply(PDFRenderer renderer) {
+		renderer.setSubsamplingAllowed(this == FAST);
+		if(this == FAST) {
+			final RenderingHints hints = new RenderingHints(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			hints.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+			hints.put(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			renderer.setRenderingHints(hints);
+		} else {
+			renderer.setRenderingHints(null); //PDFBox selects the hints
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+
+import org.apache.pdfbox.contentstream.PDFGraphicsStreamEngine;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.RenderingMode;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.util.Matrix;
+
+/**
+ * Finds scanned pages: pages whose only visible content is one opaque image drawn over the whole page. The image of
+ * such a page can be saved at its own resolution instead of rendering the page. Invisible text, such as the OCR layer
+ * of searchable scans, is allowed.
+ * <p>
+ * The content stream is processed without drawing anything, which takes a fraction of the time of rendering. Rotated
+ * pages, and pages with annotations are never detected as scanned, because rendering would change their image.
+ * @author Gáspár Tamás
+ */
+public class ScannedPageDetector extends PDFGraphicsStreamEngine {
+
+	/**
+	 * The image may miss the edges of the page by this much, in PDF points.
+	 */
+	private static final float TOLERANCE = 1f;
+
+	/**
+	 * The visible page area, the image must cover this.
+	 */
+	private final Rectangle2D pageArea;
+	/**
+	 * The current path, which is only needed for clipping.
+	 */
+	private final GeneralPath path = new GeneralPath();
+	/**
+	 * The image drawn over the page, null if there is none yet.
+	 */
+	private PDImageXObject image;
+	/**
+	 * True if something else is visible, or the image is not drawn over the page.
+	 */
+	private boolean notScanned = false;
+
+	private ScannedPageDetector(PDPage page) {
+		super(page);
+		final PDRectangle cropBox = page.getCropBox();
+		pageArea = new Rectangle2D.Float(cropBox.getLowerLeftX(), cropBox.getLowerLeftY(), cropBox.getWidth(), cropBox.getHeight());
+	}
+
+	/**
+	 * Checks if a page is scanned.
+	 * @param page The page.
+	 * @return The image drawn over the page, or null if the page is not scanned.
+	 * @throws IOException If the content of the page can't be read.
+	 */
+	public static PDImageXObject findScannedImage(PDPage page) throws IOException {
+		if(page.getRotation() % 360 != 0) return null;
+		for(PDAnnotation annotation: page.getAnnotations()) {
+			if(annotation.getNormalAppearanceStream() != null) return null; //would be rendered over the image
+		}
+		final ScannedPageDetector detector = new ScannedPageDetector(page);
+		detector.processPage(page);
+		return detector.notScanned ? null : detector.image;
+	}
+
+	@Override
+	public void drawImage(PDImage pdImage) throws IOException {
+		if(notScanned) return;
+		//only the first image, drawn opaque and without a mask, can be the scan
+		if(image != null || !(pdImage instanceof PDImageXObject) || pdImage.isStencil()
+				|| getGraphicsState().getNonStrokeAlphaConstant() < 1f || getGraphicsState().getSoftMask() != null) {
+			notScanned = true;
+			return;
+		}
+		final PDImageXObject xObject = (PDImageXObject)pdImage;
+		if(xObject.getCOSObject().containsKey(COSName.SMASK) || xObject.getCOSObject().containsKey(COSName.MASK)) {
+			notScanned = true;
+			return;
+		}
+		//the unit square is mapped to the page, upright and not mirrored
+		final Matrix ctm = getGraphicsState().getCurrentTransformationMatrix();
+		if(Math.abs(ctm.getShearX()) > 1e-3 || Math.abs(ctm.getShearY()) > 1e-3 || ctm.getScaleX() <= 0 || ctm.getScaleY() <= 0) {
+			notScanned = true;
+			return;
+		}
+		final Rectangle2D drawn = new Rectangle2D.Float(ctm.getTranslateX(), ctm.getTranslateY(), ctm.getScaleX(), ctm.getScaleY());
+		if(!covers(drawn) || !covers(getGraphicsState().getCurrentClippingPath().getBounds2D())) {
+			notScanned = true;
+			return;
+		}
+		image = xObject;
+	}
+
+	/**
+	 * @param area An area in PDF coordinates.
+	 * @return True if the area covers the page, within the tolerance.
+	 */
+	private boolean covers(Rectangle2D area) {
+		return area.getMinX() <= pageArea.getMinX() + TOLERANCE && area.getMinY() <= pageArea.getMinY() + TOLERANCE
+				&& area.getMaxX() >= pageArea.getMaxX() - TOLERANCE && area.getMaxY() >= pageArea.getMaxY() - TOLERANCE;
+	}
+
+	@Override
+	protected void showText(byte[] string) throws IOException {
+		//invisible text is the OCR layer of a scan, and there is no need to process the glyphs
+		if(getGraphicsState().getTextState().getRenderingMode() != RenderingMode.NEITHER) notScanned = true;
+	}
+
+	@Override
+	public void strokePath() throws IOException {
+		notScanned = true;
+		path.reset();
+	}
+
+	@Override
+	public void fillPath(int windingRule) throws IOException {
+		notScanned = true;
+		path.reset();
+	}
+
+	@Override
+	public void fillAndStrokePath(int windingRule) throws IOException {
+		notScanned = true;
+		path.reset();
+	}
+
+	@Override
+	public void shadingFill(COSName shadingName) throws IOException {
+		notScanned = true;
+	}
+
+	@Override
+	public void clip(int windingRule) throws IOException {
+		//the graphics state keeps track of the clipping, it is checked when the image is drawn
+		getGraphicsState().intersectClippingPath(path);
+	}
+
+	@Override
+	public void endPath() throws IOException {
+		path.reset();
+	}
+
+	@Override
+	public void appendRectangle(Point2D p0, Point2D p1, Point2D p2, Point2D p3) throws IOException {
+		path.moveTo((float)p0.getX(), (float)p0.getY());
+		path.lineTo((float)p1.getX(), (float)p1.getY());
+		path.lineTo((float)p2.getX(), (float)p2.getY());
+		path.lineTo((float)p3.getX(), (float)p3.getY());
+		path.closePath();
+	}
+
+	@Override
+	public void moveTo(float x, float y) throws IOException {
+		path.moveTo(x, y);
+	}
+
+	@Override
+	public void lineTo(float x, float y) throws IOException {
+		path.lineTo(x, y);
+	}
+
+	@Override
+	public void curveTo(float x1, float y1, float x2, float y2, float x3, float y3) throws IOException {
+		path.curveTo(x1, y1, x2, y2, x3, y3);
+	}
+
+	@Override
+	public Point2D getCurrentPoint() throws IOException {
+		return path.getCurrentPoint();
+	}
+
+	@Override
+	public void closePath() throws IOException {
+		path.closePath();
+	}
+}
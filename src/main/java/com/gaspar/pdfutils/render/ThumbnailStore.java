@@ -0,0 +1,150 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the thumbnails of pages in a compact form under a memory limit. A rendered page is scaled down to the size
+ * of the thumbnail right away, and stored with 3 bytes per pixel, so it can be painted without decoding. The rendered
+ * image itself is not kept. When the limit is reached, the thumbnails that were used the longest time ago are dropped,
+ * and they have to be rendered again when they are shown.
+ * <p>
+ * The limit of a store created with {@link #ThumbnailStore(int, int)} can be changed with the {@value #LIMIT_PROPERTY}
+ * system property, in megabytes. The methods are thread safe.
+ * @author Gáspár Tamás
+ */
+public class ThumbnailStore {
+
+	/**
+	 * System property to configure the default limit, in megabytes.
+	 */
+	public static final String LIMIT_PROPERTY = "pdfutils.thumbnailCacheMB";
+	/**
+	 * Limit if the property is not set.
+	 */
+	public static final long DEFAULT_LIMIT_BYTES = 32L * 1024 * 1024;
+	/**
+	 * Stored thumbnails use 3 bytes for each pixel.
+	 */
+	private static final int BYTES_PER_PIXEL = 3;
+
+	/**
+	 * The thumbnails by page number, the least recently used first.
+	 */
+	private final LinkedHashMap<Integer, BufferedImage> thumbnails = new LinkedHashMap<>(64, 0.75f, true);
+	/**
+	 * Size of the thumbnails in pixels.
+	 */
+	private final int width, height;
+	/**
+	 * Maximum size of the thumbnails, in bytes.
+	 */
+	private final long limitBytes;
+
+	/**
+	 * Creates a store with the configured limit.
+	 * @param width Width of the thumbnails.
+	 * @param height Height of the thumbnails.
+	 */
+	public ThumbnailStore(int width, int height) {
+		this(width, height, configuredLimit());
+	}
+
+	/**
+	 * Creates a store.
+	 * @param width Width of the thumbnails.
+	 * @param height Height of the thumbnails.
+	 * @param limitBytes Maximum size of the thumbnails. At least one thumbnail is always kept.
+	 */
+	public ThumbnailStore(int width, int height, long limitBytes) {
+		if(limitBytes <= 0) throw new IllegalArgumentException("Thumbnail limit must be positive!");
+		this.width = width;
+		this.height = height;
+		this.limitBytes = limitBytes;
+	}
+
+	/**
+	 * Reads {@link #LIMIT_PROPERTY}, or uses the default if it is not set or invalid.
+	 * @return The limit in bytes.
+	 */
+	private static long configuredLimit() {
+		final String configured = System.getProperty(LIMIT_PROPERTY);
+		if(configured != null) {
+			try {
+				final long megabytes = Long.parseLong(configured.trim());
+				if(megabytes > 0) return megabytes * 1024 * 1024;
+			} catch(NumberFormatException e) {
+				//use the default
+			}
+		}
+		return DEFAULT_LIMIT_BYTES;
+	}
+
+	/**
+	 * Finds a thumbnail, and marks it as recently used.
+	 * @param pageNumber The page.
+	 * @return The thumbnail, or null if the page was not stored or it was dropped.
+	 */
+	public synchronized BufferedImage get(int pageNumber) {
+		return thumbnails.get(pageNumber);
+	}
+
+	/**
+	 * Scales an image to a thumbnail and stores it. The least recently used thumbnails are dropped if the limit is reached.
+	 * @param pageNumber The page.
+	 * @param image Rendered image of the page, it is not kept.
+	 * @return The stored thumbnail.
+	 */
+	public BufferedImage put(int pageNumber, BufferedImage image) {
+		final BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+		final Graphics2D graphics = thumbnail.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		synchronized(this) {
+			thumbnails.put(pageNumber, thumbnail);
+			final Iterator<Map.Entry<Integer, BufferedImage>> iterator = thumbnails.entrySet().iterator();
+			while(getBytes() > limitBytes && thumbnails.size() > 1) {
+				iterator.next();
+				iterator.remove();
+			}
+		}
+		return thumbnail;
+	}
+
+	/**
+	 * @return Amount of stored thumbnails.
+	 */
+	public synchronized int size() {
+		return thumbnails.size();
+	}
+
+	/**
+	 * @return Size of the stored thumbnails, in bytes.
+	 */
+	public synchronized long getBytes() {
+		return (long)thumbnails.size() * width * height * BYTES_PER_PIXEL;
+	}
+
+	/**
+	 * Drops all thumbnails.
+	 */
+	public synchronized void clear() {
+		thumbnails.clear();
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+}
@@ -0,0 +1,182 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps rendered tiles of pages, so a zoomed page does not have to be rendered again when it is scrolled back into
+ * view. The cache has a memory limit, and when it is full, the tiles that were used the longest time ago are dropped.
+ * <p>
+ * The limit of a cache created with {@link #TileCache()} can be changed with the {@value #LIMIT_PROPERTY} system
+ * property, in megabytes. The methods are thread safe, tiles are usually rendered on a background thread and painted
+ * on the event dispatch thread.
+ * @author Gáspár Tamás
+ */
+public class TileCache {
+
+	/**
+	 * System property to configure the default limit, in megabytes.
+	 */
+	public static final String LIMIT_PROPERTY = "pdfutils.tileCacheMB";
+	/**
+	 * Limit if the property is not set.
+	 */
+	public static final long DEFAULT_LIMIT_BYTES = 64L * 1024 * 1024;
+
+	/**
+	 * The tiles, the least recently used first.
+	 */
+	private final LinkedHashMap<Key, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+	/**
+	 * Maximum size of the tiles, in bytes.
+	 */
+	private final long limitBytes;
+	/**
+	 * Current size of the tiles, in bytes.
+	 */
+	private long bytes = 0;
+
+	/**
+	 * Creates a cache with the configured limit.
+	 */
+	public TileCache() {
+		this(configuredLimit());
+	}
+
+	/**
+	 * Creates a cache.
+	 * @param limitBytes Maximum size of the tiles.
+	 */
+	public TileCache(long limitBytes) {
+		if(limitBytes <= 0) throw new IllegalArgumentException("Tile cache limit must be positive!");
+		this.limitBytes = limitBytes;
+	}
+
+	/**
+	 * Reads {@link #LIMIT_PROPERTY}, or uses the default if it is not set or invalid.
+	 * @return The limit in bytes.
+	 */
+	private static long configuredLimit() {
+		final String configured = System.getProperty(LIMIT_PROPERTY);
+		if(configured != null) {
+			try {
+				final long megabytes = Long.parseLong(configured.trim());
+				if(megabytes > 0) return megabytes * 1024 * 1024;
+			} catch(NumberFormatException e) {
+				//use the default
+			}
+		}
+		return DEFAULT_LIMIT_BYTES;
+	}
+
+	/**
+	 * Finds a tile, and marks it as recently used.
+	 * @param key Identifies the tile.
+	 * @return The tile, or null if it is not in the cache.
+	 */
+	public synchronized BufferedImage get(Key key) {
+		return tiles.get(key);
+	}
+
+	/**
+	 * Adds a tile, and drops the least recently used tiles if the cache became too large. The new tile is
+	 * always kept, even if it is larger than the limit on its own.
+	 * @param key Identifies the tile.
+	 * @param tile The rendered tile.
+	 */
+	public synchronized void put(Key key, BufferedImage tile) {
+		final BufferedImage old = tiles.put(key, tile);
+		if(old != null) bytes -= sizeOf(old);
+		bytes += sizeOf(tile);
+		final Iterator<Map.Entry<Key, BufferedImage>> iterator = tiles.entrySet().iterator();
+		while(bytes > limitBytes && tiles.size() > 1) {
+			final Map.Entry<Key, BufferedImage> eldest = iterator.next();
+			bytes -= sizeOf(eldest.getValue());
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Drops all tiles.
+	 */
+	public synchronized void clear() {
+		tiles.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * @return Amount of tiles in the cache.
+	 */
+	public synchronized int size() {
+		return tiles.size();
+	}
+
+	/**
+	 * @return Size of the tiles in the cache, in bytes.
+	 */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Calculates the memory used by the pixels of an image.
+	 * @param image The image.
+	 * @return Size in bytes.
+	 */
+	static long sizeOf(BufferedImage image) {
+		final DataBuffer buffer = image.getRaster().getDataBuffer();
+		return (long)buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+	}
+
+	/**
+	 * Identifies a tile: a square of the image of a page at a resolution.
+	 */
+	public static final class Key {
+
+		private final int pageIndex;
+		private final float dpi;
+		private final int column;
+		private final int row;
+
+		/**
+		 * Creates a key.
+		 * @param pageIndex Index of the page, 0 based.
+		 * @param dpi Resolution of the image.
+		 * @param column Column of the tile, from the left.
+		 * @param row Row of the tile, from the top.
+		 */
+		public Key(int pageIndex, float dpi, int column, int row) {
+			this.pageIndex = pageIndex;
+			this.dpi = dpi;
+			this.column = column;
+			this.row = row;
+		}
+
+		public float getDpi() {
+			return dpi;
+		}
+
+		public int getColumn() {
+			return column;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) return false;
+			final Key other = (Key)o;
+			return pageIndex == other.pageIndex && Float.compare(dpi, other.dpi) == 0 && column == other.column && row == other.row;
+		}
+
+		@Override
+		public int hashCode() {
+			return ((pageIndex * 31 + Float.floatToIntBits(dpi)) * 31 + column) * 31 + row;
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Vector;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ * A rendered page that is never held in memory as a whole. The image is split into full width strips, and a strip 
+ * is only rendered when an encoder asks for its rows, using {@link PDFRenderer#renderPageToGraphics(int, Graphics2D, float)} 
+ * with a translated transform. Only one strip is kept at a time, so the memory use depends on the strip size and not on 
+ * the page size.
+ * <p>
+ * Image writers, such as the PNG and TIFF writers of ImageIO, read their input row by row or strip by strip, so this 
+ * image can be passed directly to them. The rows should be read from top to bottom, otherwise strips are rendered 
+ * more than once. Use {@link #isNeeded(PDPage, float)} to decide if a page is large enough for this.
+ * <p>
+ * The pixels are the same type as {@link org.apache.pdfbox.rendering.ImageType#RGB} images.
+ * @author Gáspár Tamás
+ */
+public class TiledPageImage implements RenderedImage {
+
+	/**
+	 * Pages whose image would be larger than this are rendered in strips.
+	 */
+	public static final long TILING_THRESHOLD_BYTES = 64L * 1024 * 1024;
+	/**
+	 * Approximate size of one strip.
+	 */
+	public static final long STRIP_BYTES = 16L * 1024 * 1024;
+	/**
+	 * Rendered images use an int for each pixel.
+	 */
+	private static final int BYTES_PER_PIXEL = 4;
+
+	/**
+	 * Renders the page.
+	 */
+	private final PDFRenderer renderer;
+	/**
+	 * Index of the page, 0 based.
+	 */
+	private final int pageIndex;
+	/**
+	 * Pixels per PDF point.
+	 */
+	private final float scale;
+	/**
+	 * Size of the whole image, in pixels.
+	 */
+	private final int width, height;
+	/**
+	 * Amount of rows in a strip. The last strip may be shorter.
+	 */
+	private final int stripHeight;
+	/**
+	 * The last rendered strip, reused for the next one.
+	 */
+	private final BufferedImage strip;
+	/**
+	 * Index of the strip that is in {@link #strip}, -1 if there is none.
+	 */
+	private int renderedStrip = -1;
+
+	/**
+	 * Creates the image of a page. Nothing is rendered yet.
+	 * @param renderer Renderer of the document.
+	 * @param page The page.
+	 * @param pageIndex Index of the page, 0 based.
+	 * @param dpi Resolution of the image.
+	 */
+	public TiledPageImage(PDFRenderer renderer, PDPage page, int pageIndex, float dpi) {
+		this.renderer = renderer;
+		this.pageIndex = pageIndex;
+		this.scale = dpi / 72f;
+		final Rectangle size = pixelSize(page, dpi);
+		this.width = size.width;
+		this.height = size.height;
+		this.stripHeight = (int)Math.max(1, Math.min(height, STRIP_BYTES / ((long)width * BYTES_PER_PIXEL)));
+		this.strip = new BufferedImage(width, stripHeight, BufferedImage.TYPE_INT_RGB);
+	}
+
+	/**
+	 * Checks if a page should be rendered in strips, because its image would be too large.
+	 * @param page The page.
+	 * @param dpi Resolution of the image.
+	 * @return True if this class should be used.
+	 */
+	public static boolean isNeeded(PDPage page, float dpi) {
+		final Rectangle size = pixelSize(page, dpi);
+		return (long)size.width * size.height * BYTES_PER_PIXEL > TILING_THRESHOLD_BYTES;
+	}
+
+	/**
+	 * Calculates the size of the rendered page, the same way as {@link PDFRenderer#renderImageWithDPI(int, float)}.
+	 * @param page The page.
+	 * @param dpi Resolution.
+	 * @return The size in pixels, the location is not used.
+	 */
+	static Rectangle pixelSize(PDPage page, float dpi) {
+		final PDRectangle cropBox = page.getCropBox();
+		final float scale = dpi / 72f;
+		final int w = (int)Math.max(Math.floor(cropBox.getWidth() * scale), 1);
+		final int h = (int)Math.max(Math.floor(cropBox.getHeight() * scale), 1);
+		final int rotation = page.getRotation();
+		return rotation == 90 || rotation == 270 ? new Rectangle(h, w) : new Rectangle(w, h);
+	}
+
+	/**
+	 * Renders a strip into {@link #strip}, if it is not there already.
+	 * @param index Index of the strip.
+	 */
+	private void renderStrip(int index) {
+		if(index == renderedStrip) return;
+		final Graphics2D graphics = strip.createGraphics();
+		try {
+			graphics.setBackground(Color.WHITE);
+			graphics.clearRect(0, 0, width, stripHeight);
+			graphics.translate(0, -index * stripHeight); //the strip is a window on the page
+			renderer.renderPageToGraphics(pageIndex, graphics, scale);
+			renderedStrip = index;
+		} catch(IOException e) {
+			//RenderedImage methods can't throw checked exceptions, the engine unwraps this
+			throw new UncheckedIOException(e);
+		} finally {
+			graphics.dispose();
+		}
+	}
+
+	@Override
+	public Raster getTile(int tileX, int tileY) {
+		renderStrip(tileY);
+		final int rowCount = Math.min(stripHeight, height - tileY * stripHeight);
+		//a copy, because the strip is overwritten by the next one
+		final Raster rows = strip.getRaster().createChild(0, 0, width, rowCount, 0, tileY * stripHeight, null);
+		final WritableRaster copy = rows.createCompatibleWritableRaster(rows.getBounds());
+		copy.setRect(rows);
+		return copy;
+	}
+
+	@Override
+	public Raster getData(Rectangle rect) {
+		final Rectangle area = rect.intersection(new Rectangle(width, height));
+		final WritableRaster data = strip.getRaster().createCompatibleWritableRaster(area.x, area.y, area.width, area.height);
+		copyInto(data, area);
+		return data;
+	}
+
+	@Override
+	public Raster getData() {
+		return getData(new Rectangle(width, height));
+	}
+
+	@Override
+	public WritableRaster copyData(WritableRaster raster) {
+		if(raster == null) return (WritableRaster)getData();
+		copyInto(raster, raster.getBounds().intersection(new Rectangle(width, height)));
+		return raster;
+	}
+
+	/**
+	 * Copies an area of the image from the strips that contain it.
+	 * @param raster Destination, it contains the area.
+	 * @param area The area to copy.
+	 */
+	private void copyInto(WritableRaster raster, Rectangle area) {
+		for(int index = area.y / stripHeight; index * stripHeight < area.y + area.height; index++) {
+			renderStrip(index);
+			final int top = Math.max(area.y, index * stripHeight);
+			final int bottom = Math.min(area.y + area.height, Math.min(height, (index + 1) * stripHeight));
+			final Raster part = strip.getRaster().createChild(area.x, top - index * stripHeight, area.width, bottom - top, area.x, top, null);
+			raster.setRect(part);
+		}
+	}
+
+	@Override
+	public Vector<RenderedImage> getSources() {
+		return null;
+	}
+
+	@Override
+	public Object getProperty(String name) {
+		return Image.UndefinedProperty;
+	}
+
+	@Override
+	public String[] getPropertyNames() {
+		return null;
+	}
+
+	@Override
+	public ColorModel getColorModel() {
+		return strip.getColorModel();
+	}
+
+	@Override
+	public SampleModel getSampleModel() {
+		return strip.getSampleModel().createCompatibleSampleModel(width, stripHeight);
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int getMinX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinY() {
+		return 0;
+	}
+
+	@Override
+	public int getNumXTiles() {
+		return 1;
+	}
+
+	@Override
+	public int getNumYTiles() {
+		return (height + stripHeight - 1) / stripHeight;
+	}
+
+	@Override
+	public int getMinTileX() {
+		return 0;
+	}
+
+	@Override
+	public int getMinTileY() {
+		return 0;
+	}
+
+	@Override
+	public int getTileWidth() {
+		return width;
+	}
+
+	@Override
+	public int getTileHeight() {
+		return stripHeight;
+	}
+
+	@Override
+	public int getTileGridXOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getTileGridYOffset() {
+		return 0;
+	}
+}
@@ -0,0 +1,67 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ExtractEmbeddedImagesEngine;
+import com.gaspar.pdfutils.engine.ExtractEmbeddedImagesRequest;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.output.ZipOutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Handles <i>POST /extract-embedded-images</i>. The body is a PDF file, the response is a ZIP archive with the images
+ * embedded in the selected pages. Query parameters: <i>pages</i> (default is all) and <i>prefix</i> (default <i>img_</i>).
+ * @author Gáspár Tamás
+ */
+class ExtractEmbeddedImagesHandler extends JobHandler {
+
+	private final ExtractEmbeddedImagesEngine engine = new ExtractEmbeddedImagesEngine();
+
+	ExtractEmbeddedImagesHandler(Semaphore jobPermits, long admissionTimeoutMillis) {
+		super(jobPermits, admissionTimeoutMillis);
+	}
+
+	@Override
+	protected void spoolBody(InputStream body, Path workDir) throws IOException {
+		Files.copy(body, workDir.resolve("source.pdf"));
+	}
+
+	@Override
+	protected void execute(HttpExchange exchange, Map<String, String> parameters, Path workDir, OutputStream response)
+			throws IOException, EngineException {
+		final PageSet pages;
+		try {
+			pages = PageSet.parse(parameters.getOrDefault("pages", "1-"));
+		} catch(NumberFormatException e) {
+			throw new InvalidRequestException(parameters.get("pages") + " is not a valid page specifier!");
+		}
+		final String prefix = parameters.getOrDefault("prefix", "img_");
+		final ExtractEmbeddedImagesRequest request = new ExtractEmbeddedImagesRequest(workDir.resolve("source.pdf").toString(), null, pages, prefix);
+		request.setPassword(password(exchange, PASSWORD_HEADER));
+
+		exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"images.zip\"");
+		final ZipOutputTarget zip = new ZipOutputTarget(response);
+		request.setOutputTarget(zip);
+		try {
+			engine.execute(request, ProgressListener.NONE);
+		} catch(EngineException | RuntimeException e) {
+			zip.abort(); //if nothing was sent yet, the error status can still be sent
+			throw e;
+		}
+		zip.close();
+	}
+
+	@Override
+	protected String getContentType() {
+		return "application/zip";
+	}
+}
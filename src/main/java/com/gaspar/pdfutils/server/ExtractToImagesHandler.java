@@ -0,0 +1,98 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ExtractToImagesEngine;
+import com.gaspar.pdfutils.engine.ExtractToImagesRequest;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.output.ImageFormat;
+import com.gaspar.pdfutils.output.ZipOutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.render.BilevelRenderer;
+import com.gaspar.pdfutils.render.Binarization;
+import com.gaspar.pdfutils.render.RenderQuality;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Handles <i>POST /extract-to-images</i>. The body is a PDF file, the response is a ZIP archive with an image for each 
+ * selected page. Query parameters: <i>pages</i> (default is all), <i>prefix</i> (default <i>img_</i>), <i>dpi</i> and 
+ * <i>format</i>, which is <i>png</i> by default. With <i>format=tiff-g4</i> the pages are black and white TIFF files, and 
+ * <i>threshold</i> (1-255) and <i>dither=true</i> control the conversion. <i>format=tiff</i> gives color TIFF files, and 
+ * <i>format=jpeg</i> gives JPEG files. Other formats are rejected. For TIFF formats <i>multipage=true</i> puts all pages 
+ * into one file, which is still returned inside the ZIP archive. <i>quality=fast</i> or <i>quality=full</i> overrides the 
+ * render quality, which is selected by the resolution.
+ * @author Gáspár Tamás
+ */
+class ExtractToImagesHandler extends JobHandler {
+
+	private final ExtractToImagesEngine engine = new ExtractToImagesEngine();
+
+	ExtractToImagesHandler(Semaphore jobPermits, long admissionTimeoutMillis) {
+		super(jobPermits, admissionTimeoutMillis);
+	}
+
+	@Override
+	protected void spoolBody(InputStream body, Path workDir) throws IOException {
+		Files.copy(body, workDir.resolve("source.pdf"));
+	}
+
+	@Override
+	protected void execute(HttpExchange exchange, Map<String, String> parameters, Path workDir, OutputStream response) 
+			throws IOException, EngineException {
+		final PageSet pages;
+		try {
+			pages = PageSet.parse(parameters.getOrDefault("pages", "1-"));
+		} catch(NumberFormatException e) {
+			throw new InvalidRequestException(parameters.get("pages") + " is not a valid page specifier!");
+		}
+		final String prefix = parameters.getOrDefault("prefix", "img_");
+		final ExtractToImagesRequest request = new ExtractToImagesRequest(workDir.resolve("source.pdf").toString(), null, pages, prefix);
+		request.setPassword(password(exchange, PASSWORD_HEADER));
+		request.setDpi(intParameter(parameters, "dpi", ExtractToImagesRequest.DEFAULT_DPI));
+		final String format = parameters.getOrDefault("format", "png");
+		switch(format) {
+		case "png": //the default
+			break;
+		case "tiff":
+			request.setFormat(ImageFormat.TIFF_LZW);
+			break;
+		case "jpeg":
+			request.setFormat(ImageFormat.JPEG);
+			break;
+		case "tiff-g4":
+			request.setFormat(ImageFormat.TIFF_G4);
+			request.setBinarization("true".equals(parameters.get("dither")) ? Binarization.DITHER : Binarization.THRESHOLD);
+			request.setThreshold(intParameter(parameters, "threshold", BilevelRenderer.DEFAULT_THRESHOLD));
+			break;
+		default:
+			throw new InvalidRequestException(format + " is not a valid image format!");
+		}
+		request.setMultiPage("true".equals(parameters.get("multipage")));
+		if("fast".equals(parameters.get("quality"))) request.setQuality(RenderQuality.FAST);
+		if("full".equals(parameters.get("quality"))) request.setQuality(RenderQuality.FULL);
+		
+		exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"pages.zip\"");
+		final ZipOutputTarget zip = new ZipOutputTarget(response);
+		request.setOutputTarget(zip);
+		try {
+			engine.execute(request, ProgressListener.NONE);
+		} catch(EngineException | RuntimeException e) {
+			zip.abort(); //if nothing was sent yet, the error status can still be sent
+			throw e;
+		}
+		zip.close();
+	}
+
+	@Override
+	protected String getContentType() {
+		return "application/zip";
+	}
+}
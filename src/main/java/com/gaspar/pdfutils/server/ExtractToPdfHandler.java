@@ -0,0 +1,63 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ExtractToPdfEngine;
+import com.gaspar.pdfutils.engine.ExtractToPdfRequest;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.output.StreamOutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Handles <i>POST /extract-to-pdf</i>. The body is a PDF file, the response is a new PDF with the selected pages. 
+ * Query parameter: <i>pages</i> (default is all). The new PDF is encrypted if the {@value #RESULT_PASSWORD_HEADER} 
+ * header is given.
+ * @author Gáspár Tamás
+ */
+class ExtractToPdfHandler extends JobHandler {
+
+	private final ExtractToPdfEngine engine = new ExtractToPdfEngine();
+
+	ExtractToPdfHandler(Semaphore jobPermits, long admissionTimeoutMillis) {
+		super(jobPermits, admissionTimeoutMillis);
+	}
+
+	@Override
+	protected void spoolBody(InputStream body, Path workDir) throws IOException {
+		Files.copy(body, workDir.resolve("source.pdf"));
+	}
+
+	@Override
+	protected void execute(HttpExchange exchange, Map<String, String> parameters, Path workDir, OutputStream response) 
+			throws IOException, EngineException {
+		final PageSet pages;
+		try {
+			pages = PageSet.parse(parameters.getOrDefault("pages", "1-"));
+		} catch(NumberFormatException e) {
+			throw new InvalidRequestException(parameters.get("pages") + " is not a valid page specifier!");
+		}
+		final ExtractToPdfRequest request = new ExtractToPdfRequest(workDir.resolve("source.pdf").toString(), null, pages, "extracted");
+		request.setPassword(password(exchange, PASSWORD_HEADER));
+		request.setResultPassword(password(exchange, RESULT_PASSWORD_HEADER));
+		
+		exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"extracted.pdf\"");
+		try(StreamOutputTarget target = new StreamOutputTarget(response)) {
+			request.setOutputTarget(target);
+			engine.execute(request, ProgressListener.NONE);
+		}
+	}
+
+	@Override
+	protected String getContentType() {
+		return "application/pdf";
+	}
+}
@@ -0,0 +1,62 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ExtractToTextEngine;
+import com.gaspar.pdfutils.engine.ExtractToTextRequest;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.output.StreamOutputTarget;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Handles <i>POST /extract-to-text</i>. The body is a PDF file, the response is the UTF-8 text of the selected pages, 
+ * with a form feed after each page. Query parameter: <i>pages</i> (default is all). The text is streamed while 
+ * it is extracted.
+ * @author Gáspár Tamás
+ */
+class ExtractToTextHandler extends JobHandler {
+
+	private final ExtractToTextEngine engine = new ExtractToTextEngine();
+
+	ExtractToTextHandler(Semaphore jobPermits, long admissionTimeoutMillis) {
+		super(jobPermits, admissionTimeoutMillis);
+	}
+
+	@Override
+	protected void spoolBody(InputStream body, Path workDir) throws IOException {
+		Files.copy(body, workDir.resolve("source.pdf"));
+	}
+
+	@Override
+	protected void execute(HttpExchange exchange, Map<String, String> parameters, Path workDir, OutputStream response) 
+			throws IOException, EngineException {
+		final PageSet pages;
+		try {
+			pages = PageSet.parse(parameters.getOrDefault("pages", "1-"));
+		} catch(NumberFormatException e) {
+			throw new InvalidRequestException(parameters.get("pages") + " is not a valid page specifier!");
+		}
+		final ExtractToTextRequest request = new ExtractToTextRequest(workDir.resolve("source.pdf").toString(), null, pages, "extracted");
+		request.setPassword(password(exchange, PASSWORD_HEADER));
+		
+		exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"extracted.txt\"");
+		try(StreamOutputTarget target = new StreamOutputTarget(response)) {
+			request.setOutputTarget(target);
+			engine.execute(request, ProgressListener.NONE);
+		}
+	}
+
+	@Override
+	protected String getContentType() {
+		return "text/plain; charset=utf-8";
+	}
+}
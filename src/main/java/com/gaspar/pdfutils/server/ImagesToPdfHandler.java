@@ -0,0 +1,88 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.ImagesToPdfEngine;
+import com.gaspar.pdfutils.engine.ImagesToPdfRequest;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.output.StreamOutputTarget;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Handles <i>POST /images-to-pdf</i>. The body is a ZIP archive with the images, the response is a PDF with an 
+ * image on each page, in the order of the archive. The PDF is encrypted if the {@value #RESULT_PASSWORD_HEADER} 
+ * header is given. Images with a higher resolution than <i>maxdpi</i> (default is 
+ * {@value ImagesToPdfRequest#DEFAULT_MAX_DPI}) are subsampled.
+ * @author Gáspár Tamás
+ */
+class ImagesToPdfHandler extends JobHandler {
+
+	private final ImagesToPdfEngine engine = new ImagesToPdfEngine();
+
+	ImagesToPdfHandler(Semaphore jobPermits, long admissionTimeoutMillis) {
+		super(jobPermits, admissionTimeoutMillis);
+	}
+
+	/**
+	 * Unpacks the images. They are renamed to their index, so entry names can't point outside of the work folder.
+	 */
+	@Override
+	protected void spoolBody(InputStream body, Path workDir) throws IOException, EngineException {
+		try(ZipInputStream zip = new ZipInputStream(body)) {
+			int index = 0;
+			ZipEntry entry;
+			while((entry = zip.getNextEntry()) != null) {
+				if(entry.isDirectory()) continue;
+				final String name = entry.getName();
+				final String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+				if(!isSupported(extension)) throw new InvalidRequestException(name + " is not a supported image!");
+				Files.copy(zip, workDir.resolve(String.format("%06d.%s", index++, extension)));
+			}
+		}
+	}
+
+	@Override
+	protected void execute(HttpExchange exchange, Map<String, String> parameters, Path workDir, OutputStream response) 
+			throws IOException, EngineException {
+		final List<File> images = new ArrayList<>();
+		try(Stream<Path> files = Files.list(workDir)) {
+			files.sorted().forEach(path -> images.add(path.toFile())); //names are the indices, so this is the archive order
+		}
+		final ImagesToPdfRequest request = new ImagesToPdfRequest(images, null, "combined");
+		request.setPassword(password(exchange, RESULT_PASSWORD_HEADER));
+		request.setMaxDpi(intParameter(parameters, "maxdpi", ImagesToPdfRequest.DEFAULT_MAX_DPI));
+		
+		exchange.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"combined.pdf\"");
+		try(StreamOutputTarget target = new StreamOutputTarget(response)) {
+			request.setOutputTarget(target);
+			engine.execute(request, ProgressListener.NONE);
+		}
+	}
+
+	@Override
+	protected String getContentType() {
+		return "application/pdf";
+	}
+
+	private static boolean isSupported(String extension) {
+		for(String supported: ImagesToPdfEngine.SUPPORTED_FORMATS) {
+			if(supported.equals(extension)) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,236 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.engine.InvalidRequestException;
+import com.gaspar.pdfutils.engine.WrongPasswordException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Base class of the handlers that run an engine for an HTTP request. The request body is first spooled into a temporary 
+ * folder, so it does not occupy the heap. Then the job waits for a permit of the admission limit, so only a limited 
+ * amount of engines work at the same time. The result is streamed into the response as it is produced.
+ * <p>
+ * Parameters are given in the query string. Passwords are given in the {@value #PASSWORD_HEADER} and 
+ * {@value #RESULT_PASSWORD_HEADER} headers, so they don't end up in access logs.
+ * @author Gáspár Tamás
+ */
+abstract class JobHandler implements HttpHandler {
+
+	/**
+	 * Header with the password of the uploaded PDF.
+	 */
+	static final String PASSWORD_HEADER = "X-Pdf-Password";
+	/**
+	 * Header with the password of the generated PDF.
+	 */
+	static final String RESULT_PASSWORD_HEADER = "X-Result-Password";
+
+	private static final Logger LOGGER = Logger.getLogger(JobHandler.class.getName());
+
+	/**
+	 * Permits of the admission limit, shared by all handlers of a server.
+	 */
+	private final Semaphore jobPermits;
+	/**
+	 * How long a job waits for a permit before it is rejected.
+	 */
+	private final long admissionTimeoutMillis;
+
+	JobHandler(Semaphore jobPermits, long admissionTimeoutMillis) {
+		this.jobPermits = jobPermits;
+		this.admissionTimeoutMillis = admissionTimeoutMillis;
+	}
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException {
+		ResponseOutputStream response = null;
+		Path workDir = null;
+		try {
+			if(!"POST".equals(exchange.getRequestMethod())) {
+				sendError(exchange, 405, "Only POST requests are accepted!");
+				return;
+			}
+			final Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+			workDir = Files.createTempDirectory("pdfutils-job-");
+			try(InputStream body = exchange.getRequestBody()) {
+				spoolBody(body, workDir); //before admission: uploading does not use much memory
+			}
+			if(!jobPermits.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				exchange.getResponseHeaders().set("Retry-After", "5");
+				sendError(exchange, 503, "Too many jobs are running, try again later!");
+				return;
+			}
+			try {
+				response = new ResponseOutputStream(exchange, getContentType());
+				execute(exchange, parameters, workDir, response);
+				response.close();
+			} finally {
+				jobPermits.release();
+			}
+		} catch(EngineException e) {
+			if(response != null && response.isCommitted()) {
+				LOGGER.log(Level.WARNING, "Job failed after the response was started", e);
+			} else {
+				sendError(exchange, statusOf(e), e.getMessage());
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch(IOException | RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Job failed", e);
+			if(response == null || !response.isCommitted()) sendError(exchange, 500, "The job failed: " + e.getMessage());
+		} finally {
+			if(workDir != null) deleteRecursively(workDir);
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Saves the request body into the work folder.
+	 * @param body The request body.
+	 * @param workDir Temporary folder of this job, deleted after the job.
+	 * @throws IOException If the body can't be read or saved.
+	 * @throws EngineException If the body is not valid.
+	 */
+	protected abstract void spoolBody(InputStream body, Path workDir) throws IOException, EngineException;
+
+	/**
+	 * Runs the engine and streams the result into the response. This is only called if the job got an admission permit.
+	 * @param exchange The exchange, for reading headers and setting response headers.
+	 * @param parameters Parameters from the query string.
+	 * @param workDir Temporary folder of this job, with the spooled body.
+	 * @param response The response body. Headers are sent when the first byte is written.
+	 * @throws IOException If the response can't be written.
+	 * @throws EngineException If the engine fails.
+	 */
+	protected abstract void execute(HttpExchange exchange, Map<String, String> parameters, Path workDir, OutputStream response) 
+			throws IOException, EngineException;
+
+	/**
+	 * @return Content type of a successful response.
+	 */
+	protected abstract String getContentType();
+
+	/**
+	 * Reads an integer parameter.
+	 * @param parameters Parameters from the query string.
+	 * @param name Name of the parameter.
+	 * @param defaultValue Returned if the parameter is missing.
+	 * @return The value.
+	 * @throws InvalidRequestException If the parameter is not an integer.
+	 */
+	static int intParameter(Map<String, String> parameters, String name, int defaultValue) throws InvalidRequestException {
+		final String value = parameters.get(name);
+		if(value == null) return defaultValue;
+		try {
+			return Integer.parseInt(value);
+		} catch(NumberFormatException e) {
+			throw new InvalidRequestException(value + " is not a valid value for " + name + "!");
+		}
+	}
+
+	/**
+	 * Reads a header with a password.
+	 * @param exchange The exchange.
+	 * @param header Name of the header.
+	 * @return The password, or null if it is not given.
+	 */
+	static String password(HttpExchange exchange, String header) {
+		final String password = exchange.getRequestHeaders().getFirst(header);
+		return password == null || password.isEmpty() ? null : password;
+	}
+
+	/**
+	 * Selects the status code for an engine error.
+	 * @param e The error.
+	 * @return The status code.
+	 */
+	private static int statusOf(EngineException e) {
+		if(e instanceof InvalidRequestException) return 400;
+		if(e instanceof WrongPasswordException) return 403;
+		return 500;
+	}
+
+	/**
+	 * Sends an error response with a plain text message.
+	 * @param exchange The exchange.
+	 * @param status Status code.
+	 * @param message The message.
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message) {
+		try {
+			final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+			exchange.sendResponseHeaders(status, bytes.length);
+			try(OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		} catch(IOException e) {
+			LOGGER.log(Level.FINE, "Could not send error response", e); //the client is gone
+		}
+	}
+
+	/**
+	 * Parses a raw query string, such as <i>pages=1-5&amp;dpi=150</i>.
+	 * @param rawQuery The query, still URL encoded. Can be null.
+	 * @return The parameters.
+	 * @throws InvalidRequestException If the query can't be decoded.
+	 */
+	private static Map<String, String> parseQuery(String rawQuery) throws InvalidRequestException {
+		final Map<String, String> parameters = new HashMap<>();
+		if(rawQuery == null || rawQuery.isEmpty()) return parameters;
+		try {
+			for(String pair: rawQuery.split("&")) {
+				final int eq = pair.indexOf('=');
+				final String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+				final String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+				parameters.put(name, value);
+			}
+		} catch(UnsupportedEncodingException | IllegalArgumentException e) {
+			throw new InvalidRequestException("The query string is not valid!");
+		}
+		return parameters;
+	}
+
+	/**
+	 * Deletes the temporary folder of a job.
+	 * @param dir The folder.
+	 */
+	private static void deleteRecursively(Path dir) {
+		try {
+			Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+					Files.delete(d);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch(IOException e) {
+			LOGGER.log(Level.WARNING, "Could not delete " + dir, e);
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embedded HTTP server, which lets other services on the same host use the engines without starting a new JVM 
+ * for each file. It is started with the {@value #SERVER_ARGUMENT} command line argument, and listens only on the 
+ * loopback address. The endpoints are:
+ * <ul>
+ * <li><i>POST /extract-to-images</i>, see {@link ExtractToImagesHandler}.</li>
+ * <li><i>POST /extract-to-pdf</i>, see {@link ExtractToPdfHandler}.</li>
+ * <li><i>POST /images-to-pdf</i>, see {@link ImagesToPdfHandler}.</li>
+ * <li><i>POST /extract-to-text</i>, see {@link ExtractToTextHandler}.</li>
+ * <li><i>POST /extract-embedded-images</i>, see {@link ExtractEmbeddedImagesHandler}.</li>
+ * </ul>
+ * Requests are handled on virtual threads when the JVM supports them (Java 21 or newer), otherwise on a thread pool. 
+ * Heavy work is protected by an admission limit: only a given amount of jobs run at the same time, the others wait 
+ * for a while and then get a <i>503</i> response.
+ * @author Gáspár Tamás
+ */
+public class PdfUtilsServer {
+
+	/**
+	 * Command line argument that starts the server instead of the GUI.
+	 */
+	public static final String SERVER_ARGUMENT = "--server";
+	/**
+	 * Port used if none is given.
+	 */
+	public static final int DEFAULT_PORT = 8765;
+	/**
+	 * How long a job waits for an admission permit before it is rejected.
+	 */
+	public static final long ADMISSION_TIMEOUT_MILLIS = 30_000;
+
+	/**
+	 * The JDK HTTP server.
+	 */
+	private final HttpServer server;
+	/**
+	 * Runs the request handlers.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Creates a server, which is not started yet.
+	 * @param port Port on the loopback address. 0 selects a free port.
+	 * @param maxConcurrentJobs Maximum amount of jobs that run at the same time.
+	 * @throws IOException If the port can't be bound.
+	 */
+	public PdfUtilsServer(int port, int maxConcurrentJobs) throws IOException {
+		if(maxConcurrentJobs <= 0) throw new IllegalArgumentException("At least one concurrent job must be allowed!");
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		final Semaphore jobPermits = new Semaphore(maxConcurrentJobs, true); //fair, so jobs are admitted in order
+		server.createContext("/extract-to-images", new ExtractToImagesHandler(jobPermits, ADMISSION_TIMEOUT_MILLIS));
+		server.createContext("/extract-to-pdf", new ExtractToPdfHandler(jobPermits, ADMISSION_TIMEOUT_MILLIS));
+		server.createContext("/images-to-pdf", new ImagesToPdfHandler(jobPermits, ADMISSION_TIMEOUT_MILLIS));
+		server.createContext("/extract-to-text", new ExtractToTextHandler(jobPermits, ADMISSION_TIMEOUT_MILLIS));
+		server.createContext("/extract-embedded-images", new ExtractEmbeddedImagesHandler(jobPermits, ADMISSION_TIMEOUT_MILLIS));
+		executor = createExecutor();
+		server.setExecutor(executor);
+	}
+
+	/**
+	 * Starts accepting requests in the background.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops the server. Ongoing requests get a few seconds to finish.
+	 */
+	public void stop() {
+		server.stop(5);
+		executor.shutdown();
+	}
+
+	/**
+	 * @return The port the server listens on.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Creates a virtual thread per task executor if the JVM has one. This project is compiled for Java 8, so the 
+	 * method is looked up with reflection.
+	 * @return The executor.
+	 */
+	private static ExecutorService createExecutor() {
+		try {
+			final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService)factory.invoke(null);
+		} catch(ReflectiveOperationException e) { //older JVM
+			final AtomicInteger counter = new AtomicInteger(1);
+			final ThreadFactory threadFactory = r -> {
+				final Thread thread = new Thread(r, "pdfutils-http-" + counter.getAndIncrement());
+				thread.setDaemon(true);
+				return thread;
+			};
+			return Executors.newCachedThreadPool(threadFactory);
+		}
+	}
+
+	/**
+	 * Starts the server from the command line, without loading the GUI. Usage: 
+	 * <i>--server [port] [max concurrent jobs]</i>. The default limit is the amount of processors.
+	 * @param args Command line arguments, the first is {@value #SERVER_ARGUMENT}.
+	 */
+	public static void launch(String[] args) {
+		System.setProperty("java.awt.headless", "true"); //rendering still uses AWT images, but never a display
+		try {
+			final int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+			final int maxJobs = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+			final PdfUtilsServer server = new PdfUtilsServer(port, maxJobs);
+			server.start();
+			System.out.println("PDF utils server listening on http://localhost:" + server.getPort() + " with " + maxJobs + " concurrent jobs.");
+		} catch(NumberFormatException e) {
+			System.err.println("Usage: " + SERVER_ARGUMENT + " [port] [max concurrent jobs]");
+			System.exit(1);
+		} catch(IOException e) {
+			System.err.println("Could not start the server: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
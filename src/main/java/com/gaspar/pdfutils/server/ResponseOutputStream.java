@@ -0,0 +1,74 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+
+/**
+ * Streams a successful response body. The response headers are only sent when the first byte is written, so until 
+ * then the job can still fail with a proper error status.
+ * @author Gáspár Tamás
+ */
+class ResponseOutputStream extends OutputStream {
+
+	/**
+	 * The exchange this is the response of.
+	 */
+	private final HttpExchange exchange;
+	/**
+	 * Content type of the response.
+	 */
+	private final String contentType;
+	/**
+	 * The response body. Null until the headers are sent.
+	 */
+	private OutputStream body;
+
+	ResponseOutputStream(HttpExchange exchange, String contentType) {
+		this.exchange = exchange;
+		this.contentType = contentType;
+	}
+
+	/**
+	 * Sends the headers if they were not sent yet. The body is sent in chunks, because its length is not known in advance.
+	 * @return The response body.
+	 * @throws IOException If the client is gone.
+	 */
+	private OutputStream body() throws IOException {
+		if(body == null) {
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+			exchange.sendResponseHeaders(200, 0);
+			body = exchange.getResponseBody();
+		}
+		return body;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		body().write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		body().write(b, off, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if(body != null) body.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		body().close(); //an empty body is also a successful response
+	}
+
+	/**
+	 * Checks if the headers are sent. After that an error can't be reported with a status code.
+	 * @return True if the response is already started.
+	 */
+	boolean isCommitted() {
+		return body != null;
+	}
+}
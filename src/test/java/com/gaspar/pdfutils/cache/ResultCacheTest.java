@@ -0,0 +1,76 @@
+package com.gaspar.pdfutils.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import com.gaspar.pdfutils.output.DirectoryOutputTarget;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ResultCache}.
+ */
+public class ResultCacheTest extends TestCase {
+
+	private File root;
+
+	@Override
+	protected void setUp() throws IOException {
+		root = Files.createTempDirectory("cache").toFile();
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		Files.walk(root.toPath()).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+	}
+
+	public void testKeyDependsOnEveryParameter() {
+		assertEquals(ResultCache.key("a", 1, null), ResultCache.key("a", 1, null));
+		assertFalse(ResultCache.key("a", 1).equals(ResultCache.key("a", 2)));
+	}
+
+	public void testStoredResultIsRestored() throws IOException {
+		final File source = folder("source");
+		write(source, "img_1.png", "one");
+		write(source, "img_2.png", "two");
+		final ResultCache cache = new ResultCache(new File(root, "cache"), 1024);
+		cache.store("key", source, Arrays.asList("img_1.png", "img_2.png"), 2);
+
+		final File destination = folder("destination");
+		final ResultCache.CachedResult result;
+		try(DirectoryOutputTarget target = new DirectoryOutputTarget(destination)) {
+			result = cache.restore("key", target);
+		}
+		assertEquals(Arrays.asList("img_1.png", "img_2.png"), result.getOutputs());
+		assertEquals(2, result.getPageCount());
+		assertEquals("two", new String(Files.readAllBytes(new File(destination, "img_2.png").toPath()), StandardCharsets.UTF_8));
+		assertNull(cache.restore("other", new DirectoryOutputTarget(destination)));
+	}
+
+	public void testLeastRecentlyUsedResultIsEvicted() throws IOException {
+		final File source = folder("source");
+		write(source, "a.pdf", "0123456789");
+		final ResultCache cache = new ResultCache(new File(root, "cache"), 40); //two results fit, with their manifests
+		cache.store("first", source, Arrays.asList("a.pdf"), 1);
+		cache.store("second", source, Arrays.asList("a.pdf"), 1);
+		new File(root, "cache/first/manifest.txt").setLastModified(System.currentTimeMillis() - 60000);
+		new File(root, "cache/second/manifest.txt").setLastModified(System.currentTimeMillis() - 30000);
+		cache.store("third", source, Arrays.asList("a.pdf"), 1);
+		assertFalse(new File(root, "cache/first").exists());
+		assertTrue(new File(root, "cache/second").exists());
+		assertTrue(new File(root, "cache/third").exists());
+	}
+
+	private File folder(String name) {
+		final File folder = new File(root, name);
+		folder.mkdirs();
+		return folder;
+	}
+
+	private static void write(File folder, String name, String content) throws IOException {
+		Files.write(new File(folder, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
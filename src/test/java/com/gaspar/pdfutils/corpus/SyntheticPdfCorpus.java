@@ -0,0 +1,314 @@
+package com.gaspar.pdfutils.corpus;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+/**
+ * Creates PDF files and images for tests and benchmarks, so they don't need real documents. The content comes from
+ * random generators with fixed seeds, and no system fonts are used, so the same call creates the same file on every
+ * machine (encrypted files differ in their random keys, but not in their content).
+ * <p>
+ * Files are created in a folder and named by their parameters. A file that already exists is not created again.
+ * @author Gáspár Tamás
+ */
+public class SyntheticPdfCorpus {
+
+	/**
+	 * Words of the generated text.
+	 */
+	private static final String[] WORDS = {"the", "contract", "payment", "terms", "of", "delivery", "invoice", "and",
+			"shall", "be", "due", "within", "days", "party", "agreement", "page", "section", "total", "amount", "signed"};
+	/**
+	 * Width of A4 pages in inches, height is {@link #A4_HEIGHT_INCHES}.
+	 */
+	private static final float A4_WIDTH_INCHES = PDRectangle.A4.getWidth() / 72, A4_HEIGHT_INCHES = PDRectangle.A4.getHeight() / 72;
+
+	/**
+	 * Files are created here.
+	 */
+	private final File directory;
+
+	/**
+	 * Creates a corpus.
+	 * @param directory Files are created here. Created if it does not exist.
+	 */
+	public SyntheticPdfCorpus(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * @return A corpus in the build folder, shared by the tests.
+	 */
+	public static SyntheticPdfCorpus inBuildFolder() {
+		return new SyntheticPdfCorpus(new File("target", "synthetic-corpus"));
+	}
+
+	/**
+	 * A4 pages full of text, about 60 lines of 12 words each, with a standard font.
+	 * @param pages Amount of pages.
+	 * @return The PDF file.
+	 * @throws IOException If the file can't be written.
+	 */
+	public File textPages(int pages) throws IOException {
+		final File file = file("text-" + pages + ".pdf");
+		if(file.isFile()) return file;
+		final Random random = new Random(1);
+		try(PDDocument document = new PDDocument()) {
+			for(int i = 0; i < pages; i++) {
+				final PDPage page = new PDPage(PDRectangle.A4);
+				document.addPage(page);
+				try(PDPageContentStream contents = new PDPageContentStream(document, page)) {
+					writeText(contents, random, 50, PDRectangle.A4.getHeight() - 50, 60, 12);
+				}
+			}
+			save(document, file);
+		}
+		return file;
+	}
+
+	/**
+	 * A4 pages that are each a single JPEG image covering the page, like the pages of a scanner. The images are gray,
+	 * with dark blocks in lines where the words would be, and some noise.
+	 * @param pages Amount of pages.
+	 * @param dpi Resolution of the scans.
+	 * @return The PDF file.
+	 * @throws IOException If the file can't be written.
+	 */
+	public File scannedPages(int pages, int dpi) throws IOException {
+		final File file = file("scan-" + pages + "-" + dpi + "dpi.pdf");
+		if(file.isFile()) return file;
+		final Random random = new Random(2);
+		try(PDDocument document = new PDDocument()) {
+			for(int i = 0; i < pages; i++) {
+				final PDPage page = new PDPage(PDRectangle.A4);
+				document.addPage(page);
+				final BufferedImage scan = scanImage(random, Math.round(A4_WIDTH_INCHES * dpi), Math.round(A4_HEIGHT_INCHES * dpi), BufferedImage.TYPE_BYTE_GRAY);
+				final PDImageXObject image = JPEGFactory.createFromImage(document, scan, 0.75f);
+				try(PDPageContentStream contents = new PDPageContentStream(document, page)) {
+					contents.drawImage(image, 0, 0, PDRectangle.A4.getWidth(), PDRectangle.A4.getHeight());
+				}
+			}
+			save(document, file);
+		}
+		return file;
+	}
+
+	/**
+	 * A4 pages with many filled and stroked curves, which are slow to render.
+	 * @param pages Amount of pages.
+	 * @param pathsPerPage Amount of paths on each page.
+	 * @return The PDF file.
+	 * @throws IOException If the file can't be written.
+	 */
+	public File vectorPages(int pages, int pathsPerPage) throws IOException {
+		final File file = file("vector-" + pages + "-" + pathsPerPage + ".pdf");
+		if(file.isFile()) return file;
+		final Random random = new Random(3);
+		try(PDDocument document = new PDDocument()) {
+			for(int i = 0; i < pages; i++) {
+				final PDPage page = new PDPage(PDRectangle.A4);
+				document.addPage(page);
+				try(PDPageContentStream contents = new PDPageContentStream(document, page)) {
+					drawPaths(contents, random, PDRectangle.A4, pathsPerPage);
+				}
+			}
+			save(document, file);
+		}
+		return file;
+	}
+
+	/**
+	 * A0 pages (like plans and posters) with paths and text, which make very large images.
+	 * @param pages Amount of pages.
+	 * @return The PDF file.
+	 * @throws IOException If the file can't be written.
+	 */
+	public File largeFormatPages(int pages) throws IOException {
+		final File file = file("large-" + pages + ".pdf");
+		if(file.isFile()) return file;
+		final Random random = new Random(4);
+		try(PDDocument document = new PDDocument()) {
+			for(int i = 0; i < pages; i++) {
+				final PDPage page = new PDPage(PDRectangle.A0);
+				document.addPage(page);
+				try(PDPageContentStream contents = new PDPageContentStream(document, page)) {
+					drawPaths(contents, random, PDRectangle.A0, 500);
+					writeText(contents, random, 100, PDRectangle.A0.getHeight() - 100, 40, 20);
+				}
+			}
+			save(document, file);
+		}
+		return file;
+	}
+
+	/**
+	 * A password protected copy of a file of this corpus, with 128 bit AES encryption.
+	 * @param source The file to copy.
+	 * @param password The password, which is needed to open the copy.
+	 * @return The encrypted PDF file.
+	 * @throws IOException If the file can't be read or written.
+	 */
+	public File encrypted(File source, String password) throws IOException {
+		final File file = file(source.getName().replace(".pdf", "") + "-encrypted-" + password + ".pdf");
+		if(file.isFile()) return file;
+		try(PDDocument document = PDDocument.load(source)) {
+			final AccessPermission permission = new AccessPermission();
+			final StandardProtectionPolicy policy = new StandardProtectionPolicy(password, password, permission);
+			policy.setEncryptionKeyLength(128);
+			policy.setPermissions(permission);
+			document.protect(policy);
+			save(document, file);
+		}
+		return file;
+	}
+
+	/**
+	 * Color images for combining into a PDF, looking like scanned pages.
+	 * @param count Amount of images.
+	 * @param width Width of the images in pixels.
+	 * @param height Height of the images in pixels.
+	 * @param format Format of the images, for example "png" or "jpg".
+	 * @return The image files, in order.
+	 * @throws IOException If a file can't be written.
+	 */
+	public List<File> imageSet(int count, int width, int height, String format) throws IOException {
+		final File folder = file("images-" + count + "-" + width + "x" + height + "-" + format);
+		folder.mkdirs();
+		final Random random = new Random(5);
+		final List<File> images = new ArrayList<>();
+		for(int i = 1; i <= count; i++) {
+			final File image = new File(folder, String.format(Locale.ROOT, "image_%04d.%s", i, format));
+			final BufferedImage content = scanImage(random, width, height, BufferedImage.TYPE_INT_RGB); //always generated, so the next image is the same
+			if(!image.isFile()) write(content, format, image);
+			images.add(image);
+		}
+		return images;
+	}
+
+	/**
+	 * Writes lines of random words.
+	 */
+	private static void writeText(PDPageContentStream contents, Random random, float x, float y, int lines, int wordsPerLine) throws IOException {
+		contents.beginText();
+		contents.setFont(PDType1Font.HELVETICA, 10);
+		contents.setLeading(12);
+		contents.newLineAtOffset(x, y);
+		for(int line = 0; line < lines; line++) {
+			final StringBuilder text = new StringBuilder();
+			for(int word = 0; word < wordsPerLine; word++) {
+				text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+			}
+			text.append(random.nextInt(100000));
+			contents.showText(text.toString());
+			contents.newLine();
+		}
+		contents.endText();
+	}
+
+	/**
+	 * Draws random curves, half of them filled and half stroked.
+	 */
+	private static void drawPaths(PDPageContentStream contents, Random random, PDRectangle size, int paths) throws IOException {
+		final float width = size.getWidth(), height = size.getHeight();
+		for(int i = 0; i < paths; i++) {
+			final Color color = new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256));
+			contents.moveTo(random.nextFloat() * width, random.nextFloat() * height);
+			for(int segment = 0; segment < 8; segment++) {
+				contents.curveTo(random.nextFloat() * width, random.nextFloat() * height, random.nextFloat() * width,
+						random.nextFloat() * height, random.nextFloat() * width, random.nextFloat() * height);
+			}
+			if(i % 2 == 0) {
+				contents.setNonStrokingColor(color);
+				contents.fill();
+			} else {
+				contents.setStrokingColor(color);
+				contents.setLineWidth(0.5f + random.nextFloat() * 3);
+				contents.stroke();
+			}
+		}
+	}
+
+	/**
+	 * Creates an image that looks like a scanned text page: light paper with noise, and dark blocks for the words.
+	 */
+	private static BufferedImage scanImage(Random random, int width, int height, int type) {
+		final BufferedImage image = new BufferedImage(width, height, type);
+		final Graphics2D graphics = image.createGraphics();
+		graphics.setColor(new Color(240, 238, 230));
+		graphics.fillRect(0, 0, width, height);
+		final int lineHeight = Math.max(4, height / 60);
+		graphics.setColor(new Color(30, 30, 35));
+		for(int y = lineHeight * 2; y < height - lineHeight * 2; y += lineHeight) {
+			int x = width / 12;
+			while(x < width - width / 12) {
+				final int wordWidth = lineHeight + random.nextInt(lineHeight * 4);
+				graphics.fillRect(x, y, Math.min(wordWidth, width - width / 12 - x), lineHeight * 2 / 3);
+				x += wordWidth + lineHeight / 2;
+			}
+		}
+		graphics.dispose();
+		for(int i = width * height / 50; i > 0; i--) { //dust and scanner noise
+			final int gray = random.nextInt(256);
+			image.setRGB(random.nextInt(width), random.nextInt(height), new Color(gray, gray, gray).getRGB());
+		}
+		return image;
+	}
+
+	/**
+	 * Saves a document with a fixed ID under a temporary name and renames it, so a test that was stopped never leaves a broken file
+	 * that would be used by the next run.
+	 */
+	private static void save(PDDocument document, File file) throws IOException {
+		//PDFBox would make the ID from the current time
+		final COSString id = new COSString(file.getName().getBytes(StandardCharsets.UTF_8));
+		final COSArray ids = new COSArray();
+		ids.add(id);
+		ids.add(id);
+		document.getDocument().getTrailer().setItem(COSName.ID, ids);
+		final File temp = new File(file.getPath() + ".tmp");
+		document.save(temp);
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Writes an image under a temporary name and renames it, like {@link #save(PDDocument, File)}.
+	 */
+	private static void write(BufferedImage image, String format, File file) throws IOException {
+		final File temp = new File(file.getPath() + ".tmp");
+		if(!ImageIO.write(image, format, temp)) throw new IOException("No writer for " + format);
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * @return A file in the corpus folder, which is created if needed.
+	 */
+	private File file(String name) {
+		directory.mkdirs();
+		return new File(directory, name);
+	}
+}
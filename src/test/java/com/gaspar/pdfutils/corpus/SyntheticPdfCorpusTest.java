@@ -0,0 +1,68 @@
+package com.gaspar.pdfutils.corpus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.encryption.InvalidPasswordException;
+
+import com.gaspar.pdfutils.render.ScannedPageDetector;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link SyntheticPdfCorpus}.
+ */
+public class SyntheticPdfCorpusTest extends TestCase {
+
+	private File root;
+
+	@Override
+	protected void setUp() throws IOException {
+		root = Files.createTempDirectory("corpus").toFile();
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		Files.walk(root.toPath()).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+	}
+
+	public void testFilesAreTheSameEveryTime() throws IOException {
+		final File first = new SyntheticPdfCorpus(new File(root, "a")).textPages(3);
+		final File second = new SyntheticPdfCorpus(new File(root, "b")).textPages(3);
+		assertTrue(Arrays.equals(Files.readAllBytes(first.toPath()), Files.readAllBytes(second.toPath())));
+		try(PDDocument document = PDDocument.load(first)) {
+			assertEquals(3, document.getNumberOfPages());
+		}
+	}
+
+	public void testScannedPagesAreDetected() throws IOException {
+		try(PDDocument document = PDDocument.load(new SyntheticPdfCorpus(root).scannedPages(2, 50))) {
+			assertEquals(2, document.getNumberOfPages());
+			assertNotNull(ScannedPageDetector.findScannedImage(document.getPage(1)));
+		}
+	}
+
+	public void testEncryptedCopyNeedsPassword() throws IOException {
+		final SyntheticPdfCorpus corpus = new SyntheticPdfCorpus(root);
+		final File encrypted = corpus.encrypted(corpus.vectorPages(1, 10), "secret");
+		try {
+			PDDocument.load(encrypted).close();
+			fail("Opened without password");
+		} catch(InvalidPasswordException e) {
+			//expected
+		}
+		try(PDDocument document = PDDocument.load(encrypted, "secret")) {
+			assertEquals(1, document.getNumberOfPages());
+		}
+	}
+
+	public void testImageSet() throws IOException {
+		final List<File> images = new SyntheticPdfCorpus(root).imageSet(3, 40, 60, "png");
+		assertEquals(3, images.size());
+		assertEquals(60, javax.imageio.ImageIO.read(images.get(2)).getHeight());
+	}
+}
@@ -0,0 +1,106 @@
+package com.gaspar.pdfutils.engine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ExtractEmbeddedImagesEngine}.
+ */
+public class ExtractEmbeddedImagesEngineTest extends TestCase {
+
+	private File directory;
+	/**
+	 * The JPEG data embedded in the second page.
+	 */
+	private byte[] jpeg;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("extract-embedded-images").toFile();
+	}
+
+	@Override
+	protected void tearDown() {
+		for(File file: directory.listFiles()) file.delete();
+		directory.delete();
+	}
+
+	private static BufferedImage image(int type) {
+		final BufferedImage image = new BufferedImage(40, 30, type);
+		final Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, 40, 30);
+		graphics.setColor(Color.BLUE);
+		graphics.fillRect(5, 5, 20, 10);
+		graphics.dispose();
+		return image;
+	}
+
+	/**
+	 * Writes a document with a blank page without resources, a page with a JPEG image and a page with a lossless image.
+	 */
+	private File document() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ImageIO.write(image(BufferedImage.TYPE_INT_RGB), "jpg", bytes);
+		jpeg = bytes.toByteArray();
+		final File file = new File(directory, "source.pdf");
+		try(PDDocument document = new PDDocument()) {
+			document.addPage(new PDPage());
+			final PDPage jpegPage = new PDPage();
+			document.addPage(jpegPage);
+			try(PDPageContentStream contents = new PDPageContentStream(document, jpegPage)) {
+				contents.drawImage(JPEGFactory.createFromByteArray(document, jpeg), 100, 100);
+			}
+			final PDPage losslessPage = new PDPage();
+			document.addPage(losslessPage);
+			try(PDPageContentStream contents = new PDPageContentStream(document, losslessPage)) {
+				contents.drawImage(LosslessFactory.createFromImage(document, image(BufferedImage.TYPE_INT_RGB)), 100, 100);
+			}
+			assertNull(document.getPage(0).getResources());
+			document.save(file);
+		}
+		return file;
+	}
+
+	private EngineResult extract(File source, String pages) throws EngineException {
+		final ExtractEmbeddedImagesRequest request = new ExtractEmbeddedImagesRequest(source.getPath(), directory.getPath(), PageSet.parse(pages), "img_");
+		return new ExtractEmbeddedImagesEngine().execute(request, ProgressListener.NONE);
+	}
+
+	public void testPageWithoutResourcesHasNoImages() throws IOException, EngineException {
+		final EngineResult result = extract(document(), "1");
+		assertEquals(0, result.getOutputs().size());
+		assertEquals(1, result.getPageCount());
+	}
+
+	public void testImagesAreSavedForEachPage() throws IOException, EngineException {
+		final EngineResult result = extract(document(), "1-3");
+		assertEquals(Arrays.asList("img_2_1.jpg", "img_3_1.png"), result.getOutputs());
+		assertEquals(3, result.getPageCount());
+		//the JPEG data is copied, the other image is decoded
+		assertTrue(Arrays.equals(jpeg, Files.readAllBytes(new File(directory, "img_2_1.jpg").toPath())));
+		final BufferedImage decoded = ImageIO.read(new File(directory, "img_3_1.png"));
+		assertEquals(40, decoded.getWidth());
+		assertEquals(Color.BLUE.getRGB(), decoded.getRGB(10, 10));
+		assertEquals(Color.WHITE.getRGB(), decoded.getRGB(35, 25));
+	}
+}
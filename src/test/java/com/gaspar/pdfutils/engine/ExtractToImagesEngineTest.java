@@ -0,0 +1,118 @@
+package com.gaspar.pdfutils.engine;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import com.gaspar.pdfutils.corpus.SyntheticPdfCorpus;
+import com.gaspar.pdfutils.output.DirectoryOutputTarget;
+import com.gaspar.pdfutils.output.ImageFormat;
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+import com.gaspar.pdfutils.render.RenderBudget;
+import com.gaspar.pdfutils.render.TiledPageImage;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ExtractToImagesEngine}.
+ */
+public class ExtractToImagesEngineTest extends TestCase {
+
+	private File directory;
+	private File document;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("extract-to-images").toFile();
+		document = SyntheticPdfCorpus.inBuildFolder().largeFormatPages(1);
+	}
+
+	@Override
+	protected void tearDown() {
+		for(File file: directory.listFiles()) file.delete();
+		directory.delete();
+	}
+
+	/**
+	 * Renders the page into the temporary folder. The folder is given as the output target, so the result is not cached.
+	 */
+	private EngineResult extract(ImageFormat format, int dpi) throws IOException, EngineException {
+		final ExtractToImagesRequest request = new ExtractToImagesRequest(document.getPath(), directory.getPath(), PageSet.parse("1"), "page_");
+		request.setFormat(format);
+		request.setDpi(dpi);
+		final DirectoryOutputTarget target = new DirectoryOutputTarget(directory);
+		request.setOutputTarget(target);
+		final EngineResult result = new ExtractToImagesEngine().execute(request, ProgressListener.NONE);
+		target.close();
+		return result;
+	}
+
+	private static Rectangle pixelSize(File file, int dpi) throws IOException {
+		try(PDDocument pdf = PDDocument.load(file)) {
+			assertTrue("The page is not large enough", TiledPageImage.isNeeded(pdf.getPage(0), dpi));
+			final TiledPageImage image = new TiledPageImage(new PDFRenderer(pdf), pdf.getPage(0), 0, dpi); //nothing is rendered
+			return new Rectangle(image.getWidth(), image.getHeight());
+		}
+	}
+
+	public void testLargeFormatPageToJpeg() throws IOException, EngineException {
+		final Rectangle size = pixelSize(document, 110);
+		final EngineResult result = extract(ImageFormat.JPEG, 110);
+		assertEquals(Collections.singletonList("page_1.jpg"), result.getOutputs());
+		final BufferedImage image = ImageIO.read(new File(directory, "page_1.jpg"));
+		assertEquals(size.width, image.getWidth());
+		assertEquals(size.height, image.getHeight());
+		assertEquals(RenderBudget.shared().getTotalBytes(), RenderBudget.shared().getAvailableBytes());
+	}
+
+	public void testPageLargerThanTheBudgetIsRejectedForJpeg() throws IOException, EngineException {
+		int dpi = 150;
+		try(PDDocument pdf = PDDocument.load(document)) {
+			while(RenderBudget.estimateBytes(pdf.getPage(0), dpi, ImageType.RGB) <= RenderBudget.shared().getTotalBytes()) dpi *= 2;
+		}
+		try {
+			extract(ImageFormat.JPEG, dpi);
+			fail("The page was rendered as a whole");
+		} catch(InvalidRequestException expected) {
+		}
+		assertEquals(0, directory.listFiles().length);
+	}
+
+	public void testInterruptedJobWithRepeatedPageIsContinued() throws IOException, EngineException {
+		final File source = SyntheticPdfCorpus.inBuildFolder().textPages(2);
+		final ExtractToImagesRequest request = new ExtractToImagesRequest(source.getPath(), directory.getPath(), PageSet.parse("1,1,2"), "img_");
+		request.setDpi(20);
+		//the third file can't get its name, so the job fails after the first two are complete
+		final File blocker = new File(directory, "img_3.png");
+		assertTrue(new File(blocker, "file").mkdirs());
+		try {
+			new ExtractToImagesEngine().execute(request, ProgressListener.NONE);
+			fail("The third file was written");
+		} catch(EngineException expected) {
+		}
+		new File(blocker, "file").delete();
+		blocker.delete();
+		final long written = 1000000000000L;
+		assertTrue(new File(directory, "img_1.png").setLastModified(written));
+		assertTrue(new File(directory, "img_2.png").setLastModified(written));
+
+		final EngineResult result = new ExtractToImagesEngine().execute(request, ProgressListener.NONE);
+		assertEquals(Arrays.asList("img_1.png", "img_2.png", "img_3.png"), result.getOutputs());
+		//both files of the first page were skipped
+		assertEquals(written, new File(directory, "img_1.png").lastModified());
+		assertEquals(written, new File(directory, "img_2.png").lastModified());
+		assertTrue(new File(directory, "img_3.png").isFile());
+		assertFalse(new File(directory, ".img_journal").exists());
+	}
+}
@@ -0,0 +1,36 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.gaspar.pdfutils.corpus.SyntheticPdfCorpus;
+import com.gaspar.pdfutils.pages.PageSet;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ExtractToPdfEngine}.
+ */
+public class ExtractToPdfEngineTest extends TestCase {
+
+	private ExtractToPdfRequest request() throws IOException {
+		final File document = SyntheticPdfCorpus.inBuildFolder().textPages(2);
+		return new ExtractToPdfRequest(document.getPath(), document.getParent(), PageSet.parse("1"), "extracted");
+	}
+
+	public void testUnprotectedResultIsCached() throws IOException {
+		assertNotNull(new ExtractToPdfEngine().cacheKey(request()));
+	}
+
+	public void testProtectedDocumentIsNotCached() throws IOException {
+		final ExtractToPdfRequest request = request();
+		request.setPassword("secret");
+		assertNull(new ExtractToPdfEngine().cacheKey(request));
+	}
+
+	public void testProtectedResultIsNotCached() throws IOException {
+		final ExtractToPdfRequest request = request();
+		request.setResultPassword("secret");
+		assertNull(new ExtractToPdfEngine().cacheKey(request));
+	}
+}
@@ -0,0 +1,129 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import com.gaspar.pdfutils.pages.PageSet;
+import com.gaspar.pdfutils.progress.ProgressListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ExtractToTextEngine}.
+ */
+public class ExtractToTextEngineTest extends TestCase {
+
+	private File directory;
+	/**
+	 * Ten pages, each with the text "Page" and its number.
+	 */
+	private File document;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("extract-to-text").toFile();
+		document = new File(directory, "source.pdf");
+		try(PDDocument pdf = new PDDocument()) {
+			for(int i=1; i<=10; i++) {
+				final PDPage page = new PDPage();
+				pdf.addPage(page);
+				try(PDPageContentStream contents = new PDPageContentStream(pdf, page)) {
+					contents.beginText();
+					contents.setFont(PDType1Font.HELVETICA, 12);
+					contents.newLineAtOffset(72, 700);
+					contents.showText("Page " + i);
+					contents.endText();
+				}
+			}
+			pdf.save(document);
+		}
+	}
+
+	@Override
+	protected void tearDown() {
+		for(File file: directory.listFiles()) file.delete();
+		directory.delete();
+	}
+
+	private static ExtractToTextRequest request(File source, String pages, int chunkPages, int workers) {
+		final ExtractToTextRequest request = new ExtractToTextRequest(source.getPath(), source.getParent(), PageSet.parse(pages), "text");
+		request.setChunkPages(chunkPages);
+		request.setWorkers(workers);
+		return request;
+	}
+
+	/**
+	 * Extracts the text, and returns the text of each page.
+	 */
+	private List<String> extract(String pages, int chunkPages, int workers) throws IOException, EngineException {
+		new ExtractToTextEngine().execute(request(document, pages, chunkPages, workers), ProgressListener.NONE);
+		final String text = new String(Files.readAllBytes(new File(directory, "text.txt").toPath()), StandardCharsets.UTF_8);
+		assertTrue(text.endsWith("\f"));
+		final List<String> pageTexts = new ArrayList<>();
+		for(String page: text.split("\f")) pageTexts.add(page.trim());
+		return pageTexts;
+	}
+
+	private static List<String> pages(int... numbers) {
+		final List<String> texts = new ArrayList<>();
+		for(int number: numbers) texts.add("Page " + number);
+		return texts;
+	}
+
+	public void testPagesAreWrittenInTheOrderOfTheSelection() throws IOException, EngineException {
+		assertEquals(pages(7, 1, 2, 3, 10, 4), extract("7,1-3,10,4", 2, 3));
+	}
+
+	public void testEveryPageIsWrittenOnceAtTheChunkBoundaries() throws IOException, EngineException {
+		final List<String> all = pages(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+		for(int chunkPages: Arrays.asList(1, 3, 4, 10, 32)) {
+			assertEquals("Chunks of " + chunkPages + " pages", all, extract("1-10", chunkPages, 3));
+		}
+	}
+
+	public void testSinglePageSelection() throws IOException, EngineException {
+		assertEquals(pages(5), extract("5", 32, 4));
+	}
+
+	public void testErrorOfAWorkerFailsTheJob() throws Exception {
+		//the parser of the content stream overflows the stack on deeply nested arrays
+		final File malformed = new File(directory, "malformed.pdf");
+		try(PDDocument pdf = PDDocument.load(document)) {
+			final StringBuilder content = new StringBuilder();
+			for(int i=0; i<100000; i++) content.append('[');
+			for(int i=0; i<100000; i++) content.append(']');
+			final PDPage page = pdf.getPage(3);
+			page.setContents(new PDStream(pdf, new ByteArrayInputStream(content.toString().getBytes(StandardCharsets.US_ASCII))));
+			pdf.save(malformed);
+		}
+		final FutureTask<EngineResult> job = new FutureTask<>(() -> new ExtractToTextEngine().execute(request(malformed, "1-10", 2, 2), ProgressListener.NONE));
+		final Thread thread = new Thread(job);
+		thread.setDaemon(true);
+		thread.start();
+		try {
+			job.get(1, TimeUnit.MINUTES);
+			fail("The malformed page was extracted");
+		} catch(ExecutionException expected) {
+			assertTrue(expected.getCause() instanceof DocumentAccessException);
+			assertTrue(expected.getCause().getCause().getCause() instanceof StackOverflowError);
+		} catch(TimeoutException e) {
+			fail("The job waits for a chunk that is never completed");
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.gaspar.pdfutils.engine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.CCITTFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ImageStreams}.
+ */
+public class ImageStreamsTest extends TestCase {
+
+	private static BufferedImage image(int type) {
+		final BufferedImage image = new BufferedImage(40, 24, type);
+		final Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, 40, 24);
+		graphics.setColor(Color.BLACK);
+		graphics.fillRect(4, 4, 16, 8);
+		graphics.dispose();
+		return image;
+	}
+
+	public void testJpegDataIsCopiedUnchanged() throws IOException {
+		final ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+		ImageIO.write(image(BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+		try(PDDocument document = new PDDocument()) {
+			final PDImageXObject image = JPEGFactory.createFromByteArray(document, jpeg.toByteArray());
+			assertTrue(ImageStreams.isJpeg(image.getStream()));
+			final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+			ImageStreams.copy(image.getStream(), copy);
+			assertTrue(Arrays.equals(jpeg.toByteArray(), copy.toByteArray()));
+		}
+	}
+
+	public void testCcittImageIsCopiedAsTiff() throws IOException {
+		final BufferedImage original = image(BufferedImage.TYPE_BYTE_BINARY);
+		try(PDDocument document = new PDDocument()) {
+			final PDImageXObject image = CCITTFactory.createFromImage(document, original);
+			assertTrue(ImageStreams.isTiffCompatibleCcitt(image.getStream()));
+			assertFalse(ImageStreams.isJpeg(image.getStream()));
+			final ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+			ImageStreams.copyCcittAsTiff(image.getStream(), tiff);
+			final BufferedImage read = ImageIO.read(new ByteArrayInputStream(tiff.toByteArray()));
+			assertEquals(40, read.getWidth());
+			assertEquals(24, read.getHeight());
+			assertEquals(Color.BLACK.getRGB(), read.getRGB(8, 8));
+			assertEquals(Color.WHITE.getRGB(), read.getRGB(30, 20));
+		}
+	}
+}
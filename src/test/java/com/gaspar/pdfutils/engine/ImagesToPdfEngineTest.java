@@ -0,0 +1,67 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import com.gaspar.pdfutils.corpus.SyntheticPdfCorpus;
+import com.gaspar.pdfutils.progress.ProgressListener;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ImagesToPdfEngine}.
+ */
+public class ImagesToPdfEngineTest extends TestCase {
+
+	private File directory;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("images-to-pdf").toFile();
+	}
+
+	@Override
+	protected void tearDown() {
+		for(File file: directory.listFiles()) file.delete();
+		directory.delete();
+	}
+
+	public void testSubsamplingKeepsTheResolution() {
+		//a letter page is 8.5 inches wide, 2550 pixels at 300 DPI
+		assertEquals(1, ImagesToPdfEngine.subsampling(2550, 612, 300));
+		assertEquals(1, ImagesToPdfEngine.subsampling(5099, 612, 300));
+		assertEquals(2, ImagesToPdfEngine.subsampling(5100, 612, 300));
+		assertEquals(3, ImagesToPdfEngine.subsampling(9000, 612, 300));
+		assertEquals(1, ImagesToPdfEngine.subsampling(100, 612, 300));
+	}
+
+	public void testOversizedImageIsSubsampled() throws IOException, EngineException {
+		final List<File> images = SyntheticPdfCorpus.inBuildFolder().imageSet(1, 2000, 2400, "png");
+		final ImagesToPdfRequest request = new ImagesToPdfRequest(images, directory.getPath(), "subsampled");
+		request.setMaxDpi(72); //the page needs 612x792 pixels
+		new ImagesToPdfEngine().execute(request, ProgressListener.NONE);
+
+		try(PDDocument document = PDDocument.load(new File(directory, "subsampled.pdf"))) {
+			final PDResources resources = document.getPage(0).getResources();
+			final COSName name = resources.getXObjectNames().iterator().next();
+			final PDImageXObject image = (PDImageXObject)resources.getXObject(name);
+			assertEquals(667, image.getWidth()); //every third pixel, starting with the first
+			assertEquals(800, image.getHeight());
+		}
+	}
+
+	public void testProtectedResultIsNotCached() throws IOException {
+		final List<File> images = SyntheticPdfCorpus.inBuildFolder().imageSet(1, 200, 240, "png");
+		final ImagesToPdfRequest request = new ImagesToPdfRequest(images, directory.getPath(), "protected");
+		assertNotNull(new ImagesToPdfEngine().cacheKey(request));
+		request.setPassword("secret");
+		assertNull(new ImagesToPdfEngine().cacheKey(request));
+	}
+}
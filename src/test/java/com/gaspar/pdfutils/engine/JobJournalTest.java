@@ -0,0 +1,131 @@
+package com.gaspar.pdfutils.engine;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link JobJournal}.
+ */
+public class JobJournalTest extends TestCase {
+
+	private File directory;
+	private File journalFile;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("journal").toFile();
+		journalFile = new File(directory, ".img_journal");
+	}
+
+	@Override
+	protected void tearDown() {
+		for(File file: directory.listFiles()) file.delete();
+		directory.delete();
+	}
+
+	public void testRecordedPagesAreCompleteAfterReopening() throws IOException {
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			writePage(journal, 1, "img_1.png", "first");
+			writePage(journal, 2, "img_2.png", "second");
+		}
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			assertEquals(2, journal.getRecordedPages());
+			assertTrue(journal.isComplete(1, "img_1.png"));
+			assertTrue(journal.isComplete(2, "img_2.png"));
+			assertFalse(journal.isComplete(3, "img_3.png"));
+			assertFalse(journal.isComplete(1, "img_2.png"));
+		}
+	}
+
+	public void testOtherKeyStartsNewJournal() throws IOException {
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			writePage(journal, 1, "img_1.png", "first");
+		}
+		try(JobJournal journal = new JobJournal(journalFile, "b")) {
+			assertEquals(0, journal.getRecordedPages());
+			assertFalse(journal.isComplete(1, "img_1.png"));
+		}
+	}
+
+	public void testChangedFileIsNotComplete() throws IOException {
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			writePage(journal, 1, "img_1.png", "first");
+			writePage(journal, 2, "img_2.png", "second");
+		}
+		Files.write(new File(directory, "img_1.png").toPath(), "frist".getBytes(StandardCharsets.UTF_8));
+		new File(directory, "img_2.png").delete();
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			assertFalse(journal.isComplete(1, "img_1.png"));
+			assertFalse(journal.isComplete(2, "img_2.png"));
+		}
+	}
+
+	public void testIncompleteLineIsCutOff() throws IOException {
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			writePage(journal, 1, "img_1.png", "first");
+		}
+		Files.write(journalFile.toPath(), "2\timg_2.pn".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			assertEquals(1, journal.getRecordedPages());
+			writePage(journal, 3, "img_3.png", "third");
+		}
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			assertTrue(journal.isComplete(1, "img_1.png"));
+			assertTrue(journal.isComplete(3, "img_3.png"));
+		}
+	}
+
+	public void testPageIsOnlyRecordedWhenItsFileIsCommitted() throws IOException {
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			writePage(journal, 1, "img_1.png", "first");
+			try(OutputStream out = journal.track(new FileOutputStream(new File(directory, "img_2.png")))) {
+				out.write("second".getBytes(StandardCharsets.UTF_8));
+			}
+			journal.record(2, "img_2.png"); //the target did not rename it
+		}
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			assertEquals(1, journal.getRecordedPages());
+			assertFalse(journal.isComplete(2, "img_2.png"));
+		}
+	}
+
+	public void testCommitAfterCloseIsIgnored() throws IOException {
+		final JobJournal journal = new JobJournal(journalFile, "a");
+		writePage(journal, 1, "img_1.png", "first");
+		journal.record(2, "img_2.png");
+		journal.close();
+		journal.committed(Collections.singletonList("img_2.png"), true); //the target renames the last files when it is aborted
+		try(JobJournal reopened = new JobJournal(journalFile, "a")) {
+			assertEquals(1, reopened.getRecordedPages());
+		}
+	}
+
+	public void testPageSelectedTwiceHasTwoRecords() throws IOException {
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			writePage(journal, 1, "img_1.png", "first");
+			writePage(journal, 1, "img_2.png", "first");
+		}
+		try(JobJournal journal = new JobJournal(journalFile, "a")) {
+			assertEquals(2, journal.getRecordedPages());
+			assertTrue(journal.isComplete(1, "img_1.png"));
+			assertTrue(journal.isComplete(1, "img_2.png"));
+			assertFalse(journal.isComplete(2, "img_2.png")); //another page selection
+		}
+	}
+
+	private void writePage(JobJournal journal, int pageNumber, String fileName, String content) throws IOException {
+		try(OutputStream out = journal.track(new FileOutputStream(new File(directory, fileName)))) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+		journal.record(pageNumber, fileName);
+		journal.committed(Collections.singletonList(fileName), false);
+	}
+}
@@ -0,0 +1,51 @@
+package com.gaspar.pdfutils.index;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link TextIndex}.
+ */
+public class TextIndexTest extends TestCase {
+
+	private TextIndex index;
+
+	@Override
+	protected void setUp() {
+		index = new TextIndex(5);
+		index.addPage(1, "Payment terms: 30 days.");
+		index.addPage(2, "The CONTRACT ends; payment is due.");
+		index.addPage(3, "Nothing here");
+		index.addPage(4, "contractor, payment");
+		index.addPage(5, "Terms and conditions");
+	}
+
+	public void testWordsAreCaseInsensitive() {
+		assertEquals("1-2,4", index.find("PAYMENT").toString());
+	}
+
+	public void testQueryWordsArePrefixes() {
+		assertEquals("2,4", index.find("contr").toString());
+	}
+
+	public void testAllWordsMustBeOnThePage() {
+		assertEquals("1", index.find("terms payment").toString());
+		assertTrue(index.find("terms contract").isEmpty());
+	}
+
+	public void testEmptyQueryFindsNothing() {
+		assertTrue(index.find(" ;, ").isEmpty());
+	}
+
+	public void testWriteAndReadBack() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		index.write(out);
+		TextIndex read = TextIndex.read(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(5, read.getPageCount());
+		assertEquals(index.getWordCount(), read.getWordCount());
+		assertEquals("1-2,4", read.find("payment").toString());
+	}
+}
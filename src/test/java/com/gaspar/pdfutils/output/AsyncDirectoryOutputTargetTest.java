@@ -0,0 +1,209 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.stream.ImageOutputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link AsyncDirectoryOutputTarget}.
+ */
+public class AsyncDirectoryOutputTargetTest extends TestCase {
+
+	private File directory;
+	/**
+	 * Batches reported by the commit listener, with "synced" at the end if they were synced.
+	 */
+	private final BlockingQueue<List<String>> commits = new LinkedBlockingQueue<>();
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("async-target").toFile();
+	}
+
+	@Override
+	protected void tearDown() {
+		delete(directory);
+	}
+
+	private static void delete(File file) {
+		final File[] children = file.listFiles();
+		if(children != null) {
+			for(File child: children) delete(child);
+		}
+		file.delete();
+	}
+
+	private AsyncDirectoryOutputTarget createTarget() {
+		final AsyncDirectoryOutputTarget target = new AsyncDirectoryOutputTarget(directory);
+		target.setSyncBatchSize(0);
+		target.setCommitListener((names, synced) -> {
+			final List<String> batch = new ArrayList<>(names);
+			if(synced) batch.add("synced");
+			commits.add(batch);
+		});
+		return target;
+	}
+
+	private static void writeEntry(OutputTarget target, String name, String content) throws IOException {
+		try(OutputStream out = target.openEntry(name)) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private String read(String name) throws IOException {
+		return new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.UTF_8);
+	}
+
+	private List<String> sortedNames() {
+		final List<String> names = new ArrayList<>(Arrays.asList(directory.list()));
+		names.sort(null);
+		return names;
+	}
+
+	private List<String> nextCommit() throws InterruptedException {
+		final List<String> batch = commits.poll(10, TimeUnit.SECONDS);
+		assertNotNull("No commit", batch);
+		return batch;
+	}
+
+	public void testEntryIsRenamedWhenTheNextEntryIsOpened() throws IOException, InterruptedException {
+		final AsyncDirectoryOutputTarget target = createTarget();
+		writeEntry(target, "img_1.png", "first");
+		final OutputStream second = target.openEntry("img_2.png");
+		assertEquals(Arrays.asList("img_1.png"), nextCommit());
+		assertEquals("first", read("img_1.png"));
+		assertFalse(new File(directory, "img_2.png").exists());
+		second.close();
+		target.close();
+	}
+
+	public void testLastEntryIsRenamedOnClose() throws IOException, InterruptedException {
+		final AsyncDirectoryOutputTarget target = createTarget();
+		writeEntry(target, "img_1.png", "first");
+		final char[] large = new char[3 * AsyncDirectoryOutputTarget.BUFFER_BYTES + 5]; //more than one buffer
+		Arrays.fill(large, 'x');
+		writeEntry(target, "img_2.png", new String(large));
+		target.close();
+		assertEquals(Arrays.asList("img_1.png"), nextCommit());
+		assertEquals(Arrays.asList("img_2.png"), nextCommit());
+		assertEquals(new String(large), read("img_2.png"));
+		assertEquals(Arrays.asList("img_1.png", "img_2.png"), sortedNames());
+		target.close(); //closing again does nothing
+	}
+
+	public void testAbortDeletesTheLastEntry() throws IOException {
+		final AsyncDirectoryOutputTarget target = createTarget();
+		writeEntry(target, "img_1.png", "first");
+		writeEntry(target, "img_2.png", "sec"); //may be incomplete
+		target.abort();
+		assertEquals(Arrays.asList("img_1.png"), sortedNames());
+	}
+
+	/**
+	 * Makes renaming the first entry fail, because a folder that is not empty has its name.
+	 */
+	private void blockRename(String name) throws IOException {
+		final File blocker = new File(directory, name);
+		assertTrue(blocker.mkdir());
+		Files.write(new File(blocker, "file").toPath(), new byte[] {1});
+	}
+
+	public void testWriterFailureIsThrownOnTheNextWrite() throws IOException, InterruptedException {
+		blockRename("img_1.png");
+		final AsyncDirectoryOutputTarget target = createTarget();
+		writeEntry(target, "img_1.png", "first");
+		final byte[] buffer = new byte[AsyncDirectoryOutputTarget.BUFFER_BYTES];
+		try(OutputStream out = target.openEntry("img_2.png")) { //the writer fails when it renames the first entry
+			final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while(System.nanoTime() < deadline) {
+				out.write(buffer); //a full buffer is passed to the writer
+				Thread.sleep(10);
+			}
+			fail("The failure of the writer was not thrown");
+		} catch(IOException expected) {
+		}
+		try {
+			target.close();
+			fail("The failure of the writer was not thrown on close");
+		} catch(IOException expected) {
+		}
+		assertTrue(commits.isEmpty());
+		assertFalse(new File(directory, ".img_2.png.part").exists());
+	}
+
+	public void testWriterFailureIsThrownOnClose() throws IOException {
+		blockRename("img_1.png");
+		final AsyncDirectoryOutputTarget target = createTarget();
+		writeEntry(target, "img_1.png", "first");
+		target.openEntry("img_2.png"); //the writer fails when it renames the first entry
+		try {
+			target.close();
+			fail("The failure of the writer was not thrown");
+		} catch(IOException expected) {
+		}
+		assertEquals(Arrays.asList("img_1.png"), sortedNames()); //only the folder
+		assertTrue(commits.isEmpty());
+	}
+
+	public void testRenameFailureOnCloseIsThrown() throws IOException, InterruptedException {
+		blockRename("img_1.png");
+		final AsyncDirectoryOutputTarget target = createTarget();
+		writeEntry(target, "img_1.png", "first"); //the last entry, renamed when the target is closed
+		final List<IOException> failures = new ArrayList<>();
+		final Thread closing = new Thread(() -> {
+			try {
+				target.close();
+			} catch(IOException e) {
+				failures.add(e);
+			}
+		});
+		closing.setDaemon(true);
+		closing.start();
+		closing.join(10000);
+		assertFalse("The target waits for a stopped writer", closing.isAlive());
+		assertEquals(1, failures.size());
+		assertEquals(Arrays.asList("img_1.png"), sortedNames()); //only the folder
+	}
+
+	public void testRenameFailureOnAbortStopsTheWriter() throws IOException, InterruptedException {
+		blockRename("img_1.png");
+		final AsyncDirectoryOutputTarget target = createTarget();
+		target.setSyncBatchSize(2);
+		writeEntry(target, "img_1.png", "first");
+		target.openEntry("img_2.png").close(); //img_1 is complete, it is renamed when the target is aborted
+		final Thread aborting = new Thread(target::abort);
+		aborting.setDaemon(true);
+		aborting.start();
+		aborting.join(10000);
+		assertFalse("The target waits for a stopped writer", aborting.isAlive());
+		assertEquals(Arrays.asList("img_1.png"), sortedNames());
+	}
+
+	public void testFilesAreSyncedInBatches() throws IOException, InterruptedException {
+		final AsyncDirectoryOutputTarget target = createTarget();
+		target.setSyncBatchSize(2);
+		writeEntry(target, "img_1.png", "first");
+		try(ImageOutputStream image = target.openImageEntry("img_2.tif")) { //written on this thread
+			image.write("second".getBytes(StandardCharsets.UTF_8));
+		}
+		writeEntry(target, "img_3.png", "third");
+		assertEquals(Arrays.asList("img_1.png", "img_2.tif", "synced"), nextCommit());
+		target.close();
+		assertEquals(Arrays.asList("img_3.png", "synced"), nextCommit());
+		assertEquals("second", read("img_2.tif"));
+		assertEquals(Arrays.asList("img_1.png", "img_2.tif", "img_3.png"), sortedNames());
+		assertTrue(commits.isEmpty());
+	}
+}
@@ -0,0 +1,76 @@
+package com.gaspar.pdfutils.output;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.CCITTFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link CcittTiff}.
+ */
+public class CcittTiffTest extends TestCase {
+
+	private static BufferedImage bilevelImage() {
+		final BufferedImage image = new BufferedImage(53, 31, BufferedImage.TYPE_BYTE_BINARY);
+		final Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, 53, 31);
+		graphics.setColor(Color.BLACK);
+		graphics.fillRect(5, 4, 20, 10);
+		graphics.drawLine(0, 30, 52, 0);
+		graphics.dispose();
+		return image;
+	}
+
+	/**
+	 * Encodes an image with CCITT G4 like it is stored in a PDF, and wraps the encoded data into a TIFF file.
+	 */
+	private static BufferedImage roundTrip(BufferedImage image, boolean blackIsZero) throws IOException {
+		final byte[] data;
+		try(PDDocument document = new PDDocument()) {
+			final PDImageXObject encoded = CCITTFactory.createFromImage(document, image);
+			try(InputStream in = encoded.getCOSObject().createRawInputStream()) {
+				final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				final byte[] buffer = new byte[4096];
+				int read;
+				while((read = in.read(buffer)) != -1) bytes.write(buffer, 0, read);
+				data = bytes.toByteArray();
+			}
+		}
+		final ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+		CcittTiff.write(data, image.getWidth(), image.getHeight(), blackIsZero, tiff);
+		final BufferedImage read = ImageIO.read(new ByteArrayInputStream(tiff.toByteArray()));
+		assertNotNull("The TIFF file can't be read", read);
+		return read;
+	}
+
+	public void testG4DataIsReadableAsTiff() throws IOException {
+		final BufferedImage image = bilevelImage();
+		final BufferedImage read = roundTrip(image, false);
+		assertEquals(image.getWidth(), read.getWidth());
+		assertEquals(image.getHeight(), read.getHeight());
+		for(int y = 0; y < image.getHeight(); y++) {
+			for(int x = 0; x < image.getWidth(); x++) {
+				assertEquals("Pixel " + x + "," + y, image.getRGB(x, y), read.getRGB(x, y));
+			}
+		}
+	}
+
+	public void testBlackIsZeroInvertsTheImage() throws IOException {
+		final BufferedImage image = bilevelImage();
+		final BufferedImage read = roundTrip(image, true);
+		assertEquals(Color.WHITE.getRGB(), read.getRGB(10, 10));
+		assertEquals(Color.BLACK.getRGB(), read.getRGB(40, 25));
+	}
+}
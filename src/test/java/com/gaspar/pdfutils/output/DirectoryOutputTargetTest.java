@@ -0,0 +1,88 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link DirectoryOutputTarget}.
+ */
+public class DirectoryOutputTargetTest extends TestCase {
+
+	private File directory;
+
+	@Override
+	protected void setUp() throws IOException {
+		directory = Files.createTempDirectory("directory-target").toFile();
+	}
+
+	@Override
+	protected void tearDown() {
+		for(File file: directory.listFiles()) file.delete();
+		directory.delete();
+	}
+
+	private static void writeEntry(OutputTarget target, String name, String content) throws IOException {
+		try(OutputStream out = target.openEntry(name)) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private String read(String name) throws IOException {
+		return new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.UTF_8);
+	}
+
+	public void testEntryIsRenamedWhenTheNextEntryIsOpened() throws IOException {
+		final DirectoryOutputTarget target = new DirectoryOutputTarget(directory);
+		writeEntry(target, "img_1.png", "first");
+		assertFalse(new File(directory, "img_1.png").exists());
+		assertTrue(new File(directory, ".img_1.png.part").exists());
+		target.openEntry("img_2.png").close();
+		assertEquals("first", read("img_1.png"));
+		assertFalse(new File(directory, ".img_1.png.part").exists());
+	}
+
+	public void testLastEntryIsRenamedOnClose() throws IOException {
+		final DirectoryOutputTarget target = new DirectoryOutputTarget(directory);
+		writeEntry(target, "img_1.png", "first");
+		writeEntry(target, "img_2.png", "second");
+		target.close();
+		assertEquals("second", read("img_2.png"));
+		assertEquals(Arrays.asList("img_1.png", "img_2.png"), sortedNames());
+	}
+
+	public void testAbortDeletesTheLastEntry() throws IOException {
+		final DirectoryOutputTarget target = new DirectoryOutputTarget(directory);
+		writeEntry(target, "img_1.png", "first");
+		writeEntry(target, "img_2.png", "sec"); //may be incomplete
+		target.abort();
+		assertEquals(Arrays.asList("img_1.png"), sortedNames());
+	}
+
+	public void testListenerIsNotifiedAfterRename() throws IOException {
+		final DirectoryOutputTarget target = new DirectoryOutputTarget(directory);
+		final List<String> committed = new ArrayList<>();
+		target.setCommitListener((names, synced) -> {
+			for(String name: names) assertTrue(new File(directory, name).exists());
+			committed.addAll(names);
+		});
+		writeEntry(target, "img_1.png", "first");
+		writeEntry(target, "img_2.png", "second");
+		assertEquals(Arrays.asList("img_1.png"), committed);
+		target.close();
+		assertEquals(Arrays.asList("img_1.png", "img_2.png"), committed);
+	}
+
+	private List<String> sortedNames() {
+		final List<String> names = new ArrayList<>(Arrays.asList(directory.list()));
+		names.sort(null);
+		return names;
+	}
+}
@@ -0,0 +1,129 @@
+package com.gaspar.pdfutils.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ZipOutputTarget}.
+ */
+public class ZipOutputTargetTest extends TestCase {
+
+	private static void writeEntry(ZipOutputTarget target, String name, byte[] data) throws IOException {
+		try(OutputStream out = target.openEntry(name)) {
+			out.write(data);
+		}
+	}
+
+	/**
+	 * Reads the entries that can be read from the start of an archive.
+	 */
+	private static List<String> readEntries(byte[] archive) throws IOException {
+		final List<String> names = new ArrayList<>();
+		try(ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry entry;
+			while((entry = in.getNextEntry()) != null) names.add(entry.getName());
+		}
+		return names;
+	}
+
+	/**
+	 * Lists the spill files in the temporary folder.
+	 */
+	private static List<String> spillFiles() {
+		final File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles((dir, name) -> name.startsWith("pdfutils-zip"));
+		final List<String> names = new ArrayList<>();
+		for(File file: files) names.add(file.getName());
+		return names;
+	}
+
+	public void testEntriesAreWrittenWhenClosed() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ZipOutputTarget target = new ZipOutputTarget(out);
+		writeEntry(target, "img_1.png", new byte[] {1, 2, 3});
+		writeEntry(target, "pages.txt", "text".getBytes("UTF-8"));
+		target.close();
+		assertEquals(Arrays.asList("img_1.png", "pages.txt"), readEntries(out.toByteArray()));
+	}
+
+	public void testStoredEntryIsNotWrittenBeforeTheNextEntry() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ZipOutputTarget target = new ZipOutputTarget(out);
+		writeEntry(target, "img_1.png", new byte[] {1, 2, 3});
+		assertEquals(0, out.size());
+		target.openEntry("img_2.png").close();
+		assertTrue(out.size() > 3);
+	}
+
+	public void testAbortDiscardsTheLastEntry() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ZipOutputTarget target = new ZipOutputTarget(out);
+		writeEntry(target, "img_1.png", new byte[] {1, 2, 3});
+		writeEntry(target, "img_2.png", new byte[] {4, 5}); //may be incomplete
+		target.abort();
+		assertEquals(Arrays.asList("img_1.png"), readEntries(out.toByteArray()));
+	}
+
+	public void testAbortDoesNotEndTheArchive() throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ZipOutputTarget target = new ZipOutputTarget(out);
+		writeEntry(target, "img_1.png", new byte[] {1, 2, 3});
+		target.abort();
+		assertEquals(0, out.size());
+
+		final ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+		final ZipOutputTarget deflatedTarget = new ZipOutputTarget(deflated);
+		writeEntry(deflatedTarget, "pages.txt", "text".getBytes("UTF-8"));
+		deflatedTarget.abort();
+		try {
+			readEntries(deflated.toByteArray()); //the entry has no size and checksum
+			fail("The aborted entry can be read");
+		} catch(IOException expected) {
+		}
+	}
+
+	public void testLargeStoredEntry() throws IOException {
+		final byte[] data = new byte[17 * 1024 * 1024]; //collected in a temporary file
+		new Random(1).nextBytes(data);
+		final List<String> before = spillFiles();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ZipOutputTarget target = new ZipOutputTarget(out);
+		try(OutputStream entry = target.openEntry("pages.tif")) {
+			for(int off = 0; off < data.length; off += 1000) entry.write(data, off, Math.min(1000, data.length - off));
+		}
+		target.close();
+		assertEquals(before, spillFiles());
+		try(ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+			final ZipEntry entry = in.getNextEntry();
+			assertEquals("pages.tif", entry.getName());
+			assertEquals(ZipEntry.STORED, entry.getMethod());
+			assertEquals(data.length, entry.getSize());
+			final ByteArrayOutputStream read = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[64 * 1024];
+			int count;
+			while((count = in.read(buffer)) != -1) read.write(buffer, 0, count); //the checksum is verified at the end
+			assertTrue(Arrays.equals(data, read.toByteArray()));
+			assertNull(in.getNextEntry());
+		}
+	}
+
+	public void testAbortDeletesTheSpillFile() throws IOException {
+		final List<String> before = spillFiles();
+		final ZipOutputTarget target = new ZipOutputTarget(new ByteArrayOutputStream());
+		try(OutputStream out = target.openEntry("pages.tif")) {
+			out.write(new byte[17 * 1024 * 1024]);
+		}
+		target.abort();
+		assertEquals(before, spillFiles());
+	}
+}
@@ -0,0 +1,77 @@
+package com.gaspar.pdfutils.pages;
+
+import java.util.PrimitiveIterator;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link PageSet}.
+ */
+public class PageSetTest extends TestCase {
+
+	public void testParseKeepsOrderAndDuplicates() {
+		PageSet pages = PageSet.parse("5,1-3, 2 ,9");
+		assertEquals("5,1-3,2,9", pages.toString());
+		assertEquals(6, pages.size());
+		assertPages(pages, 5, 1, 2, 3, 2, 9);
+	}
+
+	public void testConsecutivePagesAreMergedIntoRuns() {
+		PageSet pages = new PageSet();
+		for(int i=1; i<=100000; i++) pages.add(i);
+		pages.add(250000);
+		assertEquals("1-100000,250000", pages.toString());
+		assertEquals(100001, pages.size());
+		assertTrue(pages.contains(99999));
+		assertFalse(pages.contains(100001));
+	}
+
+	public void testOpenRangeIsResolvedAgainstPageCount() {
+		PageSet pages = PageSet.parse("1-2,8-");
+		assertTrue(pages.isOpen());
+		PageSet resolved = pages.resolve(10);
+		assertFalse(resolved.isOpen());
+		assertEquals("1-2,8-10", resolved.toString());
+		assertPages(resolved, 1, 2, 8, 9, 10);
+	}
+
+	public void testResolveRejectsMissingPages() {
+		try {
+			PageSet.parse("3,12").resolve(10);
+			fail("Page 12 is not in the document");
+		} catch(IllegalArgumentException e) {
+			assertTrue(e.getMessage().contains("12"));
+		}
+	}
+
+	public void testOpenSelectionCannotBeIterated() {
+		try {
+			PageSet.all().iterator();
+			fail("Open selection must be resolved first");
+		} catch(IllegalStateException expected) {}
+	}
+
+	public void testInvalidSpecifiers() {
+		String[] invalid = {"", "a", "1,,2", "0", "7-3", "-4", "1-2-3"};
+		for(String spec: invalid) {
+			try {
+				PageSet.parse(spec);
+				fail(spec + " should not be parsed");
+			} catch(NumberFormatException expected) {}
+		}
+	}
+
+	public void testToStringCanBeParsedBack() {
+		PageSet pages = PageSet.parse("4-6,1,10-");
+		assertEquals(pages, PageSet.parse(pages.toString()));
+	}
+
+	private static void assertPages(PageSet pages, int... expected) {
+		PrimitiveIterator.OfInt iterator = pages.iterator();
+		for(int page: expected) {
+			assertTrue(iterator.hasNext());
+			assertEquals(page, iterator.nextInt());
+		}
+		assertFalse(iterator.hasNext());
+	}
+}
@@ -0,0 +1,179 @@
+package com.gaspar.pdfutils.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import com.gaspar.pdfutils.corpus.SyntheticPdfCorpus;
+import com.gaspar.pdfutils.engine.EngineException;
+import com.gaspar.pdfutils.modes.Mode;
+import com.gaspar.pdfutils.modes.ModeExtractToImages;
+import com.gaspar.pdfutils.modes.ModeExtractToPdf;
+import com.gaspar.pdfutils.modes.ModeImagesToPdf;
+import com.gaspar.pdfutils.pages.PageSet;
+
+import junit.framework.TestCase;
+
+/**
+ * Performance regression tests of the modes. Each test executes a mode on a file of the {@link SyntheticPdfCorpus}, 
+ * and measures the memory allocated per page by the executing thread (where the pages are rendered and encoded), 
+ * the time per page and the peak heap usage. The results are compared with the baselines in 
+ * <i>perf-baselines.properties</i>, and the test fails if a value is worse than the baseline times its tolerance.
+ * <p>
+ * Every mode is executed once to warm up, then twice more, and the better measurement is used. The time tolerance 
+ * is generous, because build machines differ in speed.
+ * <p>
+ * These tests only measure if the <i>pdfutils.perf</i> system property is true. Run them with <i>mvn test -Pperf</i>, 
+ * which sets the property and gives the test JVM a fixed heap size, so the peak heap is comparable with the baselines. 
+ * Add <i>-Dpdfutils.perf.record=true</i> to write the measured values into <i>target/perf-baselines.properties</i>, 
+ * which can replace the baselines after an intended change.
+ */
+public class ModePerformanceTest extends TestCase {
+
+	/**
+	 * Time that may be added to each page before the time tolerance is applied, so very fast modes are not flaky.
+	 */
+	private static final double TIME_SLACK_MILLIS = 20;
+
+	private static final SyntheticPdfCorpus CORPUS = SyntheticPdfCorpus.inBuildFolder();
+	private static Properties baselines;
+	private static Properties recorded;
+
+	private File destination;
+
+	@Override
+	protected void setUp() throws IOException {
+		if(baselines == null) {
+			baselines = new Properties();
+			try(InputStream in = getClass().getResourceAsStream("/perf-baselines.properties")) {
+				if(in != null) baselines.load(in);
+			}
+			recorded = new Properties();
+		}
+		destination = Files.createTempDirectory("perf").toFile();
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		for(File file: destination.listFiles()) file.delete();
+		destination.delete();
+		if(Boolean.getBoolean("pdfutils.perf.record")) {
+			try(OutputStream out = Files.newOutputStream(new File("target", "perf-baselines.properties").toPath())) {
+				recorded.store(out, "Measured by ModePerformanceTest");
+			}
+		}
+	}
+
+	public void testExtractTextPagesToImages() throws Exception {
+		final File source = CORPUS.textPages(5);
+		check("extractTextToImages", 5, () -> execute(new ModeExtractToImages(PageSet.all(), "img_"), source));
+	}
+
+	public void testExtractVectorPagesToImages() throws Exception {
+		final File source = CORPUS.vectorPages(2, 200);
+		check("extractVectorToImages", 2, () -> execute(new ModeExtractToImages(PageSet.all(), "img_"), source));
+	}
+
+	public void testExtractScannedPagesToImages() throws Exception {
+		final File source = CORPUS.scannedPages(5, 150);
+		check("extractScansToImages", 5, () -> execute(new ModeExtractToImages(PageSet.all(), "img_"), source));
+	}
+
+	public void testExtractToPdf() throws Exception {
+		final File source = CORPUS.textPages(200);
+		check("extractToPdf", 200, () -> execute(new ModeExtractToPdf(PageSet.all(), "part"), source));
+	}
+
+	public void testImagesToPdf() throws Exception {
+		final List<File> images = CORPUS.imageSet(20, 1240, 1754, "jpg");
+		check("imagesToPdf", 20, () -> execute(new ModeImagesToPdf("combined", images), null));
+	}
+
+	private void execute(Mode mode, File source) throws EngineException {
+		mode.execute(source != null ? source.getPath() : null, destination.getPath());
+	}
+
+	/**
+	 * Measures a mode and compares it with the baselines.
+	 * @param name Name of the baselines.
+	 * @param pages Amount of pages processed by the mode.
+	 * @param run Executes the mode.
+	 */
+	private void check(String name, int pages, ModeRun run) throws Exception {
+		if(!Boolean.getBoolean("pdfutils.perf")) return; //opt-in, see the class description
+		run.execute(); //warm up
+		Measurement best = null;
+		for(int i = 0; i < 2; i++) {
+			final Measurement measurement = Measurement.of(run, pages);
+			best = best == null ? measurement : best.better(measurement);
+		}
+		recorded.setProperty(name + ".bytesPerPage", Long.toString((long)best.bytesPerPage));
+		recorded.setProperty(name + ".millisPerPage", String.format(Locale.ROOT, "%.1f", best.millisPerPage));
+		recorded.setProperty(name + ".peakHeapBytes", Long.toString(best.peakHeapBytes));
+
+		compare(name + ".bytesPerPage", best.bytesPerPage, "tolerance.allocation", 0);
+		compare(name + ".millisPerPage", best.millisPerPage, "tolerance.time", TIME_SLACK_MILLIS);
+		compare(name + ".peakHeapBytes", best.peakHeapBytes, "tolerance.heap", 0);
+	}
+
+	private void compare(String key, double measured, String toleranceKey, double slack) {
+		final String baseline = baselines.getProperty(key);
+		if(baseline == null) return; //new test, no baseline yet
+		final double limit = (Double.parseDouble(baseline) + slack) * Double.parseDouble(baselines.getProperty(toleranceKey, "1.5"));
+		assertTrue(String.format(Locale.ROOT, "%s regressed: %.1f, baseline %s, limit %.1f", key, measured, baseline, limit), measured <= limit);
+	}
+
+	/**
+	 * Executes a mode.
+	 */
+	private interface ModeRun {
+		void execute() throws Exception;
+	}
+
+	/**
+	 * Resources used by one execution of a mode.
+	 */
+	private static class Measurement {
+
+		private final double bytesPerPage;
+		private final double millisPerPage;
+		private final long peakHeapBytes;
+
+		private Measurement(double bytesPerPage, double millisPerPage, long peakHeapBytes) {
+			this.bytesPerPage = bytesPerPage;
+			this.millisPerPage = millisPerPage;
+			this.peakHeapBytes = peakHeapBytes;
+		}
+
+		private static Measurement of(ModeRun run, int pages) throws Exception {
+			final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+			final long threadId = Thread.currentThread().getId();
+			System.gc();
+			final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+			for(MemoryPoolMXBean pool: pools) pool.resetPeakUsage();
+			final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+			final long start = System.nanoTime();
+			run.execute();
+			final long elapsed = System.nanoTime() - start;
+			final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+			long peak = 0;
+			for(MemoryPoolMXBean pool: pools) {
+				if(pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+			}
+			return new Measurement((double)allocated / pages, elapsed / 1e6 / pages, peak);
+		}
+
+		private Measurement better(Measurement other) {
+			return new Measurement(Math.min(bytesPerPage, other.bytesPerPage), Math.min(millisPerPage, other.millisPerPage), 
+					Math.min(peakHeapBytes, other.peakHeapBytes));
+		}
+	}
+}
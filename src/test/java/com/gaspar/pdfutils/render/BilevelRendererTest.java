@@ -0,0 +1,64 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link BilevelRenderer}.
+ */
+public class BilevelRendererTest extends TestCase {
+
+	/**
+	 * A gray image with one row.
+	 */
+	private static BufferedImage row(int... levels) {
+		final BufferedImage image = new BufferedImage(levels.length, 1, BufferedImage.TYPE_BYTE_GRAY);
+		image.getRaster().setPixels(0, 0, levels.length, 1, levels);
+		return image;
+	}
+
+	private static byte[] bits(BufferedImage image) {
+		return ((DataBufferByte)image.getRaster().getDataBuffer()).getData();
+	}
+
+	public void testFirstPixelIsTheHighestBit() {
+		final BufferedImage bilevel = BilevelRenderer.binarize(row(255, 0, 0, 0, 0, 0, 0, 255, 0, 255), Binarization.THRESHOLD, 128);
+		assertEquals(BufferedImage.TYPE_BYTE_BINARY, bilevel.getType());
+		final byte[] bits = bits(bilevel);
+		assertEquals(2, bits.length); //the second row byte is padded
+		assertEquals((byte)0x81, bits[0]);
+		assertEquals((byte)0x40, bits[1]);
+		assertEquals(0xFFFFFFFF, bilevel.getRGB(0, 0)); //white pixels are 1
+		assertEquals(0xFF000000, bilevel.getRGB(1, 0));
+	}
+
+	public void testThresholdIsTheFirstWhiteLevel() {
+		final byte[] bits = bits(BilevelRenderer.binarize(row(127, 128, 129, 0, 255, 64, 192, 100), Binarization.THRESHOLD, 128));
+		assertEquals((byte)0b0110_1010, bits[0]);
+		final byte[] low = bits(BilevelRenderer.binarize(row(0, 1, 2), Binarization.THRESHOLD, 1));
+		assertEquals((byte)0b0110_0000, low[0]);
+	}
+
+	public void testEveryRowStartsAtAByte() {
+		final BufferedImage gray = new BufferedImage(3, 2, BufferedImage.TYPE_BYTE_GRAY);
+		gray.getRaster().setPixels(0, 0, 3, 2, new int[] {255, 0, 0, 0, 0, 255});
+		final byte[] bits = bits(BilevelRenderer.binarize(gray, Binarization.THRESHOLD, 128));
+		assertEquals(2, bits.length);
+		assertEquals((byte)0x80, bits[0]);
+		assertEquals((byte)0x20, bits[1]);
+	}
+
+	public void testDitheringKeepsTheAverageGray() {
+		final int[] levels = new int[64];
+		Arrays.fill(levels, 128);
+		final BufferedImage gray = new BufferedImage(64, 64, BufferedImage.TYPE_BYTE_GRAY);
+		for(int y = 0; y < 64; y++) gray.getRaster().setPixels(0, y, 64, 1, levels);
+		final BufferedImage bilevel = BilevelRenderer.binarize(gray, Binarization.DITHER, 128);
+		int white = 0;
+		for(byte b: bits(bilevel)) white += Integer.bitCount(b & 0xFF);
+		assertTrue("White pixels: " + white, Math.abs(white - 64 * 64 / 2) < 64 * 64 / 20);
+	}
+}
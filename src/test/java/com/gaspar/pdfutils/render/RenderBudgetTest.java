@@ -0,0 +1,38 @@
+package com.gaspar.pdfutils.render;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link RenderBudget}.
+ */
+public class RenderBudgetTest extends TestCase {
+
+	public void testEstimateDependsOnImageType() {
+		PDPage page = new PDPage(new PDRectangle(72, 144)); //1x2 inches
+		assertEquals(300L * 600 * 4, RenderBudget.estimateBytes(page, 300, ImageType.RGB));
+		assertEquals(300L * 600, RenderBudget.estimateBytes(page, 300, ImageType.GRAY));
+		assertEquals(300L * 600 / 8, RenderBudget.estimateBytes(page, 300, ImageType.BINARY));
+	}
+
+	public void testReservationIsReturnedOnce() throws InterruptedException {
+		RenderBudget budget = new RenderBudget(1024 * 1024);
+		RenderBudget.Reservation reservation = budget.reserve(256 * 1024);
+		assertEquals(768 * 1024, budget.getAvailableBytes());
+		reservation.close();
+		reservation.close();
+		assertEquals(1024 * 1024, budget.getAvailableBytes());
+	}
+
+	@SuppressWarnings("try")
+	public void testRenderLargerThanBudgetRunsAlone() throws InterruptedException {
+		RenderBudget budget = new RenderBudget(1024 * 1024);
+		try(RenderBudget.Reservation reservation = budget.reserve(10L * 1024 * 1024)) {
+			assertEquals(0, budget.getAvailableBytes());
+		}
+		assertEquals(1024 * 1024, budget.getAvailableBytes());
+	}
+}
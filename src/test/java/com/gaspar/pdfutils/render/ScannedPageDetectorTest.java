@@ -0,0 +1,122 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdmodel.graphics.state.RenderingMode;
+import org.apache.pdfbox.util.Matrix;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ScannedPageDetector}.
+ */
+public class ScannedPageDetectorTest extends TestCase {
+
+	private static final float WIDTH = PDRectangle.A4.getWidth();
+	private static final float HEIGHT = PDRectangle.A4.getHeight();
+
+	private PDDocument document;
+	private PDPage page;
+
+	@Override
+	protected void setUp() {
+		document = new PDDocument();
+		page = new PDPage(PDRectangle.A4);
+		document.addPage(page);
+	}
+
+	@Override
+	protected void tearDown() throws IOException {
+		document.close();
+	}
+
+	private PDImageXObject image(int type) throws IOException {
+		return LosslessFactory.createFromImage(document, new BufferedImage(60, 85, type));
+	}
+
+	private PDPageContentStream contents() throws IOException {
+		return new PDPageContentStream(document, page);
+	}
+
+	private void showText(PDPageContentStream contents) throws IOException {
+		contents.beginText();
+		contents.setFont(PDType1Font.HELVETICA, 12);
+		contents.newLineAtOffset(50, 50);
+		contents.showText("scanned text");
+		contents.endText();
+	}
+
+	public void testImageOverThePageIsScanned() throws IOException {
+		final PDImageXObject image = image(BufferedImage.TYPE_BYTE_GRAY);
+		try(PDPageContentStream contents = contents()) {
+			contents.drawImage(image, 0, 0, WIDTH, HEIGHT);
+		}
+		assertEquals(image.getCOSObject(), ScannedPageDetector.findScannedImage(page).getCOSObject());
+	}
+
+	public void testInvisibleTextIsAllowed() throws IOException {
+		try(PDPageContentStream contents = contents()) {
+			contents.drawImage(image(BufferedImage.TYPE_BYTE_GRAY), 0, 0, WIDTH, HEIGHT);
+			contents.setRenderingMode(RenderingMode.NEITHER);
+			showText(contents);
+		}
+		assertNotNull(ScannedPageDetector.findScannedImage(page));
+	}
+
+	public void testVisibleTextIsNotScanned() throws IOException {
+		try(PDPageContentStream contents = contents()) {
+			contents.drawImage(image(BufferedImage.TYPE_BYTE_GRAY), 0, 0, WIDTH, HEIGHT);
+			showText(contents);
+		}
+		assertNull(ScannedPageDetector.findScannedImage(page));
+	}
+
+	public void testClippedImageIsNotScanned() throws IOException {
+		try(PDPageContentStream contents = contents()) {
+			contents.addRect(0, 0, WIDTH / 2, HEIGHT);
+			contents.clip();
+			contents.drawImage(image(BufferedImage.TYPE_BYTE_GRAY), 0, 0, WIDTH, HEIGHT);
+		}
+		assertNull(ScannedPageDetector.findScannedImage(page));
+	}
+
+	public void testSmallImageIsNotScanned() throws IOException {
+		try(PDPageContentStream contents = contents()) {
+			contents.drawImage(image(BufferedImage.TYPE_BYTE_GRAY), 0, 0, WIDTH, HEIGHT - 10);
+		}
+		assertNull(ScannedPageDetector.findScannedImage(page));
+	}
+
+	public void testRotatedPageIsNotScanned() throws IOException {
+		try(PDPageContentStream contents = contents()) {
+			contents.drawImage(image(BufferedImage.TYPE_BYTE_GRAY), 0, 0, WIDTH, HEIGHT);
+		}
+		page.setRotation(90);
+		assertNull(ScannedPageDetector.findScannedImage(page));
+	}
+
+	public void testRotatedImageIsNotScanned() throws IOException {
+		try(PDPageContentStream contents = contents()) {
+			//drawn over the page, but turned by 180 degrees
+			contents.drawImage(image(BufferedImage.TYPE_BYTE_GRAY), new Matrix(-WIDTH, 0, 0, -HEIGHT, WIDTH, HEIGHT));
+		}
+		assertNull(ScannedPageDetector.findScannedImage(page));
+	}
+
+	public void testImageWithSoftMaskIsNotScanned() throws IOException {
+		final PDImageXObject image = image(BufferedImage.TYPE_INT_ARGB);
+		assertNotNull(image.getSoftMask());
+		try(PDPageContentStream contents = contents()) {
+			contents.drawImage(image, 0, 0, WIDTH, HEIGHT);
+		}
+		assertNull(ScannedPageDetector.findScannedImage(page));
+	}
+}
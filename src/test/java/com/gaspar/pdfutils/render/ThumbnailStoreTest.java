@@ -0,0 +1,53 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ThumbnailStore}.
+ */
+public class ThumbnailStoreTest extends TestCase {
+
+	private static final long THUMBNAIL_BYTES = 18 * 21 * 3;
+
+	private static BufferedImage page(Color color) {
+		BufferedImage image = new BufferedImage(85, 110, BufferedImage.TYPE_INT_RGB);
+		for(int y=0; y<image.getHeight(); y++) {
+			for(int x=0; x<image.getWidth(); x++) image.setRGB(x, y, color.getRGB());
+		}
+		return image;
+	}
+
+	public void testThumbnailIsScaledAndPacked() {
+		ThumbnailStore store = new ThumbnailStore(18, 21, 10 * THUMBNAIL_BYTES);
+		BufferedImage thumbnail = store.put(1, page(Color.RED));
+		assertSame(thumbnail, store.get(1));
+		assertEquals(18, thumbnail.getWidth());
+		assertEquals(21, thumbnail.getHeight());
+		assertEquals(BufferedImage.TYPE_3BYTE_BGR, thumbnail.getType());
+		assertEquals(Color.RED.getRGB(), thumbnail.getRGB(9, 10));
+		assertEquals(THUMBNAIL_BYTES, store.getBytes());
+	}
+
+	public void testLeastRecentlyUsedThumbnailIsDropped() {
+		ThumbnailStore store = new ThumbnailStore(18, 21, 2 * THUMBNAIL_BYTES);
+		store.put(1, page(Color.RED));
+		store.put(2, page(Color.GREEN));
+		assertNotNull(store.get(1)); //now page 2 is the least recently used
+		store.put(3, page(Color.BLUE));
+		assertEquals(2, store.size());
+		assertNull(store.get(2));
+		assertNotNull(store.get(1));
+		assertNotNull(store.get(3));
+	}
+
+	public void testOneThumbnailIsKeptOverTheLimit() {
+		ThumbnailStore store = new ThumbnailStore(18, 21, 1);
+		store.put(1, page(Color.RED));
+		store.put(2, page(Color.GREEN));
+		assertEquals(1, store.size());
+		assertNotNull(store.get(2));
+	}
+}
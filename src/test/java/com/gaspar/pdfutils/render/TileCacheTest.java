@@ -0,0 +1,51 @@
+package com.gaspar.pdfutils.render;
+
+import java.awt.image.BufferedImage;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link TileCache}.
+ */
+public class TileCacheTest extends TestCase {
+
+	private static final long TILE_BYTES = 16 * 16 * 4;
+
+	private static BufferedImage tile() {
+		return new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+	}
+
+	public void testKeysDependOnAllParts() {
+		assertEquals(new TileCache.Key(0, 72, 1, 2), new TileCache.Key(0, 72, 1, 2));
+		assertEquals(new TileCache.Key(0, 72, 1, 2).hashCode(), new TileCache.Key(0, 72, 1, 2).hashCode());
+		assertFalse(new TileCache.Key(0, 72, 1, 2).equals(new TileCache.Key(0, 90, 1, 2)));
+		assertFalse(new TileCache.Key(0, 72, 1, 2).equals(new TileCache.Key(0, 72, 2, 1)));
+	}
+
+	public void testLeastRecentlyUsedTileIsDropped() {
+		TileCache cache = new TileCache(3 * TILE_BYTES);
+		TileCache.Key first = new TileCache.Key(0, 72, 0, 0);
+		TileCache.Key second = new TileCache.Key(0, 72, 1, 0);
+		TileCache.Key third = new TileCache.Key(0, 72, 2, 0);
+		cache.put(first, tile());
+		cache.put(second, tile());
+		cache.put(third, tile());
+		assertNotNull(cache.get(first)); //now the second is the least recently used
+		cache.put(new TileCache.Key(0, 72, 3, 0), tile());
+		assertEquals(3, cache.size());
+		assertEquals(3 * TILE_BYTES, cache.getBytes());
+		assertNull(cache.get(second));
+		assertNotNull(cache.get(first));
+		assertNotNull(cache.get(third));
+	}
+
+	public void testReplacedTileIsNotCountedTwice() {
+		TileCache cache = new TileCache(10 * TILE_BYTES);
+		TileCache.Key key = new TileCache.Key(0, 72, 0, 0);
+		cache.put(key, tile());
+		cache.put(key, tile());
+		assertEquals(TILE_BYTES, cache.getBytes());
+		cache.clear();
+		assertEquals(0, cache.getBytes());
+	}
+}
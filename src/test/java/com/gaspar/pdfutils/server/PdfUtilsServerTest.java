@@ -0,0 +1,125 @@
+package com.gaspar.pdfutils.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.gaspar.pdfutils.corpus.SyntheticPdfCorpus;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for {@link PdfUtilsServer}.
+ */
+public class PdfUtilsServerTest extends TestCase {
+
+	/**
+	 * Shared by the tests, because stopping a server takes seconds on some JVMs.
+	 */
+	private static PdfUtilsServer server;
+	private File document;
+
+	public static Test suite() {
+		return new TestSetup(new TestSuite(PdfUtilsServerTest.class)) {
+			@Override
+			protected void setUp() throws IOException {
+				server = new PdfUtilsServer(0, 2);
+				server.start();
+			}
+
+			@Override
+			protected void tearDown() {
+				server.stop();
+			}
+		};
+	}
+
+	@Override
+	protected void setUp() throws IOException {
+		document = SyntheticPdfCorpus.inBuildFolder().scannedPages(3, 100);
+	}
+
+	/**
+	 * Status and body of a response.
+	 */
+	private static class Response {
+		private int status;
+		private byte[] body;
+	}
+
+	private static Response post(String pathAndQuery, byte[] body, String password) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection)new URL("http://127.0.0.1:" + server.getPort() + pathAndQuery).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		if(password != null) connection.setRequestProperty(JobHandler.PASSWORD_HEADER, password);
+		try(OutputStream out = connection.getOutputStream()) {
+			out.write(body);
+		}
+		final Response response = new Response();
+		response.status = connection.getResponseCode();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try(InputStream in = response.status == 200 ? connection.getInputStream() : connection.getErrorStream()) {
+			final byte[] buffer = new byte[8192];
+			int read;
+			while((read = in.read(buffer)) != -1) bytes.write(buffer, 0, read);
+		}
+		response.body = bytes.toByteArray();
+		return response;
+	}
+
+	private static List<String> entries(byte[] archive) throws IOException {
+		final List<String> names = new ArrayList<>();
+		try(ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			ZipEntry entry;
+			while((entry = in.getNextEntry()) != null) names.add(entry.getName());
+		}
+		return names;
+	}
+
+	public void testExtractToImages() throws IOException {
+		final Response response = post("/extract-to-images?pages=1-2&dpi=30", Files.readAllBytes(document.toPath()), null);
+		assertEquals(200, response.status);
+		assertEquals(Arrays.asList("img_1.png", "img_2.png"), entries(response.body));
+	}
+
+	public void testMissingPageIsBadRequest() throws IOException {
+		final byte[] pdf = Files.readAllBytes(document.toPath());
+		assertEquals(400, post("/extract-to-images?pages=2-5", pdf, null).status);
+		assertEquals(400, post("/extract-embedded-images?pages=4", pdf, null).status);
+	}
+
+	public void testUnknownFormatIsBadRequest() throws IOException {
+		final byte[] pdf = Files.readAllBytes(document.toPath());
+		assertEquals(400, post("/extract-to-images?format=tif", pdf, null).status);
+		assertEquals(400, post("/extract-to-images?format=png8", pdf, null).status);
+	}
+
+	public void testInvalidDocumentIsNotSuccessful() throws IOException {
+		final byte[] text = "not a PDF".getBytes(StandardCharsets.UTF_8);
+		assertEquals(500, post("/extract-to-images", text, null).status);
+		assertEquals(500, post("/extract-embedded-images", text, null).status);
+	}
+
+	public void testWrongPasswordIsForbidden() throws IOException {
+		final File encrypted = SyntheticPdfCorpus.inBuildFolder().encrypted(document, "secret");
+		final byte[] pdf = Files.readAllBytes(encrypted.toPath());
+		assertEquals(403, post("/extract-to-images", pdf, "wrong").status);
+		assertEquals(403, post("/extract-embedded-images", pdf, "wrong").status);
+		assertEquals(200, post("/extract-embedded-images", pdf, "secret").status);
+	}
+}